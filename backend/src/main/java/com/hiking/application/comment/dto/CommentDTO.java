@@ -13,6 +13,7 @@ public class CommentDTO {
     private Long replyToUserId;
     private String content;
     private Integer likeCount;
+    private Integer replyCount;
     private LocalDateTime createTime;
     private String timeText;
     
@@ -21,5 +22,8 @@ public class CommentDTO {
     private String replyToUserName;
     private Boolean isLiked;
     
+    /**
+     * 回复预览（最早的若干条），更多回复以最后一条的ID为游标分页加载
+     */
     private List<CommentDTO> replies;
 }
@@ -0,0 +1,175 @@
+package com.hiking.application.comment.service;
+
+import com.hiking.domain.comment.entity.Comment;
+import com.hiking.domain.comment.repository.CommentRepository;
+import com.hiking.infrastructure.cache.LocalLruCache;
+import com.hiking.infrastructure.redis.RedisScripts;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisZSetCommands;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 评论点赞排行
+ * <p>
+ * 每个帖子一个 ZSET（成员为一级评论ID，分数为点赞数），首次读取时从数据库整体构建并设置过期时间；
+ * 之后点赞切换用集合基数 ZADD XX 覆盖分数，发表一级评论时只在 ZSET 已存在时加入，删除时 ZREM，
+ * 不会在过期后建出只含部分成员的集合。
+ * <p>
+ * 分页游标为上一页最后一条的 分数:评论ID，该评论分数未变时用 ZREVRANK 精确定位；
+ * 分数已变或已删除时从同分数段开头继续，可能与上一页少量重复。
+ */
+@Slf4j
+@Service
+public class CommentRankService {
+
+    private static final String RANK_KEY_PREFIX = "post:comments:top:";
+    private static final Duration RANK_TTL = Duration.ofDays(3);
+
+    /**
+     * 评论所属帖子的本机缓存（评论ID -> 帖子ID，回复为 0），评论的所属关系不会变化
+     */
+    private static final int POST_ID_CACHE_CAPACITY = 100000;
+    private static final long POST_ID_CACHE_TTL_MILLIS = Duration.ofHours(6).toMillis();
+
+    private static final RedisScript<Long> ZADD_IF_EXISTS_SCRIPT = RedisScripts.load("zadd_if_exists.lua", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final CommentRepository commentRepository;
+    private final LocalLruCache<Long, Long> postIds =
+            new LocalLruCache<>(POST_ID_CACHE_CAPACITY, 16, POST_ID_CACHE_TTL_MILLIS);
+
+    public CommentRankService(StringRedisTemplate redisTemplate, CommentRepository commentRepository) {
+        this.redisTemplate = redisTemplate;
+        this.commentRepository = commentRepository;
+    }
+
+    /**
+     * 发表一级评论
+     */
+    public void onCreated(Comment comment) {
+        if (isReply(comment)) {
+            return;
+        }
+        postIds.put(comment.getId(), comment.getPostId());
+        try {
+            redisTemplate.execute(ZADD_IF_EXISTS_SCRIPT, List.of(RANK_KEY_PREFIX + comment.getPostId()),
+                    "0", comment.getId().toString());
+        } catch (Exception e) {
+            log.warn("评论排行写入失败: commentId={}", comment.getId(), e);
+        }
+    }
+
+    /**
+     * 删除一级评论
+     */
+    public void onDeleted(Comment comment) {
+        if (isReply(comment)) {
+            return;
+        }
+        try {
+            redisTemplate.opsForZSet().remove(RANK_KEY_PREFIX + comment.getPostId(), comment.getId().toString());
+        } catch (Exception e) {
+            log.warn("评论排行移除失败: commentId={}", comment.getId(), e);
+        }
+    }
+
+    /**
+     * 评论点赞数变化，likeCount 为切换后的点赞集合基数
+     */
+    public void onLikeChanged(Long commentId, long likeCount) {
+        try {
+            Long postId = postIds.get(commentId);
+            if (postId == null) {
+                Comment comment = commentRepository.findById(commentId);
+                postId = comment == null || isReply(comment) ? 0L : comment.getPostId();
+                postIds.put(commentId, postId);
+            }
+            if (postId == 0L) {
+                return;
+            }
+            String key = RANK_KEY_PREFIX + postId;
+            // ZADD XX：只更新已在排行中的评论，不会把已删除的评论重新加回
+            redisTemplate.execute((RedisCallback<Boolean>) connection -> ((StringRedisConnection) connection)
+                    .zAdd(key, likeCount, commentId.toString(), RedisZSetCommands.ZAddArgs.ifExists()));
+        } catch (Exception e) {
+            log.warn("评论排行更新失败: commentId={}", commentId, e);
+        }
+    }
+
+    /**
+     * 按点赞数倒序取一页评论ID（评论ID -> 点赞数，保持排行顺序）
+     *
+     * @param cursor 上一页最后一条的 分数:评论ID，首页为空
+     */
+    public Map<Long, Long> page(Long postId, String cursor, int limit) {
+        String key = RANK_KEY_PREFIX + postId;
+        if (!Boolean.TRUE.equals(redisTemplate.hasKey(key))) {
+            build(postId, key);
+        }
+        long start = 0;
+        if (cursor != null && !cursor.isEmpty()) {
+            int sep = cursor.indexOf(':');
+            if (sep <= 0) {
+                throw new IllegalArgumentException("游标格式不正确");
+            }
+            double score = Double.parseDouble(cursor.substring(0, sep));
+            String member = cursor.substring(sep + 1);
+            List<Object> replies = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                conn.zScore(key, member);
+                conn.zRevRank(key, member);
+                conn.zCount(key, score, Double.POSITIVE_INFINITY);
+                conn.zCount(key, score, score);
+                return null;
+            });
+            Object current = replies.get(0);
+            if (current instanceof Number number && number.doubleValue() == score) {
+                start = ((Number) replies.get(1)).longValue() + 1;
+            } else {
+                start = ((Number) replies.get(2)).longValue() - ((Number) replies.get(3)).longValue();
+            }
+        }
+        Set<ZSetOperations.TypedTuple<String>> tuples =
+                redisTemplate.opsForZSet().reverseRangeWithScores(key, start, start + limit - 1);
+        Map<Long, Long> result = new LinkedHashMap<>();
+        if (tuples != null) {
+            for (ZSetOperations.TypedTuple<String> tuple : tuples) {
+                result.put(Long.valueOf(tuple.getValue()), tuple.getScore() != null ? tuple.getScore().longValue() : 0L);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 从数据库一次取出帖子全部一级评论的点赞数，管道写入 ZSET
+     */
+    private void build(Long postId, String key) {
+        List<Comment> comments = commentRepository.findTopLevelLikeCounts(postId);
+        if (comments.isEmpty()) {
+            return;
+        }
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (Comment comment : comments) {
+                conn.zAdd(key, comment.getLikeCount() != null ? comment.getLikeCount() : 0, comment.getId().toString());
+            }
+            conn.expire(key, RANK_TTL.getSeconds());
+            return null;
+        });
+    }
+
+    private static boolean isReply(Comment comment) {
+        return comment.getParentId() != null && comment.getParentId() > 0;
+    }
+}
@@ -1,18 +1,26 @@
 package com.hiking.application.comment.service;
 
 import com.hiking.application.comment.dto.*;
+import com.hiking.application.common.dto.CursorPage;
+import com.hiking.application.post.service.PostCounterService;
+import com.hiking.application.post.service.PostCounterService.Field;
+import com.hiking.application.post.service.PostHotRankService;
+import com.hiking.application.post.service.PostHotRankService.HotEvent;
+import com.hiking.application.user.service.UserBatchLoader;
 import com.hiking.domain.comment.entity.Comment;
 import com.hiking.domain.comment.repository.CommentRepository;
-import com.hiking.domain.post.repository.PostRepository;
 import com.hiking.domain.user.entity.User;
-import com.hiking.domain.user.repository.UserRepository;
+import com.hiking.infrastructure.transaction.AfterCommit;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -20,8 +28,17 @@ import java.util.stream.Collectors;
 public class CommentService {
     
     private final CommentRepository commentRepository;
-    private final PostRepository postRepository;
-    private final UserRepository userRepository;
+    private final PostCounterService postCounterService;
+    private final UserBatchLoader userBatchLoader;
+    private final PostHotRankService postHotRankService;
+    private final CommentRankService commentRankService;
+    
+    /**
+     * 评论列表中每条一级评论附带的回复预览条数
+     */
+    private static final int REPLY_PREVIEW_SIZE = 3;
+    private static final int MAX_REPLY_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 50;
     
     @Transactional
     public Long createComment(Long userId, CreateCommentRequest request) {
@@ -33,32 +50,126 @@ public class CommentService {
         comment.setContent(request.getContent());
         
         Long commentId = commentRepository.save(comment);
-        postRepository.updateCommentCount(request.getPostId(), 1);
+        comment.setId(commentId);
+        if (isReply(comment)) {
+            commentRepository.addReplyCount(comment.getParentId(), 1);
+        }
+        // 排行、评论计数与热度在提交后写入，回滚的评论不会留下计数或出现在排行中
+        AfterCommit.run(() -> {
+            commentRankService.onCreated(comment);
+            postCounterService.add(Field.POST_COMMENT, request.getPostId(), 1);
+            postHotRankService.record(request.getPostId(), HotEvent.COMMENT, 1);
+        });
         
         return commentId;
     }
     
     public List<CommentDTO> getComments(Long postId, int page, int size, Long currentUserId) {
         List<Comment> comments = commentRepository.findByPostId(postId, page, size);
+        return withReplies(comments);
+    }
+    
+    /**
+     * 按点赞数倒序的评论列表（一级评论），排行与分页游标由 {@link CommentRankService} 维护
+     */
+    public CursorPage<CommentDTO> getTopComments(Long postId, String cursor, int size) {
+        size = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        Map<Long, Long> ranked = commentRankService.page(postId, cursor, size + 1);
+        List<Long> ids = new ArrayList<>(ranked.keySet());
+        String nextCursor = null;
+        if (ids.size() > size) {
+            ids = ids.subList(0, size);
+            Long last = ids.get(size - 1);
+            nextCursor = ranked.get(last) + ":" + last;
+        }
+        Map<Long, Comment> byId = commentRepository.findByIds(ids).stream()
+            .filter(c -> c.getStatus() == Comment.STATUS_NORMAL)
+            .collect(Collectors.toMap(Comment::getId, c -> c));
+        List<Comment> comments = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Comment comment = byId.get(id);
+            if (comment != null) {
+                // 排行分数来自点赞集合，比数据库中待写回的点赞数更新
+                comment.setLikeCount(ranked.get(id).intValue());
+                comments.add(comment);
+            }
+        }
+        return CursorPage.of(withReplies(comments), nextCursor);
+    }
+    
+    /**
+     * 为一级评论附上回复预览
+     */
+    private List<CommentDTO> withReplies(List<Comment> comments) {
+        // 整页的回复预览一次查询，每条一级评论最多 REPLY_PREVIEW_SIZE 条
+        List<Long> parentIds = comments.stream()
+            .filter(c -> c.getReplyCount() != null && c.getReplyCount() > 0)
+            .map(Comment::getId)
+            .collect(Collectors.toList());
+        Map<Long, List<Comment>> repliesByParent = new LinkedHashMap<>();
+        List<Comment> all = new ArrayList<>(comments);
+        for (Comment reply : commentRepository.findTopReplies(parentIds, REPLY_PREVIEW_SIZE)) {
+            repliesByParent.computeIfAbsent(reply.getParentId(), k -> new ArrayList<>()).add(reply);
+            all.add(reply);
+        }
+        
+        // 评论者与被回复者一次批量查询
+        Map<Long, User> users = loadUsers(all);
         return comments.stream().map(c -> {
-            CommentDTO dto = toDTO(c);
-            // 获取子评论
-            List<Comment> replies = commentRepository.findReplies(c.getId());
-            dto.setReplies(replies.stream().map(this::toDTO).collect(Collectors.toList()));
+            CommentDTO dto = toDTO(c, users);
+            dto.setReplies(repliesByParent.getOrDefault(c.getId(), List.of()).stream()
+                .map(r -> toDTO(r, users))
+                .collect(Collectors.toList()));
             return dto;
         }).collect(Collectors.toList());
     }
     
+    /**
+     * 加载更多回复，游标为上一页最后一条回复的ID（首次可传回复预览中最后一条的ID）
+     */
+    public CursorPage<CommentDTO> getReplies(Long commentId, String cursor, int size) {
+        size = Math.min(Math.max(size, 1), MAX_REPLY_PAGE_SIZE);
+        long afterId = cursor != null && !cursor.isEmpty() ? Long.parseLong(cursor) : 0L;
+        List<Comment> replies = commentRepository.findRepliesAfter(commentId, afterId, size + 1);
+        String nextCursor = null;
+        if (replies.size() > size) {
+            replies = replies.subList(0, size);
+            nextCursor = String.valueOf(replies.get(size - 1).getId());
+        }
+        Map<Long, User> users = loadUsers(replies);
+        return CursorPage.of(replies.stream().map(r -> toDTO(r, users)).collect(Collectors.toList()), nextCursor);
+    }
+    
     @Transactional
     public void deleteComment(Long commentId, Long userId) {
         Comment comment = commentRepository.findById(commentId);
-        if (comment != null && comment.getUserId().equals(userId)) {
-            commentRepository.delete(commentId);
-            postRepository.updateCommentCount(comment.getPostId(), -1);
+        // 条件删除只在评论由正常变为删除时生效一次，重复删除不再重复扣减回复数、计数与热度
+        if (comment != null && comment.getUserId().equals(userId) && commentRepository.delete(commentId)) {
+            if (isReply(comment)) {
+                commentRepository.addReplyCount(comment.getParentId(), -1);
+            }
+            AfterCommit.run(() -> {
+                commentRankService.onDeleted(comment);
+                postCounterService.add(Field.POST_COMMENT, comment.getPostId(), -1);
+                postHotRankService.revoke(comment.getPostId(), HotEvent.COMMENT, comment.getCreateTime());
+            });
+        }
+    }
+    
+    private static boolean isReply(Comment comment) {
+        return comment.getParentId() != null && comment.getParentId() > 0;
+    }
+    
+    private Map<Long, User> loadUsers(List<Comment> comments) {
+        List<Long> userIds = new ArrayList<>(comments.size() * 2);
+        for (Comment c : comments) {
+            userIds.add(c.getUserId());
+            userIds.add(c.getReplyToUserId());
         }
+        return userBatchLoader.loadByIds(userIds);
     }
     
-    private CommentDTO toDTO(Comment comment) {
+    private CommentDTO toDTO(Comment comment, Map<Long, User> users) {
         CommentDTO dto = new CommentDTO();
         dto.setId(comment.getId());
         dto.setPostId(comment.getPostId());
@@ -67,17 +178,18 @@ public class CommentService {
         dto.setReplyToUserId(comment.getReplyToUserId());
         dto.setContent(comment.getContent());
         dto.setLikeCount(comment.getLikeCount());
+        dto.setReplyCount(comment.getReplyCount());
         dto.setCreateTime(comment.getCreateTime());
         dto.setTimeText(formatTime(comment.getCreateTime()));
         
-        User user = userRepository.findById(comment.getUserId());
+        User user = users.get(comment.getUserId());
         if (user != null) {
             dto.setUserName(user.getNickname());
             dto.setUserAvatar(user.getAvatar());
         }
         
         if (comment.getReplyToUserId() != null) {
-            User replyToUser = userRepository.findById(comment.getReplyToUserId());
+            User replyToUser = users.get(comment.getReplyToUserId());
             if (replyToUser != null) {
                 dto.setReplyToUserName(replyToUser.getNickname());
             }
@@ -0,0 +1,11 @@
+package com.hiking.application.common.exception;
+
+/**
+ * 依赖的数据暂时不可用（如 Redis 数据恢复中），请求可稍后重试
+ */
+public class ServiceUnavailableException extends RuntimeException {
+
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -1,14 +1,16 @@
 package com.hiking.application.hiking.assembler;
 
 import com.hiking.application.hiking.dto.HikingRecordDTO;
+import com.hiking.application.user.service.UserBatchLoader;
 import com.hiking.domain.hiking.entity.HikingRecord;
 import com.hiking.domain.user.entity.User;
-import com.hiking.domain.user.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -20,7 +22,7 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class HikingRecordAssembler {
 
-    private final UserRepository userRepository;
+    private final UserBatchLoader userBatchLoader;
 
     /**
      * 领域实体转 DTO
@@ -29,7 +31,13 @@ public class HikingRecordAssembler {
         if (record == null) {
             return null;
         }
+        return toDTO(record, userBatchLoader.loadByIds(Collections.singletonList(record.getOwnerId())));
+    }
 
+    /**
+     * 领域实体转 DTO（所有者信息从预加载的映射中获取）
+     */
+    private HikingRecordDTO toDTO(HikingRecord record, Map<Long, User> owners) {
         HikingRecordDTO dto = new HikingRecordDTO();
         dto.setId(record.getId());
         dto.setUserId(record.getUserId());
@@ -37,9 +45,9 @@ public class HikingRecordAssembler {
         dto.setTeamId(record.getTeamId());
         
         // 获取所有者名称
-        if (record.getOwnerId() != null) {
-            userRepository.findById(record.getOwnerId())
-                    .ifPresent(user -> dto.setOwnerName(user.getNickname()));
+        User owner = owners.get(record.getOwnerId());
+        if (owner != null) {
+            dto.setOwnerName(owner.getNickname());
         }
         
         dto.setMountainName(record.getMountainName());
@@ -63,8 +71,10 @@ public class HikingRecordAssembler {
         if (records == null) {
             return new ArrayList<>();
         }
+        // 所有者信息一次批量查询
+        Map<Long, User> owners = userBatchLoader.load(records, HikingRecord::getOwnerId);
         return records.stream()
-                .map(this::toDTO)
+                .map(record -> toDTO(record, owners))
                 .collect(Collectors.toList());
     }
 }
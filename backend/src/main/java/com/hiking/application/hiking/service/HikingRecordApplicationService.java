@@ -5,6 +5,7 @@ import com.hiking.application.hiking.command.CreateHikingRecordCommand;
 import com.hiking.application.hiking.command.UpdateHikingRecordCommand;
 import com.hiking.application.hiking.dto.HikingRecordDTO;
 import com.hiking.application.team.service.TeamApplicationService;
+import com.hiking.application.team.service.TeamLeaderboardService;
 import com.hiking.domain.hiking.entity.HikingRecord;
 import com.hiking.domain.hiking.repository.HikingRecordRepository;
 import com.hiking.domain.hiking.service.HikingRecordDomainService;
@@ -15,6 +16,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
@@ -36,6 +38,7 @@ public class HikingRecordApplicationService {
     private final HikingRecordDomainService hikingRecordDomainService;
     private final HikingRecordAssembler hikingRecordAssembler;
     private final TeamApplicationService teamApplicationService;
+    private final TeamLeaderboardService teamLeaderboardService;
     private final UserRepository userRepository;
 
     /**
@@ -83,6 +86,7 @@ public class HikingRecordApplicationService {
         
         // 持久化
         HikingRecord savedRecord = hikingRecordRepository.save(record);
+        teamLeaderboardService.onRecordChanged(ownerId, null, null, savedRecord.getHikingDate(), savedRecord.getDistance());
         
         // 返回 DTO
         return hikingRecordAssembler.toDTO(savedRecord);
@@ -101,6 +105,10 @@ public class HikingRecordApplicationService {
             throw new IllegalStateException("无权操作此记录");
         }
         
+        // 排行榜按旧值与新值的差值更新
+        LocalDate oldDate = record.getHikingDate();
+        Double oldDistance = record.getDistance();
+
         // 创建天气值对象
         Weather weather = Weather.of(command.getWeatherType(), command.getWeatherIcon());
         
@@ -117,6 +125,8 @@ public class HikingRecordApplicationService {
         
         // 持久化
         HikingRecord savedRecord = hikingRecordRepository.save(record);
+        teamLeaderboardService.onRecordChanged(savedRecord.getOwnerId(), oldDate, oldDistance,
+                savedRecord.getHikingDate(), savedRecord.getDistance());
         
         return hikingRecordAssembler.toDTO(savedRecord);
     }
@@ -134,6 +144,7 @@ public class HikingRecordApplicationService {
         }
         
         hikingRecordRepository.deleteById(id);
+        teamLeaderboardService.onRecordChanged(record.getOwnerId(), record.getHikingDate(), record.getDistance(), null, null);
     }
 
     /**
@@ -0,0 +1,22 @@
+package com.hiking.application.interaction.dto;
+
+import com.hiking.application.user.dto.UserDTO;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 可能认识的人
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FollowSuggestionDTO {
+
+    private UserDTO user;
+
+    /**
+     * 当前用户关注的人中有多少也关注了他
+     */
+    private long commonCount;
+}
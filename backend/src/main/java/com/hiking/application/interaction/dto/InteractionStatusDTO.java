@@ -0,0 +1,40 @@
+package com.hiking.application.interaction.dto;
+
+import lombok.Data;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 当前用户对一批帖子/评论/用户的互动状态
+ */
+@Data
+public class InteractionStatusDTO {
+    
+    // 帖子ID -> 是否点赞
+    private Map<Long, Boolean> liked = new HashMap<>();
+    
+    // 帖子ID -> 是否收藏
+    private Map<Long, Boolean> collected = new HashMap<>();
+    
+    // 评论ID -> 是否点赞
+    private Map<Long, Boolean> commentLiked = new HashMap<>();
+    
+    // 用户ID -> 是否已关注
+    private Map<Long, Boolean> following = new HashMap<>();
+    
+    public boolean isLiked(Long postId) {
+        return Boolean.TRUE.equals(liked.get(postId));
+    }
+    
+    public boolean isCollected(Long postId) {
+        return Boolean.TRUE.equals(collected.get(postId));
+    }
+    
+    public boolean isCommentLiked(Long commentId) {
+        return Boolean.TRUE.equals(commentLiked.get(commentId));
+    }
+    
+    public boolean isFollowing(Long userId) {
+        return Boolean.TRUE.equals(following.get(userId));
+    }
+}
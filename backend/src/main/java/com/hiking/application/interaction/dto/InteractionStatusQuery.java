@@ -0,0 +1,26 @@
+package com.hiking.application.interaction.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 批量互动状态查询：帖子（点赞/收藏）、评论（点赞）、用户（关注）可混合传入
+ */
+@Data
+public class InteractionStatusQuery {
+    
+    private List<Long> postIds;
+    
+    private List<Long> commentIds;
+    
+    private List<Long> userIds;
+    
+    public int size() {
+        return sizeOf(postIds) + sizeOf(commentIds) + sizeOf(userIds);
+    }
+    
+    private static int sizeOf(List<Long> ids) {
+        return ids != null ? ids.size() : 0;
+    }
+}
@@ -0,0 +1,27 @@
+package com.hiking.application.interaction.dto;
+
+import com.hiking.application.user.dto.UserDTO;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 共同关注者：目标用户的粉丝中当前用户也关注的人
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class KnownFollowersDTO {
+
+    /**
+     * 共同关注者总数
+     */
+    private long total;
+
+    /**
+     * 前若干位共同关注者
+     */
+    private List<UserDTO> users;
+}
@@ -0,0 +1,18 @@
+package com.hiking.application.interaction.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 互动切换结果
+ */
+@Data
+@AllArgsConstructor
+public class ToggleResult {
+    
+    // 切换后是否处于激活状态（已点赞/已收藏/已关注）
+    private boolean active;
+    
+    // 切换后的计数（点赞数/收藏数/被关注者粉丝数）
+    private long count;
+}
@@ -0,0 +1,48 @@
+package com.hiking.application.interaction.service;
+
+/**
+ * Roaring 风格位图的容器编码，与 scripts/bitmap_update.lua 保持一致
+ * <p>
+ * 成员按高位（member >> 16）分桶，每个桶保存低 16 位：
+ * 元素不超过 {@link #ARRAY_MAX} 个时为升序 2 字节大端数组，否则为 {@link #BITMAP_BYTES} 字节位图，
+ * 两种格式由长度区分（数组最长 8190 字节）；位图容器删除成员后回落到上限以内时转回数组，空容器直接删除。
+ */
+final class BitmapContainer {
+
+    static final int ARRAY_MAX = 4095;
+    static final int BITMAP_BYTES = 8192;
+
+    private BitmapContainer() {
+    }
+
+    static String high(long member) {
+        return String.valueOf(member >>> 16);
+    }
+
+    static int low(long member) {
+        return (int) (member & 0xFFFF);
+    }
+
+    static boolean contains(byte[] container, int low) {
+        if (container == null || container.length == 0) {
+            return false;
+        }
+        if (container.length == BITMAP_BYTES) {
+            return (container[low >>> 3] & (1 << (low & 7))) != 0;
+        }
+        int lo = 0;
+        int hi = container.length / 2 - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int value = ((container[2 * mid] & 0xFF) << 8) | (container[2 * mid + 1] & 0xFF);
+            if (value == low) {
+                return true;
+            } else if (value < low) {
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,297 @@
+package com.hiking.application.interaction.service;
+
+import com.hiking.application.common.dto.CursorPage;
+import com.hiking.application.interaction.dto.FollowSuggestionDTO;
+import com.hiking.application.interaction.dto.KnownFollowersDTO;
+import com.hiking.application.user.dto.UserDTO;
+import com.hiking.application.user.service.UserBatchLoader;
+import com.hiking.domain.user.entity.User;
+import com.hiking.infrastructure.config.FollowGraphProperties;
+import com.hiking.infrastructure.redis.RedisScripts;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * 关注图查询服务
+ * <p>
+ * 基于 {@link InteractionService} 维护的 user:following:* / user:fans:* 集合做集合运算，不查 user_follow：
+ * - 互关：SINTERSTORE 关注集合与粉丝集合，结果按用户缓存；
+ * - 共同关注者：当前用户关注集合与目标粉丝集合在 Redis 端 SINTER，只传回交集；
+ * - 可能认识的人：抽样关注的人各自的关注列表，在本机排序后的 long 数组上按出现次数计数，取前若干位按用户缓存为 ZSET。
+ * 关注切换后由脚本增量修改已存在的缓存（取消关注时推荐缓存整体失效），缓存过期后下次读取时整体重算。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FollowGraphService {
+
+    private static final String MUTUAL_KEY_PREFIX = "follow:mutual:";
+    private static final String SUGGEST_KEY_PREFIX = "follow:suggest:";
+
+    /**
+     * 互关/推荐缓存的占位成员（用户ID从 1 开始），使空结果也能被缓存，读取时过滤
+     */
+    private static final String PLACEHOLDER = "0";
+
+    /**
+     * 推荐缓存中占位成员的分数，低于任何真实候选的共同关注数
+     */
+    private static final double PLACEHOLDER_SCORE = -1;
+
+    private static final int MAX_PAGE_SIZE = 50;
+
+    private static final RedisScript<Long> UPDATE_SCRIPT = RedisScripts.load("follow_graph_update.lua", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final UserBatchLoader userBatchLoader;
+    private final FollowGraphProperties properties;
+
+    /**
+     * 关注切换后增量维护缓存，失败时只记录日志，缓存过期后自然纠正
+     */
+    public void onToggled(Long userId, Long targetUserId, boolean following) {
+        try {
+            redisTemplate.execute(UPDATE_SCRIPT,
+                    List.of(MUTUAL_KEY_PREFIX + userId, MUTUAL_KEY_PREFIX + targetUserId,
+                            InteractionService.USER_FOLLOWING_KEY + targetUserId, SUGGEST_KEY_PREFIX + userId,
+                            InteractionService.USER_FOLLOWING_KEY + userId),
+                    userId.toString(), targetUserId.toString(), following ? "1" : "0",
+                    String.valueOf(properties.getSuggestionSampleSize()));
+        } catch (Exception e) {
+            log.warn("关注图缓存更新失败: userId={}, targetUserId={}", userId, targetUserId, e);
+        }
+    }
+
+    /**
+     * 互相关注的用户，按用户ID倒序分页，游标为上一页最后一个用户ID
+     */
+    public CursorPage<UserDTO> getMutualFollows(Long userId, String cursor, int size) {
+        size = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        long before = cursor != null && !cursor.isEmpty() ? Long.parseLong(cursor) : Long.MAX_VALUE;
+        String key = MUTUAL_KEY_PREFIX + userId;
+        if (!Boolean.TRUE.equals(redisTemplate.hasKey(key))) {
+            long ttl = properties.getCacheTtlSeconds();
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                conn.sInterStore(key, InteractionService.USER_FOLLOWING_KEY + userId,
+                        InteractionService.USER_FANS_KEY + userId);
+                conn.sAdd(key, PLACEHOLDER);
+                conn.expire(key, ttl);
+                return null;
+            });
+        }
+        long[] ids = sortedDescending(redisTemplate.opsForSet().members(key));
+        List<Long> page = new ArrayList<>(size + 1);
+        for (long id : ids) {
+            if (page.size() > size) {
+                break;
+            }
+            if (id < before) {
+                page.add(id);
+            }
+        }
+        String nextCursor = null;
+        if (page.size() > size) {
+            page = page.subList(0, size);
+            nextCursor = String.valueOf(page.get(size - 1));
+        }
+        return CursorPage.of(toUsers(page), nextCursor);
+    }
+
+    /**
+     * 目标用户的粉丝中当前用户也关注的人，交集在 Redis 端计算
+     */
+    public KnownFollowersDTO getKnownFollowers(Long viewerId, Long targetUserId, int size) {
+        size = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        Set<String> members = redisTemplate.opsForSet().intersect(
+                InteractionService.USER_FOLLOWING_KEY + viewerId, InteractionService.USER_FANS_KEY + targetUserId);
+        long[] ids = sortedDescending(members);
+        List<Long> top = new ArrayList<>(Math.min(size, ids.length));
+        for (int i = 0; i < ids.length && i < size; i++) {
+            top.add(ids[i]);
+        }
+        return new KnownFollowersDTO(ids.length, toUsers(top));
+    }
+
+    /**
+     * 可能认识的人，按共同关注数倒序
+     */
+    public List<FollowSuggestionDTO> getSuggestions(Long userId, int size) {
+        size = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        String key = SUGGEST_KEY_PREFIX + userId;
+        if (!Boolean.TRUE.equals(redisTemplate.hasKey(key))) {
+            rebuildSuggestions(userId, key);
+        }
+        Set<ZSetOperations.TypedTuple<String>> tuples = redisTemplate.opsForZSet().reverseRangeWithScores(key, 0, size - 1);
+        if (tuples == null || tuples.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = new ArrayList<>(tuples.size());
+        for (ZSetOperations.TypedTuple<String> tuple : tuples) {
+            if (!PLACEHOLDER.equals(tuple.getValue())) {
+                ids.add(Long.valueOf(tuple.getValue()));
+            }
+        }
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, User> users = userBatchLoader.loadByIds(ids);
+        List<FollowSuggestionDTO> result = new ArrayList<>(ids.size());
+        for (ZSetOperations.TypedTuple<String> tuple : tuples) {
+            if (PLACEHOLDER.equals(tuple.getValue())) {
+                continue;
+            }
+            User user = users.get(Long.valueOf(tuple.getValue()));
+            if (user != null) {
+                long common = tuple.getScore() != null ? tuple.getScore().longValue() : 0;
+                result.add(new FollowSuggestionDTO(toDTO(user), common));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 抽样关注的人，把他们各自抽样的关注列表拼成一个 long 数组，排序后按连续段计数，
+     * 排除自己和已关注的人，取出现次数最多的若干位写入推荐缓存；
+     * 结果为空时写入占位成员，避免每次读取都重新抽样
+     */
+    private void rebuildSuggestions(Long userId, String key) {
+        String followingKey = InteractionService.USER_FOLLOWING_KEY + userId;
+        long[] followed = sortedAscending(redisTemplate.opsForSet().members(followingKey));
+        if (followed.length == 0) {
+            cacheSuggestions(key, List.of());
+            return;
+        }
+        List<Long> seeds = new ArrayList<>(followed.length);
+        for (long id : followed) {
+            seeds.add(id);
+        }
+        if (seeds.size() > properties.getSuggestionSeeds()) {
+            Collections.shuffle(seeds);
+            seeds = seeds.subList(0, properties.getSuggestionSeeds());
+        }
+        List<Long> seedList = seeds;
+        int sampleSize = properties.getSuggestionSampleSize();
+        List<Object> replies = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (Long seed : seedList) {
+                conn.sRandMember(InteractionService.USER_FOLLOWING_KEY + seed, sampleSize);
+            }
+            return null;
+        });
+
+        int total = 0;
+        for (Object reply : replies) {
+            if (reply instanceof Collection<?> members) {
+                total += members.size();
+            }
+        }
+        long[] candidates = new long[total];
+        int n = 0;
+        for (Object reply : replies) {
+            if (reply instanceof Collection<?> members) {
+                for (Object member : members) {
+                    candidates[n++] = Long.parseLong(member.toString());
+                }
+            }
+        }
+        Arrays.sort(candidates, 0, n);
+
+        int capacity = properties.getSuggestionCapacity();
+        PriorityQueue<long[]> top = new PriorityQueue<>(Comparator.comparingLong(entry -> entry[1]));
+        for (int i = 0; i < n; ) {
+            int j = i;
+            while (j < n && candidates[j] == candidates[i]) {
+                j++;
+            }
+            long candidate = candidates[i];
+            if (candidate != userId.longValue() && Arrays.binarySearch(followed, candidate) < 0) {
+                top.offer(new long[]{candidate, j - i});
+                if (top.size() > capacity) {
+                    top.poll();
+                }
+            }
+            i = j;
+        }
+        cacheSuggestions(key, top);
+    }
+
+    private void cacheSuggestions(String key, Collection<long[]> entries) {
+        long ttl = properties.getCacheTtlSeconds();
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (long[] entry : entries) {
+                conn.zAdd(key, entry[1], String.valueOf(entry[0]));
+            }
+            conn.zAdd(key, PLACEHOLDER_SCORE, PLACEHOLDER);
+            conn.expire(key, ttl);
+            return null;
+        });
+    }
+
+    private List<UserDTO> toUsers(List<Long> ids) {
+        Map<Long, User> users = userBatchLoader.loadByIds(ids);
+        List<UserDTO> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            User user = users.get(id);
+            if (user != null) {
+                result.add(toDTO(user));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 对外展示的用户信息不包含 openId
+     */
+    private static UserDTO toDTO(User user) {
+        return UserDTO.builder()
+                .id(user.getId())
+                .nickname(user.getNickname())
+                .avatar(user.getAvatar())
+                .build();
+    }
+
+    private static long[] sortedAscending(Collection<String> members) {
+        if (members == null || members.isEmpty()) {
+            return new long[0];
+        }
+        long[] ids = new long[members.size()];
+        int n = 0;
+        for (String member : members) {
+            long id = Long.parseLong(member);
+            if (id > 0) {
+                ids[n++] = id;
+            }
+        }
+        ids = Arrays.copyOf(ids, n);
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    private static long[] sortedDescending(Collection<String> members) {
+        long[] ids = sortedAscending(members);
+        for (int i = 0, j = ids.length - 1; i < j; i++, j--) {
+            long tmp = ids[i];
+            ids[i] = ids[j];
+            ids[j] = tmp;
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,180 @@
+package com.hiking.application.interaction.service;
+
+import com.hiking.domain.interaction.entity.UserCollection;
+import com.hiking.domain.interaction.entity.UserFollow;
+import com.hiking.domain.interaction.entity.UserLike;
+import com.hiking.domain.interaction.repository.InteractionRepository;
+import com.hiking.infrastructure.config.RebuildProperties;
+import com.hiking.infrastructure.redis.ResumableTaskRunner;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * 互动集合重建服务
+ * <p>
+ * Redis 数据丢失后（完成标记随之消失），启动时或定时检查发现后在后台线程从 user_like、user_collection、user_follow
+ * 按主键分批扫描，把关系 SADD 回点赞/收藏/关注集合，不阻塞应用就绪：
+ * - 每批一个管道写入，按 rows-per-second 限速；
+ * - 每批完成后把各表扫描到的主键记入检查点，中断后从检查点继续；
+ * - 多实例通过带令牌的锁保证只有一个节点执行，锁随进度续期；
+ * 检查点、锁和完成标记由 {@link ResumableTaskRunner} 维护。
+ * 重建只做并入，不会删除 Redis 中已有成员；重建完成前写回消费者暂停消费，
+ * 避免按不完整的集合覆盖数据库中的计数。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InteractionRebuildService {
+
+    private static final String TASK_KEY_PREFIX = "interaction:rebuild:";
+    private static final Duration LOCK_TTL = Duration.ofMinutes(10);
+
+    private static final String TABLE_LIKE = "like";
+    private static final String TABLE_COLLECT = "collect";
+    private static final String TABLE_FOLLOW = "follow";
+
+    private final StringRedisTemplate redisTemplate;
+    private final InteractionStore interactionStore;
+    private final InteractionRepository interactionRepository;
+    private final RebuildProperties properties;
+    private final ResumableTaskRunner taskRunner;
+
+    /**
+     * 完成结果的本机缓存时长：切换请求每次都要检查，完成后不必每次读 Redis
+     */
+    private static final long COMPLETE_CACHE_MILLIS = 1000;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private volatile long completeCheckedAt;
+
+    /**
+     * Redis 中的互动集合是否完整（未启用重建时视为完整），只缓存「完整」的结果
+     */
+    public boolean isComplete() {
+        if (!properties.isEnabled()) {
+            return true;
+        }
+        long now = System.currentTimeMillis();
+        if (now - completeCheckedAt < COMPLETE_CACHE_MILLIS) {
+            return true;
+        }
+        try {
+            boolean done = taskRunner.isDone(taskKey());
+            if (done) {
+                completeCheckedAt = now;
+            }
+            return done;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * 启动时以及运行期间定时检查完成标记，缺失时在后台线程重建
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${interaction.rebuild.check-interval-ms:60000}",
+            fixedDelayString = "${interaction.rebuild.check-interval-ms:60000}")
+    public void startRebuild() {
+        if (!properties.isEnabled() || isComplete() || !running.compareAndSet(false, true)) {
+            return;
+        }
+        Thread rebuild = new Thread(() -> {
+            try {
+                rebuild();
+            } finally {
+                running.set(false);
+            }
+        }, "interaction-rebuild");
+        rebuild.setDaemon(true);
+        rebuild.start();
+    }
+
+    /**
+     * 从数据库重建全部互动集合
+     */
+    public void rebuild() {
+        try {
+            taskRunner.run(taskKey(), LOCK_TTL, progress -> {
+                long started = System.currentTimeMillis();
+                long likes = rebuildTable(progress, TABLE_LIKE, interactionRepository::scanLikes,
+                        UserLike::getId, this::writeLikes);
+                long collects = rebuildTable(progress, TABLE_COLLECT, interactionRepository::scanCollections,
+                        UserCollection::getId, this::writeCollections);
+                long follows = rebuildTable(progress, TABLE_FOLLOW, interactionRepository::scanFollows,
+                        UserFollow::getId, this::writeFollows);
+                log.info("互动集合重建完成: 点赞 {} 条, 收藏 {} 条, 关注 {} 条, 耗时 {} ms",
+                        likes, collects, follows, System.currentTimeMillis() - started);
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("互动集合重建失败，下次检查时从检查点继续", e);
+        }
+    }
+
+    private <T> long rebuildTable(ResumableTaskRunner.Progress progress, String table,
+                                  ResumableTaskRunner.Scanner<T> scanner, ToLongFunction<T> idOf,
+                                  Consumer<List<T>> writer) throws Exception {
+        return progress.forEachBatch(table, properties.getBatchSize(), properties.getRowsPerSecond(),
+                scanner, idOf, rows -> {
+                    writer.accept(rows);
+                    return rows.size();
+                });
+    }
+
+    /**
+     * 重建任务名，按存储类型区分：切换 interaction.store 后新存储没有完成标记，会自动重建
+     */
+    private String taskKey() {
+        return TASK_KEY_PREFIX + interactionStore.type();
+    }
+
+    private void writeLikes(List<UserLike> rows) {
+        Map<String, List<Long>> members = new HashMap<>();
+        for (UserLike like : rows) {
+            String key = like.getTargetType() == UserLike.TARGET_TYPE_COMMENT
+                    ? InteractionService.COMMENT_LIKE_KEY + like.getTargetId()
+                    : InteractionService.POST_LIKE_KEY + like.getTargetId();
+            members.computeIfAbsent(key, k -> new ArrayList<>()).add(like.getUserId());
+        }
+        interactionStore.addAll(members);
+    }
+
+    private void writeCollections(List<UserCollection> rows) {
+        Map<String, List<Long>> members = new HashMap<>();
+        for (UserCollection collection : rows) {
+            members.computeIfAbsent(InteractionService.POST_COLLECT_KEY + collection.getPostId(),
+                    k -> new ArrayList<>()).add(collection.getUserId());
+        }
+        interactionStore.addAll(members);
+    }
+
+    private void writeFollows(List<UserFollow> rows) {
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (UserFollow follow : rows) {
+                conn.sAdd(InteractionService.USER_FOLLOWING_KEY + follow.getUserId(), follow.getFollowUserId().toString());
+                conn.sAdd(InteractionService.USER_FANS_KEY + follow.getFollowUserId(), follow.getUserId().toString());
+            }
+            return null;
+        });
+    }
+}
@@ -1,138 +1,139 @@
 package com.hiking.application.interaction.service;
 
+import com.hiking.application.comment.service.CommentRankService;
+import com.hiking.application.common.exception.ServiceUnavailableException;
+import com.hiking.application.interaction.dto.ToggleResult;
+import com.hiking.application.post.service.PostHotRankService;
+import com.hiking.application.post.service.PostHotRankService.HotEvent;
+import com.hiking.application.post.service.PostTimelineService;
 import com.hiking.domain.interaction.entity.UserLike;
-import com.hiking.domain.interaction.repository.InteractionRepository;
-import com.hiking.domain.post.repository.PostRepository;
-import com.hiking.domain.user.repository.UserRepository;
+import com.hiking.infrastructure.config.WriteBehindProperties;
+import com.hiking.infrastructure.redis.RedisScripts;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
 
 /**
  * 互动服务 - 使用Redis实现点赞/收藏/关注
+ * <p>
+ * 切换在 Lua 脚本内原子完成，并把变更追加到写回流水，由 {@link InteractionWriteBehindWorker} 异步落库，
+ * 请求路径不访问数据库；点赞/收藏成员集合经 {@link InteractionStore} 存取，关注关系固定为 Redis SET。
+ * 集合重建完成前拒绝切换（503）：此时集合缺少未回填的成员，切换会把「已点赞」当成未点赞再加一次，
+ * 写回后与数据库不一致
  */
 @Service
 @RequiredArgsConstructor
 public class InteractionService {
     
-    private final InteractionRepository interactionRepository;
-    private final PostRepository postRepository;
-    private final UserRepository userRepository;
     private final StringRedisTemplate redisTemplate;
+    private final InteractionStore interactionStore;
+    private final WriteBehindProperties writeBehindProperties;
+    private final PostHotRankService postHotRankService;
+    private final PostTimelineService postTimelineService;
+    private final FollowGraphService followGraphService;
+    private final CommentRankService commentRankService;
+    private final InteractionRebuildService interactionRebuildService;
     
     // Redis Key前缀
-    private static final String POST_LIKE_KEY = "post:like:";
-    private static final String POST_COLLECT_KEY = "post:collect:";
-    private static final String COMMENT_LIKE_KEY = "comment:like:";
-    private static final String USER_FOLLOWING_KEY = "user:following:";
-    private static final String USER_FANS_KEY = "user:fans:";
+    static final String POST_LIKE_KEY = "post:like:";
+    static final String POST_COLLECT_KEY = "post:collect:";
+    static final String COMMENT_LIKE_KEY = "comment:like:";
+    static final String USER_FOLLOWING_KEY = "user:following:";
+    static final String USER_FANS_KEY = "user:fans:";
+    
+    // 写回流水及事件类型
+    static final String WRITE_BEHIND_STREAM = "interaction:stream";
+    static final String EVENT_LIKE = "like";
+    static final String EVENT_COLLECT = "collect";
+    static final String EVENT_COMMENT_LIKE = "comment_like";
+    static final String EVENT_FOLLOW = "follow";
+    
+    private static final RedisScript<List<Long>> FOLLOW_TOGGLE_SCRIPT = RedisScripts.loadLongList("follow_toggle.lua");
     
     /**
      * 点赞/取消点赞帖子
      */
-    @Transactional
-    public boolean togglePostLike(Long userId, Long postId) {
-        String key = POST_LIKE_KEY + postId;
-        String userIdStr = userId.toString();
-        
-        Boolean isMember = redisTemplate.opsForSet().isMember(key, userIdStr);
-        if (Boolean.TRUE.equals(isMember)) {
-            // 取消点赞
-            redisTemplate.opsForSet().remove(key, userIdStr);
-            postRepository.updateLikeCount(postId, -1);
-            return false;
-        } else {
-            // 点赞
-            redisTemplate.opsForSet().add(key, userIdStr);
-            postRepository.updateLikeCount(postId, 1);
-            return true;
-        }
+    public ToggleResult togglePostLike(Long userId, Long postId) {
+        requireComplete();
+        ToggleResult result = toggleMember(POST_LIKE_KEY + postId, userId, EVENT_LIKE, postId);
+        postHotRankService.recordToggle(postId, HotEvent.LIKE, userId, result.isActive());
+        return result;
     }
     
     /**
      * 点赞/取消点赞评论
      */
-    public boolean toggleCommentLike(Long userId, Long commentId) {
-        String key = COMMENT_LIKE_KEY + commentId;
-        String userIdStr = userId.toString();
-        
-        Boolean isMember = redisTemplate.opsForSet().isMember(key, userIdStr);
-        if (Boolean.TRUE.equals(isMember)) {
-            redisTemplate.opsForSet().remove(key, userIdStr);
-            return false;
-        } else {
-            redisTemplate.opsForSet().add(key, userIdStr);
-            return true;
-        }
+    public ToggleResult toggleCommentLike(Long userId, Long commentId) {
+        requireComplete();
+        ToggleResult result = toggleMember(COMMENT_LIKE_KEY + commentId, userId, EVENT_COMMENT_LIKE, commentId);
+        commentRankService.onLikeChanged(commentId, result.getCount());
+        return result;
     }
     
     /**
      * 收藏/取消收藏帖子
      */
-    @Transactional
-    public boolean toggleCollection(Long userId, Long postId) {
-        String key = POST_COLLECT_KEY + postId;
-        String userIdStr = userId.toString();
-        
-        Boolean isMember = redisTemplate.opsForSet().isMember(key, userIdStr);
-        if (Boolean.TRUE.equals(isMember)) {
-            redisTemplate.opsForSet().remove(key, userIdStr);
-            postRepository.updateCollectCount(postId, -1);
-            return false;
-        } else {
-            redisTemplate.opsForSet().add(key, userIdStr);
-            postRepository.updateCollectCount(postId, 1);
-            return true;
-        }
+    public ToggleResult toggleCollection(Long userId, Long postId) {
+        requireComplete();
+        ToggleResult result = toggleMember(POST_COLLECT_KEY + postId, userId, EVENT_COLLECT, postId);
+        postHotRankService.recordToggle(postId, HotEvent.COLLECT, userId, result.isActive());
+        return result;
     }
     
     /**
      * 关注/取消关注用户
      */
-    @Transactional
-    public boolean toggleFollow(Long userId, Long targetUserId) {
+    public ToggleResult toggleFollow(Long userId, Long targetUserId) {
         if (userId.equals(targetUserId)) {
             throw new IllegalArgumentException("不能关注自己");
         }
+        requireComplete();
         
-        String followingKey = USER_FOLLOWING_KEY + userId;
-        String fansKey = USER_FANS_KEY + targetUserId;
-        String userIdStr = userId.toString();
-        String targetUserIdStr = targetUserId.toString();
-        
-        Boolean isFollowing = redisTemplate.opsForSet().isMember(followingKey, targetUserIdStr);
-        if (Boolean.TRUE.equals(isFollowing)) {
-            // 取消关注
-            redisTemplate.opsForSet().remove(followingKey, targetUserIdStr);
-            redisTemplate.opsForSet().remove(fansKey, userIdStr);
-            userRepository.decrementFollowingCount(userId);
-            userRepository.decrementFansCount(targetUserId);
-            return false;
+        List<Long> reply = redisTemplate.execute(FOLLOW_TOGGLE_SCRIPT,
+                List.of(USER_FOLLOWING_KEY + userId, USER_FANS_KEY + targetUserId, WRITE_BEHIND_STREAM),
+                targetUserId.toString(), userId.toString(),
+                String.valueOf(System.currentTimeMillis()), String.valueOf(writeBehindProperties.getStreamMaxLen()));
+        boolean following = reply.get(0) == 1;
+        if (following) {
+            postTimelineService.onFollowed(userId, targetUserId);
         } else {
-            // 关注
-            redisTemplate.opsForSet().add(followingKey, targetUserIdStr);
-            redisTemplate.opsForSet().add(fansKey, userIdStr);
-            userRepository.incrementFollowingCount(userId);
-            userRepository.incrementFansCount(targetUserId);
-            return true;
+            postTimelineService.onUnfollowed(userId, targetUserId);
         }
+        followGraphService.onToggled(userId, targetUserId, following);
+        return new ToggleResult(following, reply.get(2));
+    }
+    
+    /**
+     * 集合重建期间切换结果无法判定，直接拒绝，由客户端稍后重试
+     */
+    private void requireComplete() {
+        if (!interactionRebuildService.isComplete()) {
+            throw new ServiceUnavailableException("互动数据恢复中，请稍后重试");
+        }
+    }
+    
+    /**
+     * 原子切换集合成员：判断、增删、记录写回事件、取基数在一个脚本内完成，一次往返且并发连点不会错乱
+     */
+    private ToggleResult toggleMember(String key, Long userId, String event, Long targetId) {
+        return interactionStore.toggle(key, userId, event, targetId);
     }
     
     /**
      * 检查是否点赞帖子
      */
     public boolean isPostLiked(Long userId, Long postId) {
-        String key = POST_LIKE_KEY + postId;
-        return Boolean.TRUE.equals(redisTemplate.opsForSet().isMember(key, userId.toString()));
+        return interactionStore.isMember(POST_LIKE_KEY + postId, userId);
     }
     
     /**
      * 检查是否点赞评论
      */
     public boolean isCommentLiked(Long userId, Long commentId) {
-        String key = COMMENT_LIKE_KEY + commentId;
-        return Boolean.TRUE.equals(redisTemplate.opsForSet().isMember(key, userId.toString()));
+        return interactionStore.isMember(COMMENT_LIKE_KEY + commentId, userId);
     }
     
     /**
@@ -151,8 +152,7 @@ public class InteractionService {
      * 检查是否收藏
      */
     public boolean isCollected(Long userId, Long postId) {
-        String key = POST_COLLECT_KEY + postId;
-        return Boolean.TRUE.equals(redisTemplate.opsForSet().isMember(key, userId.toString()));
+        return interactionStore.isMember(POST_COLLECT_KEY + postId, userId);
     }
     
     /**
@@ -167,17 +167,13 @@ public class InteractionService {
      * 获取帖子点赞数
      */
     public Long getPostLikeCount(Long postId) {
-        String key = POST_LIKE_KEY + postId;
-        Long size = redisTemplate.opsForSet().size(key);
-        return size != null ? size : 0L;
+        return interactionStore.cardinality(POST_LIKE_KEY + postId);
     }
     
     /**获取帖子收藏数
      */
     public Long getPostCollectCount(Long postId) {
-        String key = POST_COLLECT_KEY + postId;
-        Long size = redisTemplate.opsForSet().size(key);
-        return size != null ? size : 0L;
+        return interactionStore.cardinality(POST_COLLECT_KEY + postId);
     }
     
     /**
@@ -0,0 +1,150 @@
+package com.hiking.application.interaction.service;
+
+import com.hiking.application.interaction.dto.InteractionStatusDTO;
+import com.hiking.domain.interaction.entity.UserLike;
+import com.hiking.domain.interaction.repository.InteractionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * 互动状态批量解析器
+ * <p>
+ * 一页帖子需要的点赞、收藏状态和评论点赞状态经 {@link InteractionStore} 一次批量查询，关注状态放进一个 Redis 管道，
+ * 无论页面大小最多两次网络往返，避免逐条 SISMEMBER 的 3×N 次往返。
+ * <p>
+ * Redis 不可用时回退数据库，每类关系一条 IN 查询；集合重建未完成时把数据库结果并入 Redis 结果，
+ * 避免尚未重建的关系显示为未互动。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class InteractionStatusResolver {
+    
+    private final StringRedisTemplate redisTemplate;
+    private final InteractionStore interactionStore;
+    private final InteractionRepository interactionRepository;
+    private final InteractionRebuildService interactionRebuildService;
+    
+    /**
+     * 解析当前用户对帖子（点赞/收藏）和用户（关注）的状态
+     */
+    public InteractionStatusDTO resolve(Long viewerId, Collection<Long> postIds, Collection<Long> userIds) {
+        return resolve(viewerId, postIds, List.of(), userIds);
+    }
+    
+    /**
+     * 解析当前用户对帖子（点赞/收藏）、评论（点赞）和用户（关注）的状态
+     * <p>
+     * 未登录返回全部为 false
+     */
+    public InteractionStatusDTO resolve(Long viewerId, Collection<Long> postIds, Collection<Long> commentIds,
+                                        Collection<Long> userIds) {
+        List<Long> posts = distinct(postIds);
+        List<Long> comments = distinct(commentIds);
+        List<Long> users = distinct(userIds);
+        InteractionStatusDTO status = new InteractionStatusDTO();
+        posts.forEach(id -> {
+            status.getLiked().put(id, false);
+            status.getCollected().put(id, false);
+        });
+        comments.forEach(id -> status.getCommentLiked().put(id, false));
+        users.forEach(id -> status.getFollowing().put(id, false));
+        if (viewerId == null || (posts.isEmpty() && comments.isEmpty() && users.isEmpty())) {
+            return status;
+        }
+        
+        boolean fromRedis;
+        try {
+            resolveFromRedis(viewerId, posts, comments, users, status);
+            fromRedis = true;
+        } catch (Exception e) {
+            log.warn("批量查询互动状态失败，回退数据库: viewerId={}", viewerId, e);
+            fromRedis = false;
+        }
+        if (!fromRedis || !interactionRebuildService.isComplete()) {
+            try {
+                resolveFromDatabase(viewerId, posts, comments, users, status);
+            } catch (Exception e) {
+                log.warn("数据库查询互动状态失败: viewerId={}", viewerId, e);
+            }
+        }
+        return status;
+    }
+    
+    private void resolveFromRedis(Long viewerId, List<Long> posts, List<Long> comments, List<Long> users,
+                                  InteractionStatusDTO status) {
+        List<String> keys = new ArrayList<>(posts.size() * 2 + comments.size());
+        for (Long postId : posts) {
+            keys.add(InteractionService.POST_LIKE_KEY + postId);
+            keys.add(InteractionService.POST_COLLECT_KEY + postId);
+        }
+        for (Long commentId : comments) {
+            keys.add(InteractionService.COMMENT_LIKE_KEY + commentId);
+        }
+        List<Boolean> flags = keys.isEmpty() ? List.of()
+                : interactionStore.isMembers(keys, Collections.nCopies(keys.size(), viewerId));
+        String followingKey = InteractionService.USER_FOLLOWING_KEY + viewerId;
+        List<Object> followFlags = users.isEmpty() ? List.of() : redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (Long userId : users) {
+                conn.sIsMember(followingKey, userId.toString());
+            }
+            return null;
+        });
+        
+        int i = 0;
+        for (Long postId : posts) {
+            status.getLiked().put(postId, flags.get(i++));
+            status.getCollected().put(postId, flags.get(i++));
+        }
+        for (Long commentId : comments) {
+            status.getCommentLiked().put(commentId, flags.get(i++));
+        }
+        i = 0;
+        for (Long userId : users) {
+            status.getFollowing().put(userId, Boolean.TRUE.equals(followFlags.get(i++)));
+        }
+    }
+    
+    /**
+     * 数据库结果只会把状态置为 true，与已有的 Redis 结果取并集
+     */
+    private void resolveFromDatabase(Long viewerId, List<Long> posts, List<Long> comments, List<Long> users,
+                                     InteractionStatusDTO status) {
+        if (!posts.isEmpty()) {
+            markTrue(status.getLiked(),
+                    interactionRepository.getLikedTargetIds(viewerId, UserLike.TARGET_TYPE_POST, posts));
+            markTrue(status.getCollected(), interactionRepository.getCollectedPostIds(viewerId, posts));
+        }
+        if (!comments.isEmpty()) {
+            markTrue(status.getCommentLiked(),
+                    interactionRepository.getLikedTargetIds(viewerId, UserLike.TARGET_TYPE_COMMENT, comments));
+        }
+        if (!users.isEmpty()) {
+            markTrue(status.getFollowing(), interactionRepository.getFollowedUserIds(viewerId, users));
+        }
+    }
+    
+    private static void markTrue(Map<Long, Boolean> flags, List<Long> ids) {
+        ids.forEach(id -> flags.put(id, true));
+    }
+    
+    private static List<Long> distinct(Collection<Long> ids) {
+        if (ids == null) {
+            return List.of();
+        }
+        return ids.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+    }
+}
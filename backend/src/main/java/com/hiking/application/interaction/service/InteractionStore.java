@@ -0,0 +1,52 @@
+package com.hiking.application.interaction.service;
+
+import com.hiking.application.interaction.dto.ToggleResult;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 互动成员集合存储（帖子点赞/收藏、评论点赞）
+ * <p>
+ * key 为逻辑键（如 post:like:{帖子ID}），具体实现决定实际的 Redis 结构；
+ * 通过 interaction.store 配置切换：set（默认，Redis SET）或 bitmap（Roaring 风格压缩位图）。
+ */
+public interface InteractionStore {
+
+    /**
+     * 存储类型，与 interaction.store 配置值一致；两种存储的数据互不相通，重建标记按类型区分
+     */
+    String type();
+
+    /**
+     * 原子切换成员，并在同一步骤内把变更追加到写回流水
+     */
+    ToggleResult toggle(String key, Long userId, String event, Long targetId);
+
+    boolean isMember(String key, Long userId);
+
+    long cardinality(String key);
+
+    /**
+     * 批量判断成员关系（keys 与 userIds 按下标一一对应），一次网络往返
+     */
+    List<Boolean> isMembers(List<String> keys, List<Long> userIds);
+
+    /**
+     * 批量查询基数，一次网络往返
+     */
+    List<Long> cardinalities(List<String> keys);
+
+    /**
+     * 批量并入成员，不记录写回事件（用于从数据库重建）
+     */
+    void addAll(String key, Collection<Long> userIds);
+
+    /**
+     * 多个集合批量并入成员（逻辑键 -> 用户ID），默认逐个集合执行
+     */
+    default void addAll(Map<String, ? extends Collection<Long>> members) {
+        members.forEach(this::addAll);
+    }
+}
@@ -0,0 +1,432 @@
+package com.hiking.application.interaction.service;
+
+import com.hiking.domain.comment.repository.CommentRepository;
+import com.hiking.domain.interaction.entity.UserCollection;
+import com.hiking.domain.interaction.entity.UserFollow;
+import com.hiking.domain.interaction.entity.UserLike;
+import com.hiking.domain.interaction.repository.InteractionRepository;
+import com.hiking.domain.post.repository.PostRepository;
+import com.hiking.domain.user.repository.UserRepository;
+import com.hiking.infrastructure.config.WriteBehindProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.hiking.application.interaction.service.InteractionService.COMMENT_LIKE_KEY;
+import static com.hiking.application.interaction.service.InteractionService.EVENT_COLLECT;
+import static com.hiking.application.interaction.service.InteractionService.EVENT_COMMENT_LIKE;
+import static com.hiking.application.interaction.service.InteractionService.EVENT_FOLLOW;
+import static com.hiking.application.interaction.service.InteractionService.EVENT_LIKE;
+import static com.hiking.application.interaction.service.InteractionService.POST_COLLECT_KEY;
+import static com.hiking.application.interaction.service.InteractionService.POST_LIKE_KEY;
+import static com.hiking.application.interaction.service.InteractionService.USER_FANS_KEY;
+import static com.hiking.application.interaction.service.InteractionService.USER_FOLLOWING_KEY;
+import static com.hiking.application.interaction.service.InteractionService.WRITE_BEHIND_STREAM;
+
+/**
+ * 互动写回消费者
+ * <p>
+ * 通过消费组读取写回流水，一批事件按 (类型, 用户, 目标) 合并，只保留被触达的关系；
+ * 关系是否存在、计数是多少都以落库时 Redis 中的当前状态为准（经 {@link InteractionStore} 与管道批量查询），
+ * 因此同一关系的增删抵消、事件乱序或重复投递都不影响结果。
+ * 关系用多行 INSERT IGNORE / DELETE 写入，计数按绝对值覆盖，与关系在同一事务内提交后再 XACK；
+ * 落库失败的事件留在待确认列表，下次调度重放，宕机消费者的事件空闲超时后由其他实例接管；
+ * 整批失败时逐条重试以隔离坏事件，投递次数超过上限的事件移入死信流（interaction:stream:dead）并确认；
+ * Redis 集合重建期间暂停消费。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class InteractionWriteBehindWorker {
+
+    private static final String GROUP = "interaction-persist";
+    private static final String DEAD_LETTER_STREAM = WRITE_BEHIND_STREAM + ":dead";
+    private static final long DEAD_LETTER_MAX_LEN = 100_000;
+
+    private final StringRedisTemplate redisTemplate;
+    private final InteractionStore interactionStore;
+    private final InteractionRebuildService interactionRebuildService;
+    private final InteractionRepository interactionRepository;
+    private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final WriteBehindProperties properties;
+
+    private final String consumerName = ManagementFactory.getRuntimeMXBean().getName();
+
+    private volatile boolean groupReady;
+
+    /**
+     * 被触达的关系，time 为最后一次切换的时间，写入新关系时作为 create_time
+     */
+    private record Touched(String type, long userId, long targetId, LocalDateTime time) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createGroup() {
+        ensureGroup();
+    }
+
+    @Scheduled(fixedDelayString = "${interaction.write-behind.poll-interval-ms:1000}")
+    public void poll() {
+        // Redis 集合重建完成前暂停，事件留在流水中，避免按不完整的集合覆盖数据库
+        if (!interactionRebuildService.isComplete() || !ensureGroup()) {
+            return;
+        }
+        // 先重放本消费者已读取但未确认的事件，再接管超时事件，最后读取新事件；
+        // 各阶段独立处理失败，重放失败不会挡住新事件的消费
+        runStage("重放未确认事件", this::drainPending);
+        runStage("接管超时事件", this::claimStale);
+        runStage("消费新事件", this::drainNew);
+    }
+
+    private void runStage(String stage, Runnable action) {
+        try {
+            action.run();
+        } catch (Exception e) {
+            String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            if (message != null && message.contains("NOGROUP")) {
+                // 流被删除后消费组随之消失，下次调度重建
+                groupReady = false;
+            }
+            log.warn("互动写回失败（{}），未确认的事件下次重试", stage, e);
+        }
+    }
+
+    /**
+     * 重放本消费者的待确认事件，投递次数超限的移入死信流
+     * <p>
+     * 每批之后从该批最后一条之后继续读，仍失败的事件留到下次调度，不会在同一次调度里反复重读
+     */
+    private void drainPending() {
+        StreamOperations<String, Object, Object> ops = redisTemplate.opsForStream();
+        Consumer consumer = Consumer.from(GROUP, consumerName);
+        StreamReadOptions options = StreamReadOptions.empty().count(properties.getBatchSize());
+        String offset = "0";
+        for (int i = 0; i < properties.getMaxBatchesPerPoll(); i++) {
+            List<MapRecord<String, Object, Object>> records =
+                    ops.read(consumer, options, StreamOffset.create(WRITE_BEHIND_STREAM, ReadOffset.from(offset)));
+            if (records == null || records.isEmpty()) {
+                return;
+            }
+            persist(discardExhausted(records));
+            if (records.size() < properties.getBatchSize()) {
+                return;
+            }
+            offset = records.get(records.size() - 1).getId().getValue();
+        }
+    }
+
+    private void drainNew() {
+        StreamOperations<String, Object, Object> ops = redisTemplate.opsForStream();
+        Consumer consumer = Consumer.from(GROUP, consumerName);
+        StreamReadOptions options = StreamReadOptions.empty().count(properties.getBatchSize());
+        for (int i = 0; i < properties.getMaxBatchesPerPoll(); i++) {
+            List<MapRecord<String, Object, Object>> records =
+                    ops.read(consumer, options, StreamOffset.create(WRITE_BEHIND_STREAM, ReadOffset.lastConsumed()));
+            if (records == null || records.isEmpty()) {
+                return;
+            }
+            persist(records);
+            if (records.size() < properties.getBatchSize()) {
+                return;
+            }
+        }
+    }
+
+    private void claimStale() {
+        StreamOperations<String, Object, Object> ops = redisTemplate.opsForStream();
+        Duration idle = Duration.ofSeconds(properties.getClaimIdleSeconds());
+        PendingMessages pending = ops.pending(WRITE_BEHIND_STREAM, GROUP, Range.unbounded(), properties.getBatchSize());
+        List<RecordId> stale = new ArrayList<>();
+        for (PendingMessage message : pending) {
+            if (!consumerName.equals(message.getConsumerName())
+                    && message.getElapsedTimeSinceLastDelivery().compareTo(idle) >= 0) {
+                stale.add(message.getId());
+            }
+        }
+        if (stale.isEmpty()) {
+            return;
+        }
+        List<MapRecord<String, Object, Object>> claimed =
+                ops.claim(WRITE_BEHIND_STREAM, GROUP, consumerName, idle, stale.toArray(new RecordId[0]));
+        log.info("接管超时未确认的互动事件 {} 条", claimed.size());
+        if (!claimed.isEmpty()) {
+            persist(discardExhausted(claimed));
+        }
+    }
+
+    /**
+     * 按 XPENDING 中的投递次数过滤：超过上限的事件写入死信流后确认，返回其余事件
+     */
+    private List<MapRecord<String, Object, Object>> discardExhausted(List<MapRecord<String, Object, Object>> records) {
+        StreamOperations<String, Object, Object> ops = redisTemplate.opsForStream();
+        PendingMessages pending = ops.pending(WRITE_BEHIND_STREAM, Consumer.from(GROUP, consumerName),
+                Range.closed(records.get(0).getId().getValue(), records.get(records.size() - 1).getId().getValue()),
+                records.size());
+        Map<RecordId, Long> deliveries = new HashMap<>();
+        for (PendingMessage message : pending) {
+            deliveries.put(message.getId(), message.getTotalDeliveryCount());
+        }
+        List<MapRecord<String, Object, Object>> remaining = new ArrayList<>();
+        List<RecordId> exhausted = new ArrayList<>();
+        for (MapRecord<String, Object, Object> record : records) {
+            if (deliveries.getOrDefault(record.getId(), 0L) > properties.getMaxDeliveries()) {
+                Map<Object, Object> fields = new HashMap<>(record.getValue());
+                fields.put("id", record.getId().getValue());
+                ops.add(DEAD_LETTER_STREAM, fields);
+                exhausted.add(record.getId());
+                log.warn("互动事件多次写回失败，移入死信流: id={}, fields={}", record.getId(), record.getValue());
+            } else {
+                remaining.add(record);
+            }
+        }
+        if (!exhausted.isEmpty()) {
+            ops.acknowledge(WRITE_BEHIND_STREAM, GROUP, exhausted.toArray(new RecordId[0]));
+            ops.trim(DEAD_LETTER_STREAM, DEAD_LETTER_MAX_LEN, true);
+        }
+        return remaining;
+    }
+
+    /**
+     * 整批落库；失败时逐条重试，只把真正失败的事件留在待确认列表，其余正常确认
+     * <p>
+     * 逐条全部失败说明是数据库或 Redis 整体不可用，原样抛出
+     */
+    private void persist(List<MapRecord<String, Object, Object>> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        try {
+            persistBatch(records);
+        } catch (RuntimeException e) {
+            if (records.size() == 1) {
+                throw e;
+            }
+            int failed = 0;
+            for (MapRecord<String, Object, Object> record : records) {
+                try {
+                    persistBatch(List.of(record));
+                } catch (Exception single) {
+                    failed++;
+                    log.warn("互动事件写回失败，留待重试: id={}", record.getId(), single);
+                }
+            }
+            if (failed == records.size()) {
+                throw e;
+            }
+        }
+    }
+
+    private void persistBatch(List<MapRecord<String, Object, Object>> records) {
+        Map<String, Touched> latest = new LinkedHashMap<>();
+        for (MapRecord<String, Object, Object> record : records) {
+            Touched touched = parse(record);
+            if (touched != null) {
+                latest.put(touched.type() + ":" + touched.userId() + ":" + touched.targetId(), touched);
+            }
+        }
+        if (!latest.isEmpty()) {
+            write(new ArrayList<>(latest.values()));
+        }
+        redisTemplate.opsForStream().acknowledge(WRITE_BEHIND_STREAM, GROUP,
+                records.stream().map(MapRecord::getId).toArray(RecordId[]::new));
+    }
+
+    private Touched parse(MapRecord<String, Object, Object> record) {
+        Map<Object, Object> fields = record.getValue();
+        try {
+            String type = (String) fields.get("t");
+            long userId = Long.parseLong((String) fields.get("u"));
+            long targetId = Long.parseLong((String) fields.get("g"));
+            long ts = Long.parseLong((String) fields.get("ts"));
+            if (!EVENT_LIKE.equals(type) && !EVENT_COLLECT.equals(type)
+                    && !EVENT_COMMENT_LIKE.equals(type) && !EVENT_FOLLOW.equals(type)) {
+                throw new IllegalArgumentException("未知事件类型: " + type);
+            }
+            return new Touched(type, userId, targetId,
+                    LocalDateTime.ofInstant(Instant.ofEpochMilli(ts), ZoneId.systemDefault()));
+        } catch (Exception e) {
+            log.warn("丢弃无法解析的互动事件: id={}, fields={}", record.getId(), fields, e);
+            return null;
+        }
+    }
+
+    /**
+     * 按 Redis 当前状态写回被触达的关系与计数
+     */
+    private void write(List<Touched> touched) {
+        Set<Long> likedPosts = new LinkedHashSet<>();
+        Set<Long> collectedPosts = new LinkedHashSet<>();
+        Set<Long> likedComments = new LinkedHashSet<>();
+        Set<Long> followees = new LinkedHashSet<>();
+        Set<Long> followers = new LinkedHashSet<>();
+        for (Touched t : touched) {
+            switch (t.type()) {
+                case EVENT_LIKE -> likedPosts.add(t.targetId());
+                case EVENT_COLLECT -> collectedPosts.add(t.targetId());
+                case EVENT_COMMENT_LIKE -> likedComments.add(t.targetId());
+                default -> {
+                    followees.add(t.targetId());
+                    followers.add(t.userId());
+                }
+            }
+        }
+
+        List<Touched> members = touched.stream().filter(t -> !EVENT_FOLLOW.equals(t.type())).toList();
+        List<Touched> follows = touched.stream().filter(t -> EVENT_FOLLOW.equals(t.type())).toList();
+        List<Boolean> memberFlags = interactionStore.isMembers(
+                members.stream().map(t -> setKey(t.type(), t.targetId())).toList(),
+                members.stream().map(Touched::userId).toList());
+        List<String> countKeys = new ArrayList<>();
+        likedPosts.forEach(id -> countKeys.add(POST_LIKE_KEY + id));
+        collectedPosts.forEach(id -> countKeys.add(POST_COLLECT_KEY + id));
+        likedComments.forEach(id -> countKeys.add(COMMENT_LIKE_KEY + id));
+        List<Long> memberCounts = interactionStore.cardinalities(countKeys);
+        List<Object> followResults = follows.isEmpty() ? List.of()
+                : redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                    StringRedisConnection conn = (StringRedisConnection) connection;
+                    for (Touched t : follows) {
+                        conn.sIsMember(USER_FOLLOWING_KEY + t.userId(), String.valueOf(t.targetId()));
+                    }
+                    followees.forEach(id -> conn.sCard(USER_FANS_KEY + id));
+                    followers.forEach(id -> conn.sCard(USER_FOLLOWING_KEY + id));
+                    return null;
+                });
+
+        List<UserLike> addLikes = new ArrayList<>();
+        List<UserLike> removeLikes = new ArrayList<>();
+        List<UserCollection> addCollections = new ArrayList<>();
+        List<UserCollection> removeCollections = new ArrayList<>();
+        List<UserFollow> addFollows = new ArrayList<>();
+        List<UserFollow> removeFollows = new ArrayList<>();
+        for (int i = 0; i < members.size(); i++) {
+            Touched t = members.get(i);
+            boolean active = memberFlags.get(i);
+            if (EVENT_COLLECT.equals(t.type())) {
+                UserCollection collection = new UserCollection();
+                collection.setUserId(t.userId());
+                collection.setPostId(t.targetId());
+                collection.setCreateTime(t.time());
+                (active ? addCollections : removeCollections).add(collection);
+            } else {
+                UserLike like = new UserLike();
+                like.setUserId(t.userId());
+                like.setTargetId(t.targetId());
+                like.setTargetType(EVENT_LIKE.equals(t.type())
+                        ? UserLike.TARGET_TYPE_POST : UserLike.TARGET_TYPE_COMMENT);
+                like.setCreateTime(t.time());
+                (active ? addLikes : removeLikes).add(like);
+            }
+        }
+        int index = 0;
+        for (Touched t : follows) {
+            UserFollow follow = new UserFollow();
+            follow.setUserId(t.userId());
+            follow.setFollowUserId(t.targetId());
+            follow.setCreateTime(t.time());
+            (Boolean.TRUE.equals(followResults.get(index++)) ? addFollows : removeFollows).add(follow);
+        }
+        Map<Long, Long> fansCounts = new HashMap<>();
+        Map<Long, Long> followingCounts = new HashMap<>();
+        for (Long id : followees) {
+            fansCounts.put(id, toLong(followResults.get(index++)));
+        }
+        for (Long id : followers) {
+            followingCounts.put(id, toLong(followResults.get(index++)));
+        }
+        Map<Long, Long> postLikeCounts = new HashMap<>();
+        Map<Long, Long> postCollectCounts = new HashMap<>();
+        Map<Long, Long> commentLikeCounts = new HashMap<>();
+        index = 0;
+        for (Long id : likedPosts) {
+            postLikeCounts.put(id, memberCounts.get(index++));
+        }
+        for (Long id : collectedPosts) {
+            postCollectCounts.put(id, memberCounts.get(index++));
+        }
+        for (Long id : likedComments) {
+            commentLikeCounts.put(id, memberCounts.get(index++));
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            interactionRepository.batchAddLikes(addLikes);
+            interactionRepository.batchRemoveLikes(removeLikes);
+            interactionRepository.batchAddCollections(addCollections);
+            interactionRepository.batchRemoveCollections(removeCollections);
+            interactionRepository.batchAddFollows(addFollows);
+            interactionRepository.batchRemoveFollows(removeFollows);
+            postRepository.setLikeCounts(postLikeCounts);
+            postRepository.setCollectCounts(postCollectCounts);
+            commentRepository.setLikeCounts(commentLikeCounts);
+            userRepository.setFansCounts(fansCounts);
+            userRepository.setFollowingCounts(followingCounts);
+        });
+        log.debug("互动写回完成: 关系 {} 条", touched.size());
+    }
+
+    private static String setKey(String type, long targetId) {
+        return switch (type) {
+            case EVENT_LIKE -> POST_LIKE_KEY + targetId;
+            case EVENT_COLLECT -> POST_COLLECT_KEY + targetId;
+            default -> COMMENT_LIKE_KEY + targetId;
+        };
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number number ? number.longValue() : 0;
+    }
+
+    /**
+     * 创建消费组（流不存在时一并创建），从流头开始消费以覆盖消费组创建前追加的事件
+     */
+    private boolean ensureGroup() {
+        if (groupReady) {
+            return true;
+        }
+        try {
+            redisTemplate.opsForStream().createGroup(WRITE_BEHIND_STREAM, ReadOffset.from("0"), GROUP);
+            groupReady = true;
+        } catch (Exception e) {
+            String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            if (message != null && message.contains("BUSYGROUP")) {
+                groupReady = true;
+            } else {
+                log.warn("创建互动写回消费组失败", e);
+            }
+        }
+        return groupReady;
+    }
+}
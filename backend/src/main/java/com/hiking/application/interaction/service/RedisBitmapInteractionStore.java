@@ -0,0 +1,138 @@
+package com.hiking.application.interaction.service;
+
+import com.hiking.application.interaction.dto.ToggleResult;
+import com.hiking.infrastructure.config.WriteBehindProperties;
+import com.hiking.infrastructure.redis.RedisScripts;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Roaring 风格压缩位图的互动存储
+ * <p>
+ * 每个集合是一个 Redis 哈希（键为 bm: + 逻辑键）：字段 '#' 保存基数，
+ * 其余字段按用户ID高位分桶保存低 16 位容器（编码见 {@link BitmapContainer}）。
+ * 切换与批量并入都在 scripts/bitmap_update.lua 中原子完成；
+ * 成员判断只取对应桶的容器回到本地解码，批量判断与基数查询各一次管道。
+ * 大集合每个成员约 2 字节（数组容器）乃至 1 位（位图容器），而 SET 超过 intset 上限后每个成员数十字节。
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "interaction", name = "store", havingValue = "bitmap")
+public class RedisBitmapInteractionStore implements InteractionStore {
+
+    static final String KEY_PREFIX = "bm:";
+    private static final String CARD_FIELD = "#";
+
+    private static final RedisScript<List<Long>> UPDATE_SCRIPT = RedisScripts.loadLongList("bitmap_update.lua");
+
+    /**
+     * 单次批量并入脚本携带的成员数上限，控制脚本阻塞时长
+     */
+    private static final int ADD_BATCH = 5000;
+
+    private final StringRedisTemplate redisTemplate;
+    private final WriteBehindProperties writeBehindProperties;
+
+    @Override
+    public String type() {
+        return "bitmap";
+    }
+
+    @Override
+    public ToggleResult toggle(String key, Long userId, String event, Long targetId) {
+        List<Long> reply = redisTemplate.execute(UPDATE_SCRIPT,
+                List.of(KEY_PREFIX + key, InteractionService.WRITE_BEHIND_STREAM),
+                "toggle", userId.toString(), BitmapContainer.high(userId), String.valueOf(BitmapContainer.low(userId)),
+                event, targetId.toString(),
+                String.valueOf(System.currentTimeMillis()), String.valueOf(writeBehindProperties.getStreamMaxLen()));
+        return new ToggleResult(reply.get(0) == 1, reply.get(1));
+    }
+
+    @Override
+    public boolean isMember(String key, Long userId) {
+        return isMembers(List.of(key), List.of(userId)).get(0);
+    }
+
+    @Override
+    public long cardinality(String key) {
+        return cardinalities(List.of(key)).get(0);
+    }
+
+    @Override
+    public List<Boolean> isMembers(List<String> keys, List<Long> userIds) {
+        if (keys.isEmpty()) {
+            return List.of();
+        }
+        List<Object> containers = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (int i = 0; i < keys.size(); i++) {
+                connection.hashCommands().hGet(bytes(KEY_PREFIX + keys.get(i)), bytes(BitmapContainer.high(userIds.get(i))));
+            }
+            return null;
+        }, RedisSerializer.byteArray());
+        List<Boolean> members = new ArrayList<>(containers.size());
+        for (int i = 0; i < containers.size(); i++) {
+            members.add(BitmapContainer.contains((byte[]) containers.get(i), BitmapContainer.low(userIds.get(i))));
+        }
+        return members;
+    }
+
+    @Override
+    public List<Long> cardinalities(List<String> keys) {
+        if (keys.isEmpty()) {
+            return List.of();
+        }
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            keys.forEach(key -> conn.hGet(KEY_PREFIX + key, CARD_FIELD));
+            return null;
+        });
+        List<Long> counts = new ArrayList<>(results.size());
+        for (Object result : results) {
+            counts.add(result != null ? Long.parseLong(result.toString()) : 0L);
+        }
+        return counts;
+    }
+
+    @Override
+    public void addAll(String key, Collection<Long> userIds) {
+        Map<String, TreeSet<Integer>> buckets = new TreeMap<>();
+        for (Long userId : userIds) {
+            buckets.computeIfAbsent(BitmapContainer.high(userId), high -> new TreeSet<>()).add(BitmapContainer.low(userId));
+        }
+        List<String> args = new ArrayList<>();
+        args.add("add");
+        int pending = 0;
+        for (Map.Entry<String, TreeSet<Integer>> bucket : buckets.entrySet()) {
+            args.add(bucket.getKey());
+            args.add(String.valueOf(bucket.getValue().size()));
+            bucket.getValue().forEach(low -> args.add(String.valueOf(low)));
+            pending += bucket.getValue().size();
+            if (pending >= ADD_BATCH) {
+                redisTemplate.execute(UPDATE_SCRIPT, List.of(KEY_PREFIX + key), args.toArray());
+                args.subList(1, args.size()).clear();
+                pending = 0;
+            }
+        }
+        if (pending > 0) {
+            redisTemplate.execute(UPDATE_SCRIPT, List.of(KEY_PREFIX + key), args.toArray());
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
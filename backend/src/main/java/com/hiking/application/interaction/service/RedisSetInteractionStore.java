@@ -0,0 +1,122 @@
+package com.hiking.application.interaction.service;
+
+import com.hiking.application.interaction.dto.ToggleResult;
+import com.hiking.infrastructure.config.WriteBehindProperties;
+import com.hiking.infrastructure.redis.RedisScripts;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基于 Redis SET 的互动存储：成员为十进制用户ID字符串
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "interaction", name = "store", havingValue = "set", matchIfMissing = true)
+public class RedisSetInteractionStore implements InteractionStore {
+
+    private static final RedisScript<List<Long>> SET_TOGGLE_SCRIPT = RedisScripts.loadLongList("set_toggle.lua");
+
+    private static final int ADD_BATCH = 1000;
+
+    private final StringRedisTemplate redisTemplate;
+    private final WriteBehindProperties writeBehindProperties;
+
+    @Override
+    public String type() {
+        return "set";
+    }
+
+    @Override
+    public ToggleResult toggle(String key, Long userId, String event, Long targetId) {
+        List<Long> reply = redisTemplate.execute(SET_TOGGLE_SCRIPT,
+                List.of(key, InteractionService.WRITE_BEHIND_STREAM),
+                userId.toString(), event, targetId.toString(),
+                String.valueOf(System.currentTimeMillis()), String.valueOf(writeBehindProperties.getStreamMaxLen()));
+        return new ToggleResult(reply.get(0) == 1, reply.get(1));
+    }
+
+    @Override
+    public boolean isMember(String key, Long userId) {
+        return Boolean.TRUE.equals(redisTemplate.opsForSet().isMember(key, userId.toString()));
+    }
+
+    @Override
+    public long cardinality(String key) {
+        Long size = redisTemplate.opsForSet().size(key);
+        return size != null ? size : 0L;
+    }
+
+    @Override
+    public List<Boolean> isMembers(List<String> keys, List<Long> userIds) {
+        if (keys.isEmpty()) {
+            return List.of();
+        }
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (int i = 0; i < keys.size(); i++) {
+                conn.sIsMember(keys.get(i), userIds.get(i).toString());
+            }
+            return null;
+        });
+        List<Boolean> members = new ArrayList<>(results.size());
+        for (Object result : results) {
+            members.add(Boolean.TRUE.equals(result));
+        }
+        return members;
+    }
+
+    @Override
+    public List<Long> cardinalities(List<String> keys) {
+        if (keys.isEmpty()) {
+            return List.of();
+        }
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            keys.forEach(conn::sCard);
+            return null;
+        });
+        List<Long> counts = new ArrayList<>(results.size());
+        for (Object result : results) {
+            counts.add(result instanceof Number number ? number.longValue() : 0L);
+        }
+        return counts;
+    }
+
+    /**
+     * 所有集合的 SADD 放进一个管道
+     */
+    @Override
+    public void addAll(Map<String, ? extends Collection<Long>> members) {
+        if (members.isEmpty()) {
+            return;
+        }
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            members.forEach((key, userIds) -> {
+                if (!userIds.isEmpty()) {
+                    conn.sAdd(key, userIds.stream().map(String::valueOf).toArray(String[]::new));
+                }
+            });
+            return null;
+        });
+    }
+
+    @Override
+    public void addAll(String key, Collection<Long> userIds) {
+        List<String> members = userIds.stream().map(String::valueOf).toList();
+        for (int from = 0; from < members.size(); from += ADD_BATCH) {
+            List<String> batch = members.subList(from, Math.min(from + ADD_BATCH, members.size()));
+            redisTemplate.opsForSet().add(key, batch.toArray(new String[0]));
+        }
+    }
+}
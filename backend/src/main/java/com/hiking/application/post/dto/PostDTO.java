@@ -36,4 +36,7 @@ public class PostDTO {
     
     // 格式化时间
     private String timeText;
+    
+    // 与查询位置的距离（公里，仅附近查询返回）
+    private Double distance;
 }
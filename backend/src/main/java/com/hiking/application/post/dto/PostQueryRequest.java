@@ -16,6 +16,14 @@ public class PostQueryRequest {
     
     private String sortBy = "latest"; // latest, hot
     
+    /**
+     * 分页游标（上一页返回的 nextCursor，为空表示第一页）
+     */
+    private String cursor;
+    
+    /**
+     * 页码（仅关键词搜索使用，优先使用 cursor）
+     */
     private Integer page = 1;
     
     private Integer size = 10;
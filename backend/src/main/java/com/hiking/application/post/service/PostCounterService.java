@@ -0,0 +1,280 @@
+package com.hiking.application.post.service;
+
+import com.hiking.domain.post.repository.PostRepository;
+import com.hiking.infrastructure.redis.RedisScripts;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 帖子计数分片累加服务
+ * <p>
+ * 计数增量不直接 UPDATE 热点行，而是分三层累积：
+ * - 本机：每个目标一个 LongAdder（内部分段，并发累加不争用），定时用管道 HINCRBY 汇入 Redis；
+ * - Redis：每个字段一个待写回哈希（目标ID -> 增量），所有实例共享，读取时可见；
+ * - 写回：单个实例持锁把待写回哈希改名为折叠哈希并分配轮次号，再按目标ID排序分批合并成 CASE WHEN UPDATE，
+ *   每批成功后从折叠哈希删除对应目标，中途失败时剩余部分下次继续。
+ *   批次号为「轮次号:批内首个目标ID」，与累加在同一事务内写入 counter_fold_log；
+ *   提交后、HDEL 前中断时重放同一批次会被日志拦下，不会重复累加。
+ * 读取时把本机与 Redis 中尚未写回的增量叠加到数据库值上。
+ * 本机汇入时整体换下计数映射，换下的映射保留一个周期再取一次残余，不在映射中逐个摘除计数器，
+ * 避免摘除与并发累加交错丢失增量。
+ * <p>
+ * 点赞/收藏数由互动写回消费者按集合基数批量覆盖，不经过这里。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PostCounterService {
+
+    /**
+     * 分片累加的计数字段
+     */
+    public enum Field {
+        POST_COMMENT("post:comment");
+
+        private final String key;
+
+        Field(String key) {
+            this.key = key;
+        }
+    }
+
+    private static final String PENDING_KEY_PREFIX = "counter:pending:";
+    private static final String FOLDING_KEY_PREFIX = "counter:folding:";
+    private static final String FOLD_ID_KEY_PREFIX = "counter:fold:id:";
+    private static final String FOLD_LOCK_KEY = "counter:fold:lock";
+    private static final Duration FOLD_LOCK_TTL = Duration.ofSeconds(30);
+    private static final Duration FOLD_LOG_RETENTION = Duration.ofDays(1);
+
+    private static final int FOLD_BATCH = 500;
+
+    private static final RedisScript<String> FOLD_BEGIN_SCRIPT = RedisScripts.load("fold_begin.lua", String.class);
+    private static final RedisScript<Long> UNLOCK_SCRIPT = RedisScripts.load("compare_and_delete.lua", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final PostRepository postRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile Map<Field, ConcurrentHashMap<Long, LongAdder>> local = newLocalCounters();
+
+    /**
+     * 上次汇入时换下的映射，只由 sync 替换
+     */
+    private volatile Map<Field, ConcurrentHashMap<Long, LongAdder>> retired = newLocalCounters();
+
+    /**
+     * 累加计数增量，只写本机内存
+     */
+    public void add(Field field, Long id, long delta) {
+        local.get(field).computeIfAbsent(id, key -> new LongAdder()).add(delta);
+    }
+
+    /**
+     * 尚未写回数据库的增量（目标ID -> 增量），本机与 Redis 合并，Redis 不可用时只返回本机部分
+     */
+    public Map<Long, Long> pending(Field field, Collection<Long> ids) {
+        Map<Long, Long> result = new HashMap<>();
+        if (ids == null || ids.isEmpty()) {
+            return result;
+        }
+        List<Long> idList = new ArrayList<>(ids);
+        for (Map<Field, ConcurrentHashMap<Long, LongAdder>> counters : List.of(local, retired)) {
+            ConcurrentHashMap<Long, LongAdder> adders = counters.get(field);
+            for (Long id : idList) {
+                LongAdder adder = adders.get(id);
+                long sum = adder != null ? adder.sum() : 0;
+                if (sum != 0) {
+                    result.merge(id, sum, Long::sum);
+                }
+            }
+        }
+        try {
+            String[] fields = idList.stream().map(String::valueOf).toArray(String[]::new);
+            List<Object> replies = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                conn.hMGet(PENDING_KEY_PREFIX + field.key, fields);
+                conn.hMGet(FOLDING_KEY_PREFIX + field.key, fields);
+                return null;
+            });
+            for (Object reply : replies) {
+                if (!(reply instanceof List<?> values)) {
+                    continue;
+                }
+                for (int i = 0; i < values.size() && i < idList.size(); i++) {
+                    Object value = values.get(i);
+                    if (value != null) {
+                        result.merge(idList.get(i), Long.parseLong(value.toString()), Long::sum);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.warn("读取待写回计数失败: field={}", field, e);
+        }
+        return result;
+    }
+
+    /**
+     * 单个目标尚未写回数据库的增量
+     */
+    public long pending(Field field, Long id) {
+        return pending(field, List.of(id)).getOrDefault(id, 0L);
+    }
+
+    /**
+     * 定时把本机增量汇入 Redis，失败时退回本机等待下次
+     */
+    @Scheduled(fixedDelayString = "${post.counter.sync-interval-ms:1000}")
+    public synchronized void sync() {
+        // 上上次换下的映射只剩换下瞬间仍在累加的残余，取完即丢弃；刚换下的映射取一次后保留到下次
+        Map<Field, ConcurrentHashMap<Long, LongAdder>> stale = retired;
+        retired = local;
+        local = newLocalCounters();
+        for (Field field : Field.values()) {
+            Map<Long, Long> batch = new HashMap<>();
+            drain(stale.get(field), batch);
+            drain(retired.get(field), batch);
+            if (batch.isEmpty()) {
+                continue;
+            }
+            String pendingKey = PENDING_KEY_PREFIX + field.key;
+            try {
+                redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                    StringRedisConnection conn = (StringRedisConnection) connection;
+                    batch.forEach((id, delta) -> conn.hIncrBy(pendingKey, id.toString(), delta));
+                    return null;
+                });
+            } catch (Exception e) {
+                log.warn("计数增量汇入 Redis 失败，{} 个目标的增量保留在本机", batch.size(), e);
+                batch.forEach((id, delta) -> add(field, id, delta));
+            }
+        }
+    }
+
+    /**
+     * 定时把 Redis 中的增量折叠写回数据库，多实例通过带令牌的 SETNX 锁保证同一时刻只有一个节点执行
+     * <p>
+     * 锁过期后即使有两个节点同时折叠，同一批次也只会被 counter_fold_log 放行一次
+     */
+    @Scheduled(fixedDelayString = "${post.counter.fold-interval-ms:5000}")
+    public void fold() {
+        String token = UUID.randomUUID().toString();
+        try {
+            if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(FOLD_LOCK_KEY, token, FOLD_LOCK_TTL))) {
+                return;
+            }
+        } catch (Exception e) {
+            log.warn("获取计数写回锁失败", e);
+            return;
+        }
+        try {
+            for (Field field : Field.values()) {
+                foldField(field);
+            }
+        } catch (Exception e) {
+            log.warn("计数写回失败，未写回部分保留在 Redis 下次继续", e);
+        } finally {
+            try {
+                redisTemplate.execute(UNLOCK_SCRIPT, List.of(FOLD_LOCK_KEY), token);
+            } catch (Exception e) {
+                log.warn("释放计数写回锁失败", e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sync();
+    }
+
+    private void foldField(Field field) {
+        String foldingKey = FOLDING_KEY_PREFIX + field.key;
+        // 上次未折叠完的哈希优先处理（沿用原轮次号），处理完才接收新的增量
+        String round = redisTemplate.execute(FOLD_BEGIN_SCRIPT,
+                List.of(PENDING_KEY_PREFIX + field.key, foldingKey, FOLD_ID_KEY_PREFIX + field.key),
+                UUID.randomUUID().toString());
+        if (round == null) {
+            return;
+        }
+        // 按目标ID排序后定长分批：每批整体 HDEL，剩余目标重新分批时边界与批次号不变
+        TreeMap<Long, Long> entries = new TreeMap<>();
+        redisTemplate.opsForHash().entries(foldingKey).forEach((id, delta) ->
+                entries.put(Long.valueOf(id.toString()), Long.parseLong(delta.toString())));
+        Map<Long, Long> batch = new LinkedHashMap<>();
+        for (Map.Entry<Long, Long> entry : entries.entrySet()) {
+            batch.put(entry.getKey(), entry.getValue());
+            if (batch.size() >= FOLD_BATCH) {
+                write(field, round, batch);
+                batch = new LinkedHashMap<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(field, round, batch);
+        }
+        if (!entries.isEmpty()) {
+            postRepository.purgeCounterFoldLog(LocalDateTime.now().minus(FOLD_LOG_RETENTION));
+        }
+    }
+
+    /**
+     * sumThenReset 逐个分段取走增量，与之交错的累加要么被本次取走、要么留在计数器里等下次
+     */
+    private static void drain(Map<Long, LongAdder> adders, Map<Long, Long> batch) {
+        adders.forEach((id, adder) -> {
+            long delta = adder.sumThenReset();
+            if (delta != 0) {
+                batch.merge(id, delta, Long::sum);
+            }
+        });
+    }
+
+    private static Map<Field, ConcurrentHashMap<Long, LongAdder>> newLocalCounters() {
+        Map<Field, ConcurrentHashMap<Long, LongAdder>> counters = new EnumMap<>(Field.class);
+        for (Field field : Field.values()) {
+            counters.put(field, new ConcurrentHashMap<>());
+        }
+        return counters;
+    }
+
+    private void write(Field field, String round, Map<Long, Long> batch) {
+        String foldId = round + ":" + batch.keySet().iterator().next();
+        Map<Long, Long> deltas = new HashMap<>();
+        batch.forEach((id, delta) -> {
+            if (delta != 0) {
+                deltas.put(id, delta);
+            }
+        });
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!postRepository.markCounterFolded(foldId)) {
+                log.info("计数折叠批次已写回过，跳过: foldId={}", foldId);
+                return;
+            }
+            switch (field) {
+                case POST_COMMENT -> postRepository.addCommentCounts(deltas);
+            }
+        });
+        redisTemplate.opsForHash().delete(FOLDING_KEY_PREFIX + field.key,
+                batch.keySet().stream().map(String::valueOf).toArray());
+    }
+}
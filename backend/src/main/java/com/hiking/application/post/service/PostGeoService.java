@@ -0,0 +1,149 @@
+package com.hiking.application.post.service;
+
+import com.hiking.domain.post.entity.Post;
+import com.hiking.domain.post.repository.PostRepository;
+import com.hiking.infrastructure.redis.ResumableTaskRunner;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.GeoResult;
+import org.springframework.data.geo.GeoResults;
+import org.springframework.data.geo.Metrics;
+import org.springframework.data.geo.Point;
+import org.springframework.data.redis.connection.RedisGeoCommands;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.domain.geo.GeoReference;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 帖子地理位置索引服务
+ * <p>
+ * 带经纬度的正常帖子写入 Redis GEO（内部为 geohash 打分的 ZSET），
+ * 附近查询用 GEOSEARCH 按距离升序取前 offset + count 条后跳过 offset，翻页深度由 {@link #MAX_RESULTS} 限制。
+ * 启动时按帖子ID分批回填存量帖子，进度记录在 Redis 中，中断后可续跑。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PostGeoService {
+
+    private static final String GEO_KEY = "post:geo";
+    private static final String BACKFILL_TASK = "post:geo:backfill";
+    private static final String BACKFILL_STAGE = "post";
+
+    /**
+     * 单次附近查询最多扫描的结果数（offset + count 上限）
+     */
+    public static final int MAX_RESULTS = 500;
+
+    private static final int BACKFILL_BATCH = 500;
+    private static final Duration BACKFILL_LOCK_TTL = Duration.ofMinutes(30);
+
+    private final StringRedisTemplate redisTemplate;
+    private final PostRepository postRepository;
+    private final ResumableTaskRunner taskRunner;
+
+    /**
+     * 帖子发布后写入地理索引（无坐标或坐标非法时忽略）
+     */
+    public void add(Post post) {
+        if (!hasValidLocation(post)) {
+            return;
+        }
+        try {
+            redisTemplate.opsForGeo().add(GEO_KEY,
+                    new Point(post.getLongitude(), post.getLatitude()), post.getId().toString());
+        } catch (Exception e) {
+            log.warn("写入帖子地理索引失败: postId={}", post.getId(), e);
+        }
+    }
+
+    /**
+     * 帖子删除后移出地理索引
+     */
+    public void remove(Long postId) {
+        try {
+            redisTemplate.opsForGeo().remove(GEO_KEY, postId.toString());
+        } catch (Exception e) {
+            log.warn("移出帖子地理索引失败: postId={}", postId, e);
+        }
+    }
+
+    /**
+     * 查询半径内的帖子，按距离升序返回 帖子ID -> 距离（公里）
+     */
+    public Map<Long, Double> nearby(double latitude, double longitude, double radiusKm, int offset, int count) {
+        int limit = Math.min(offset + count, MAX_RESULTS);
+        Map<Long, Double> result = new LinkedHashMap<>();
+        if (offset >= limit) {
+            return result;
+        }
+        GeoResults<RedisGeoCommands.GeoLocation<String>> results = redisTemplate.opsForGeo().search(GEO_KEY,
+                GeoReference.fromCoordinate(longitude, latitude),
+                new Distance(radiusKm, Metrics.KILOMETERS),
+                RedisGeoCommands.GeoSearchCommandArgs.newGeoSearchArgs().includeDistance().sortAscending().limit(limit));
+        if (results == null) {
+            return result;
+        }
+        List<GeoResult<RedisGeoCommands.GeoLocation<String>>> content = results.getContent();
+        for (int i = offset; i < content.size(); i++) {
+            GeoResult<RedisGeoCommands.GeoLocation<String>> geo = content.get(i);
+            result.put(Long.valueOf(geo.getContent().getName()), geo.getDistance().getValue());
+        }
+        return result;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startBackfill() {
+        Thread backfill = new Thread(this::backfill, "post-geo-backfill");
+        backfill.setDaemon(true);
+        backfill.start();
+    }
+
+    /**
+     * 回填存量帖子的地理索引
+     * <p>
+     * 按帖子ID升序分批扫描，检查点、互斥锁和完成标记由 {@link ResumableTaskRunner} 维护
+     */
+    public void backfill() {
+        try {
+            taskRunner.run(BACKFILL_TASK, BACKFILL_LOCK_TTL, progress -> {
+                long total = progress.forEachBatch(BACKFILL_STAGE, BACKFILL_BATCH,
+                        (afterId, limit) -> postRepository.scanUpdatedSince(null, afterId, limit), Post::getId,
+                        batch -> {
+                            long added = 0;
+                            for (Post post : batch) {
+                                if (post.getStatus() != null && post.getStatus() == Post.STATUS_NORMAL
+                                        && hasValidLocation(post)) {
+                                    add(post);
+                                    added++;
+                                }
+                            }
+                            return added;
+                        });
+                log.info("帖子地理索引回填完成, 本次处理 {} 个帖子", total);
+            });
+        } catch (Exception e) {
+            log.warn("帖子地理索引回填失败，下次启动从检查点继续", e);
+        }
+    }
+
+    /**
+     * Redis GEO 只接受纬度 ±85.05112878 以内的坐标
+     */
+    private static boolean hasValidLocation(Post post) {
+        Double lat = post.getLatitude();
+        Double lng = post.getLongitude();
+        return lat != null && lng != null
+                && lat >= -85.05112878 && lat <= 85.05112878
+                && lng >= -180 && lng <= 180
+                && !(lat == 0 && lng == 0);
+    }
+}
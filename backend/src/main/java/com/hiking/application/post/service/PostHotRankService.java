@@ -0,0 +1,257 @@
+package com.hiking.application.post.service;
+
+import com.hiking.domain.post.entity.Post;
+import com.hiking.domain.post.repository.PostRepository;
+import com.hiking.infrastructure.config.PostHotRankProperties;
+import com.hiking.infrastructure.redis.RedisScripts;
+import com.hiking.infrastructure.redis.ResumableTaskRunner;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 帖子热度榜服务
+ * <p>
+ * 热度 = Σ 事件权重 × 2^(-(now - 事件时间) / 半衰期)，以前向衰减的方式维护在 Redis ZSET 中：
+ * 每个事件按"距纪元的时间"放大后 ZINCRBY，旧分数无需改写即自然衰减；
+ * 撤销（取消点赞、删除评论）按原事件时间换算后扣减，不会多扣；
+ * 定时压缩任务把纪元前移、整体缩放分数，并裁剪已衰减出榜的帖子，使内存有界。
+ * <p>
+ * 榜单为空（首次部署或 Redis 数据丢失）时启动后台回填：按帖子ID分批扫描保留期内的帖子，
+ * 以发帖时间为事件时间按库中的点赞/收藏/评论/浏览数一次性计入；回填完成前热门列表由数据库排序提供。
+ * 回填计入的点赞没有按用户记录事件时间，之后取消这些点赞不会扣分，其贡献随衰减自然消失。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PostHotRankService {
+
+    private static final String HOT_RANK_KEY = "post:hot:rank";
+    private static final String HOT_EPOCH_KEY = "post:hot:epoch";
+    private static final String EVENT_TIME_KEY_PREFIX = "post:hot:events:";
+    private static final String BACKFILL_TASK = "post:hot:backfill";
+    private static final String BACKFILL_STAGE = "post";
+    private static final int BACKFILL_BATCH = 500;
+    private static final Duration BACKFILL_LOCK_TTL = Duration.ofMinutes(30);
+
+    /**
+     * 点赞/收藏事件时间的保留期（半衰期的倍数），超过后贡献不足原值的千分之一
+     */
+    private static final long EVENT_TIME_RETENTION_HALF_LIVES = 10;
+
+    private static final RedisScript<String> INCR_SCRIPT = RedisScripts.load("hot_rank_incr.lua", String.class);
+    private static final RedisScript<Long> COMPACT_SCRIPT = RedisScripts.load("hot_rank_compact.lua", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final PostHotRankProperties properties;
+    private final PostRepository postRepository;
+    private final ResumableTaskRunner taskRunner;
+
+    /**
+     * 热度事件
+     */
+    public enum HotEvent {
+        PUBLISH, LIKE, COLLECT, COMMENT, VIEW
+    }
+
+    /**
+     * 记录热度事件（count 为发生次数）
+     * <p>
+     * 榜单只是派生数据，Redis 异常时仅记录日志，不影响主流程
+     */
+    public void record(Long postId, HotEvent event, int count) {
+        if (count <= 0) {
+            return;
+        }
+        apply(postId, event, weightOf(event) * count, nowSeconds(), null, null);
+    }
+
+    /**
+     * 撤销一次已记录的事件（如删除评论），按原事件时间换算，恰好抵消当初加上的分数
+     */
+    public void revoke(Long postId, HotEvent event, LocalDateTime eventTime) {
+        long eventSeconds = eventTime != null
+                ? eventTime.atZone(ZoneId.systemDefault()).toEpochSecond() : nowSeconds();
+        apply(postId, event, -weightOf(event), eventSeconds, null, null);
+    }
+
+    /**
+     * 用户切换点赞/收藏：加入时按用户记下事件时间，取消时按记下的时间撤销；
+     * 超出保留期的事件贡献已衰减到可忽略，不再撤销
+     */
+    public void recordToggle(Long postId, HotEvent event, Long userId, boolean active) {
+        apply(postId, event, active ? weightOf(event) : -weightOf(event), nowSeconds(),
+                EVENT_TIME_KEY_PREFIX + postId, event.name() + ":" + userId);
+    }
+
+    private void apply(Long postId, HotEvent event, double weight, long eventSeconds, String eventTimeKey, String field) {
+        if (weight == 0) {
+            return;
+        }
+        List<String> keys = eventTimeKey != null
+                ? List.of(HOT_RANK_KEY, HOT_EPOCH_KEY, eventTimeKey)
+                : List.of(HOT_RANK_KEY, HOT_EPOCH_KEY);
+        try {
+            redisTemplate.execute(INCR_SCRIPT, keys,
+                    postId.toString(),
+                    String.valueOf(weight),
+                    String.valueOf(nowSeconds()),
+                    String.valueOf(halfLifeSeconds()),
+                    String.valueOf(eventSeconds),
+                    field != null ? field : "",
+                    String.valueOf(halfLifeSeconds() * EVENT_TIME_RETENTION_HALF_LIVES));
+        } catch (Exception e) {
+            log.warn("更新帖子热度失败: postId={}, event={}", postId, event, e);
+        }
+    }
+
+    /**
+     * 帖子删除后移出榜单
+     */
+    public void remove(Long postId) {
+        try {
+            redisTemplate.opsForZSet().remove(HOT_RANK_KEY, postId.toString());
+            redisTemplate.delete(EVENT_TIME_KEY_PREFIX + postId);
+        } catch (Exception e) {
+            log.warn("移出热度榜失败: postId={}", postId, e);
+        }
+    }
+
+    /**
+     * 按排名区间读取热门帖子ID（ZREVRANGE）
+     */
+    public List<Long> getHotPostIds(long offset, int count) {
+        Set<String> ids = redisTemplate.opsForZSet().reverseRange(HOT_RANK_KEY, offset, offset + count - 1);
+        if (ids == null || ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return ids.stream().map(Long::valueOf).collect(Collectors.toList());
+    }
+
+    /**
+     * 榜单是否可用（回填未完成或榜单为空时由调用方回退到数据库排序）
+     */
+    public boolean isAvailable() {
+        try {
+            if (!taskRunner.isDone(BACKFILL_TASK)) {
+                return false;
+            }
+            Long size = redisTemplate.opsForZSet().zCard(HOT_RANK_KEY);
+            return size != null && size > 0;
+        } catch (Exception e) {
+            log.warn("读取热度榜失败，回退数据库排序", e);
+            return false;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startBackfill() {
+        Thread backfill = new Thread(this::backfill, "post-hot-backfill");
+        backfill.setDaemon(true);
+        backfill.start();
+    }
+
+    /**
+     * 从数据库回填热度榜
+     * <p>
+     * 只计入保留期内发布的帖子，更早的帖子分数已衰减到出榜阈值以下；
+     * 检查点、互斥锁和完成标记由 {@link ResumableTaskRunner} 维护
+     */
+    public void backfill() {
+        try {
+            taskRunner.run(BACKFILL_TASK, BACKFILL_LOCK_TTL, progress -> {
+                long since = nowSeconds() - halfLifeSeconds() * EVENT_TIME_RETENTION_HALF_LIVES;
+                long total = progress.forEachBatch(BACKFILL_STAGE, BACKFILL_BATCH,
+                        (afterId, limit) -> postRepository.scanUpdatedSince(null, afterId, limit), Post::getId,
+                        batch -> {
+                            long seeded = 0;
+                            for (Post post : batch) {
+                                if (post.getStatus() == null || post.getStatus() != Post.STATUS_NORMAL
+                                        || post.getCreateTime() == null) {
+                                    continue;
+                                }
+                                long created = post.getCreateTime().atZone(ZoneId.systemDefault()).toEpochSecond();
+                                if (created >= since) {
+                                    apply(post.getId(), HotEvent.PUBLISH, seedWeight(post), created, null, null);
+                                    seeded++;
+                                }
+                            }
+                            return seeded;
+                        });
+                log.info("帖子热度榜回填完成, 本次计入 {} 个帖子", total);
+            });
+        } catch (Exception e) {
+            log.warn("帖子热度榜回填失败，下次启动从检查点继续", e);
+        }
+    }
+
+    /**
+     * 库中累计的互动按发帖时间一次性计入
+     */
+    private double seedWeight(Post post) {
+        return properties.getPublishWeight()
+                + properties.getLikeWeight() * count(post.getLikeCount())
+                + properties.getCollectWeight() * count(post.getCollectCount())
+                + properties.getCommentWeight() * count(post.getCommentCount())
+                + properties.getViewWeight() * count(post.getViewCount());
+    }
+
+    private static int count(Integer value) {
+        return value != null ? Math.max(value, 0) : 0;
+    }
+
+    /**
+     * 定时压缩：重设衰减纪元并裁剪出榜帖子
+     */
+    @Scheduled(fixedDelayString = "${post.hot-rank.compact-interval-ms:300000}")
+    public void compact() {
+        try {
+            Long removed = redisTemplate.execute(COMPACT_SCRIPT, List.of(HOT_RANK_KEY, HOT_EPOCH_KEY),
+                    String.valueOf(nowSeconds()),
+                    String.valueOf(halfLifeSeconds()),
+                    String.valueOf(properties.getMinScore()),
+                    String.valueOf(properties.getCapacity()));
+            log.debug("热度榜压缩完成, 移除 {} 个帖子", removed);
+        } catch (Exception e) {
+            log.warn("热度榜压缩失败", e);
+        }
+    }
+
+    private double weightOf(HotEvent event) {
+        switch (event) {
+            case PUBLISH:
+                return properties.getPublishWeight();
+            case LIKE:
+                return properties.getLikeWeight();
+            case COLLECT:
+                return properties.getCollectWeight();
+            case COMMENT:
+                return properties.getCommentWeight();
+            case VIEW:
+                return properties.getViewWeight();
+            default:
+                return 0;
+        }
+    }
+
+    private long halfLifeSeconds() {
+        return Math.max(1L, (long) (properties.getHalfLifeHours() * 3600));
+    }
+
+    private static long nowSeconds() {
+        return System.currentTimeMillis() / 1000;
+    }
+}
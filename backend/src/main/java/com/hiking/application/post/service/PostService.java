@@ -1,17 +1,26 @@
 package com.hiking.application.post.service;
 
+import com.hiking.application.common.dto.CursorPage;
+import com.hiking.application.interaction.dto.InteractionStatusDTO;
+import com.hiking.application.interaction.service.InteractionStatusResolver;
 import com.hiking.application.post.dto.*;
+import com.hiking.application.user.service.UserBatchLoader;
 import com.hiking.domain.post.entity.Post;
 import com.hiking.domain.post.repository.PostRepository;
+import com.hiking.domain.post.repository.PostSearchIndex;
+import com.hiking.domain.post.valueobject.PostCursor;
 import com.hiking.domain.user.repository.UserRepository;
 import com.hiking.domain.user.entity.User;
+import com.hiking.infrastructure.transaction.AfterCommit;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -21,8 +30,20 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class PostService {
     
+    private static final int MAX_PAGE_SIZE = 50;
+    private static final double MAX_NEARBY_RADIUS_KM = 50;
+    
     private final PostRepository postRepository;
     private final UserRepository userRepository;
+    private final UserBatchLoader userBatchLoader;
+    private final PostHotRankService postHotRankService;
+    private final PostSearchIndex postSearchIndex;
+    private final PostTopicService postTopicService;
+    private final PostViewCounter postViewCounter;
+    private final PostTimelineService postTimelineService;
+    private final PostGeoService postGeoService;
+    private final InteractionStatusResolver interactionStatusResolver;
+    private final PostCounterService postCounterService;
     
     /**
      * 创建帖子
@@ -41,51 +62,187 @@ public class PostService {
         post.setTrackId(request.getTrackId());
         
         Long postId = postRepository.save(post);
-        
+        post.setId(postId);
         // 更新用户帖子数
         userRepository.incrementPostCount(userId);
         
+        // 索引、话题时间线、地理索引、热度榜与关注时间线都在提交后写入：回滚的帖子不会出现在任何列表中，
+        // 也不会有并发读在提交前按新ID回源、把“不存在”写进帖子缓存；updateTime 已由 save 回写，版本与库中一致。
+        // 关注时间线的推送是异步的，在事务内调用时推送线程可能先于提交去补齐发件箱，读不到这篇帖子
+        AfterCommit.run(() -> {
+            postSearchIndex.index(post);
+            postTopicService.add(post);
+            postGeoService.add(post);
+            postHotRankService.record(postId, PostHotRankService.HotEvent.PUBLISH, 1);
+            postTimelineService.onPublished(userId, postId);
+        });
+        
         return postId;
     }
     
     /**
-     * 获取帖子详情
+     * 获取帖子详情（未登录访客按客户端IP去重）
      */
-    public PostDTO getPostDetail(Long postId, Long currentUserId) {
+    public PostDTO getPostDetail(Long postId, Long currentUserId, String clientIp) {
         Post post = postRepository.findById(postId);
         if (post == null || post.getStatus() != Post.STATUS_NORMAL) {
             return null;
         }
         
-        // 增加浏览量
-        postRepository.incrementViewCount(postId);
+        // 按访客去重计数，浏览量异步批量写回
+        String viewer = currentUserId != null ? "u:" + currentUserId : "ip:" + clientIp;
+        postViewCounter.recordView(postId, viewer);
         
-        return toDTO(post, currentUserId);
+        return toDTOs(List.of(post), currentUserId).get(0);
     }
     
     /**
-     * 获取帖子列表
+     * 获取帖子列表（游标分页，多取一条判断是否还有下一页）
      */
-    public List<PostDTO> getPosts(PostQueryRequest request, Long currentUserId) {
+    public CursorPage<PostDTO> getPosts(PostQueryRequest request, Long currentUserId) {
+        int size = Math.min(Math.max(request.getSize(), 1), MAX_PAGE_SIZE);
+        PostCursor cursor = PostCursor.decode(request.getCursor());
+        boolean hot = false;
         List<Post> posts;
-        int page = request.getPage();
-        int size = request.getSize();
         
         if (request.getKeyword() != null && !request.getKeyword().isEmpty()) {
-            posts = postRepository.search(request.getKeyword(), page, size);
+            return searchPosts(request.getKeyword(), cursor, request.getPage(), size, currentUserId);
         } else if (request.getUserId() != null) {
-            posts = postRepository.findByUserId(request.getUserId(), page, size);
+            posts = postRepository.findByUserId(request.getUserId(), cursor, size + 1);
         } else if (request.getTopic() != null && !request.getTopic().isEmpty() && !"all".equals(request.getTopic())) {
-            posts = postRepository.findByTopic(request.getTopic(), page, size);
+            posts = findTopicPosts(request.getTopic(), cursor, size + 1);
         } else if ("hot".equals(request.getSortBy())) {
-            posts = postRepository.findHotPosts(page, size);
+            // 优先读取 Redis 热度榜，榜单为空时回退到数据库按点赞数排序
+            if (cursor == null || cursor.isRank()) {
+                if (postHotRankService.isAvailable()) {
+                    return getHotPostsFromRank(cursor, size, currentUserId);
+                }
+                if (cursor != null) {
+                    return CursorPage.of(List.of(), null);
+                }
+            }
+            hot = true;
+            posts = postRepository.findHotPosts(cursor, size + 1);
         } else {
-            posts = postRepository.findLatestPosts(page, size);
+            posts = postRepository.findLatestPosts(cursor, size + 1);
         }
         
-        return posts.stream()
-            .map(post -> toDTO(post, currentUserId))
+        String nextCursor = null;
+        if (posts.size() > size) {
+            posts = posts.subList(0, size);
+            Post last = posts.get(size - 1);
+            nextCursor = hot
+                ? PostCursor.of(last.getLikeCount(), last.getId()).encode()
+                : PostCursor.ofTime(last.getCreateTime(), last.getId()).encode();
+        }
+        return CursorPage.of(toDTOs(posts, currentUserId), nextCursor);
+    }
+    
+    /**
+     * 关注时间线（游标分页，游标中只使用帖子ID）
+     */
+    public CursorPage<PostDTO> getFollowFeed(Long userId, String cursorValue, int size) {
+        size = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        PostCursor cursor = PostCursor.decode(cursorValue);
+        List<Long> ids = postTimelineService.getFeedPostIds(userId, cursor != null ? cursor.getId() : null, size + 1);
+        String nextCursor = null;
+        if (ids.size() > size) {
+            ids = ids.subList(0, size);
+            nextCursor = PostCursor.of(0, ids.get(size - 1)).encode();
+        }
+        List<Post> posts = postRepository.findByIds(ids).stream()
+            .filter(post -> post.getStatus() == Post.STATUS_NORMAL)
+            .collect(Collectors.toList());
+        return CursorPage.of(toDTOs(posts, userId), nextCursor);
+    }
+    
+    /**
+     * 附近的帖子（按距离升序，游标为结果偏移量）
+     */
+    public CursorPage<PostDTO> getNearbyPosts(double latitude, double longitude, double radiusKm,
+                                              String cursorValue, int size, Long currentUserId) {
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new IllegalArgumentException("经纬度不合法");
+        }
+        if (radiusKm <= 0 || radiusKm > MAX_NEARBY_RADIUS_KM) {
+            throw new IllegalArgumentException("查询半径需在 0 到 " + (int) MAX_NEARBY_RADIUS_KM + " 公里之间");
+        }
+        size = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        PostCursor cursor = PostCursor.decode(cursorValue);
+        int offset = cursor != null && cursor.isRank() ? (int) cursor.getSortValue() : 0;
+        
+        Map<Long, Double> distances = postGeoService.nearby(latitude, longitude, radiusKm, offset, size + 1);
+        List<Long> ids = new ArrayList<>(distances.keySet());
+        String nextCursor = null;
+        if (ids.size() > size) {
+            ids = ids.subList(0, size);
+            nextCursor = PostCursor.ofRank(offset + size).encode();
+        }
+        List<Post> posts = postRepository.findByIds(ids).stream()
+            .filter(post -> post.getStatus() == Post.STATUS_NORMAL)
             .collect(Collectors.toList());
+        List<PostDTO> dtos = toDTOs(posts, currentUserId);
+        dtos.forEach(dto -> dto.setDistance(distances.get(dto.getId())));
+        return CursorPage.of(dtos, nextCursor);
+    }
+    
+    /**
+     * 话题页：时间线能取满一页时直接回表，否则（越过时间线或 Redis 不可用）走 post_topic 表
+     */
+    private List<Post> findTopicPosts(String topic, PostCursor cursor, int limit) {
+        List<Long> ids = postTopicService.getPostIds(topic, cursor != null ? cursor.getId() : null, limit);
+        if (ids.size() == limit) {
+            List<Post> posts = postRepository.findByIds(ids).stream()
+                .filter(post -> post.getStatus() == Post.STATUS_NORMAL)
+                .collect(Collectors.toList());
+            if (posts.size() == limit) {
+                return posts;
+            }
+        }
+        return postRepository.findByTopic(topic, cursor, limit);
+    }
+    
+    /**
+     * 关键词搜索：优先走内存倒排索引（BM25 相关度排序），索引未就绪时回退数据库 LIKE
+     */
+    private CursorPage<PostDTO> searchPosts(String keyword, PostCursor cursor, int page, int size, Long currentUserId) {
+        int offset = cursor != null && cursor.isRank()
+            ? (int) cursor.getSortValue()
+            : (Math.max(page, 1) - 1) * size;
+        boolean hasMore;
+        List<Post> posts;
+        if (postSearchIndex.isReady()) {
+            List<Long> ids = postSearchIndex.search(keyword, offset, size + 1);
+            hasMore = ids.size() > size;
+            posts = postRepository.findByIds(hasMore ? ids.subList(0, size) : ids).stream()
+                .filter(post -> post.getStatus() == Post.STATUS_NORMAL)
+                .collect(Collectors.toList());
+        } else {
+            posts = postRepository.search(keyword, offset, size + 1);
+            hasMore = posts.size() > size;
+            if (hasMore) {
+                posts = posts.subList(0, size);
+            }
+        }
+        String nextCursor = hasMore ? PostCursor.ofRank(offset + size).encode() : null;
+        return CursorPage.of(toDTOs(posts, currentUserId), nextCursor);
+    }
+    
+    /**
+     * 从热度榜读取一页（ZREVRANGE 取ID后批量回表）
+     */
+    private CursorPage<PostDTO> getHotPostsFromRank(PostCursor cursor, int size, Long currentUserId) {
+        long offset = cursor != null ? cursor.getSortValue() : 0;
+        List<Long> ids = postHotRankService.getHotPostIds(offset, size + 1);
+        String nextCursor = null;
+        if (ids.size() > size) {
+            ids = ids.subList(0, size);
+            nextCursor = PostCursor.ofRank(offset + size).encode();
+        }
+        List<Post> posts = postRepository.findByIds(ids).stream()
+            .filter(post -> post.getStatus() == Post.STATUS_NORMAL)
+            .collect(Collectors.toList());
+        return CursorPage.of(toDTOs(posts, currentUserId), nextCursor);
     }
     
     /**
@@ -97,13 +254,33 @@ public class PostService {
         if (post != null && post.getUserId().equals(userId)) {
             postRepository.delete(postId);
             userRepository.decrementPostCount(userId);
+            postHotRankService.remove(postId);
+            postSearchIndex.remove(postId);
+            postTopicService.remove(post);
+            postTimelineService.onDeleted(userId, postId);
+            postGeoService.remove(postId);
         }
     }
     
+    /**
+     * 批量转换为DTO（作者信息一次批量查询，互动状态与待写回计数各一次管道查询）
+     */
+    private List<PostDTO> toDTOs(List<Post> posts, Long currentUserId) {
+        Map<Long, User> authors = userBatchLoader.load(posts, Post::getUserId);
+        List<Long> postIds = posts.stream().map(Post::getId).collect(Collectors.toList());
+        InteractionStatusDTO status = interactionStatusResolver.resolve(currentUserId,
+            postIds,
+            posts.stream().map(Post::getUserId).collect(Collectors.toList()));
+        Map<Long, Long> pendingComments = postCounterService.pending(PostCounterService.Field.POST_COMMENT, postIds);
+        return posts.stream()
+            .map(post -> toDTO(post, authors, status, pendingComments.getOrDefault(post.getId(), 0L)))
+            .collect(Collectors.toList());
+    }
+    
     /**
      * 转换为DTO
      */
-    private PostDTO toDTO(Post post, Long currentUserId) {
+    private PostDTO toDTO(Post post, Map<Long, User> authors, InteractionStatusDTO status, long pendingComments) {
         PostDTO dto = new PostDTO();
         dto.setId(post.getId());
         dto.setUserId(post.getUserId());
@@ -117,22 +294,24 @@ public class PostService {
         dto.setTrackId(post.getTrackId());
         dto.setLikeCount(post.getLikeCount());
         dto.setCollectCount(post.getCollectCount());
-        dto.setCommentCount(post.getCommentCount());
-        dto.setViewCount(post.getViewCount());
+        int commentCount = post.getCommentCount() != null ? post.getCommentCount() : 0;
+        dto.setCommentCount((int) Math.max(commentCount + pendingComments, 0));
+        int viewCount = post.getViewCount() != null ? post.getViewCount() : 0;
+        dto.setViewCount((int) (viewCount + postViewCounter.pendingViews(post.getId())));
         dto.setCreateTime(post.getCreateTime());
         dto.setTimeText(formatTime(post.getCreateTime()));
         
         // 获取作者信息
-        User author = userRepository.findById(post.getUserId());
+        User author = authors.get(post.getUserId());
         if (author != null) {
             dto.setAuthorName(author.getNickname());
             dto.setAuthorAvatar(author.getAvatar());
         }
         
-        // TODO: 查询当前用户的点赞、收藏、关注状态
-        dto.setIsLiked(false);
-        dto.setIsCollected(false);
-        dto.setIsFollowed(false);
+        // 当前用户的点赞、收藏、关注状态
+        dto.setIsLiked(status.isLiked(post.getId()));
+        dto.setIsCollected(status.isCollected(post.getId()));
+        dto.setIsFollowed(status.isFollowing(post.getUserId()));
         
         return dto;
     }
@@ -0,0 +1,302 @@
+package com.hiking.application.post.service;
+
+import com.hiking.domain.post.entity.Post;
+import com.hiking.domain.post.repository.PostRepository;
+import com.hiking.infrastructure.config.TimelineProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 关注时间线服务（推拉结合）
+ * <p>
+ * - 每个作者一个发件箱 ZSET，每个用户一个收件箱 ZSET，分数均为帖子ID（与发布时间同序），按容量裁剪
+ * - 普通作者发帖时异步推送到所有粉丝的收件箱（SSCAN 分批 + 管道写入）
+ * - 粉丝数达到阈值的作者记入大V集合，此后只写发件箱，粉丝读取时再拉取；
+ *   大V标记只增不减，避免作者在两种模式间来回切换导致时间线缺帖
+ * - 读取时收件箱与所关注大V的发件箱按帖子ID做多路归并，游标为上一页最后一个帖子ID
+ * - 收件箱只收到上线后的推送，存量用户首次读取时按关注集合从各普通作者的发件箱补齐
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PostTimelineService {
+
+    private static final String INBOX_KEY_PREFIX = "timeline:";
+    private static final String OUTBOX_KEY_PREFIX = "user:posts:";
+    private static final String BIG_AUTHORS_KEY = "timeline:big-authors";
+    /**
+     * 发件箱已从数据库补齐过的作者（发件箱存在不代表完整：发帖会先建出只含新帖的发件箱）
+     */
+    private static final String LOADED_OUTBOXES_KEY = "timeline:outbox-loaded";
+    /**
+     * 收件箱已按关注集合补齐过的用户，理由同发件箱：推送会先建出只含新帖的收件箱
+     */
+    private static final String LOADED_INBOXES_KEY = "timeline:inbox-loaded";
+    private static final String USER_FOLLOWING_KEY = "user:following:";
+    private static final String USER_FANS_KEY = "user:fans:";
+
+    private static final int FANOUT_BATCH = 500;
+
+    private final StringRedisTemplate redisTemplate;
+    private final PostRepository postRepository;
+    private final TimelineProperties properties;
+
+    /**
+     * 帖子发布：写入作者发件箱，普通作者再推送到粉丝收件箱
+     */
+    @Async("timelineExecutor")
+    public void onPublished(Long authorId, Long postId) {
+        try {
+            String member = postId.toString();
+            String outbox = OUTBOX_KEY_PREFIX + authorId;
+            // 先补齐存量帖子再写入新帖，避免建出只含新帖的发件箱
+            ensureOutbox(authorId);
+            redisTemplate.opsForZSet().add(outbox, member, postId);
+            redisTemplate.opsForZSet().removeRange(outbox, 0, -properties.getOutboxCapacity() - 1);
+
+            if (isBigAuthor(authorId)) {
+                return;
+            }
+            Long fans = redisTemplate.opsForSet().size(USER_FANS_KEY + authorId);
+            if (fans != null && fans >= properties.getPushFanThreshold()) {
+                redisTemplate.opsForSet().add(BIG_AUTHORS_KEY, authorId.toString());
+                return;
+            }
+            fanOut(authorId, postId);
+        } catch (Exception e) {
+            log.warn("时间线推送失败: authorId={}, postId={}", authorId, postId, e);
+        }
+    }
+
+    /**
+     * 帖子删除：只移出发件箱，收件箱中的残留在读取回表时按状态过滤，不做反向扇出
+     */
+    public void onDeleted(Long authorId, Long postId) {
+        try {
+            redisTemplate.opsForZSet().remove(OUTBOX_KEY_PREFIX + authorId, postId.toString());
+        } catch (Exception e) {
+            log.warn("移出作者发件箱失败: authorId={}, postId={}", authorId, postId, e);
+        }
+    }
+
+    /**
+     * 新关注普通作者：把作者近期帖子回填到收件箱（大V读取时拉取，无需回填）
+     */
+    @Async("timelineExecutor")
+    public void onFollowed(Long userId, Long authorId) {
+        try {
+            if (isBigAuthor(authorId)) {
+                return;
+            }
+            List<Long> postIds = recentPostIds(authorId, properties.getFollowBackfill());
+            if (postIds.isEmpty()) {
+                return;
+            }
+            String inbox = INBOX_KEY_PREFIX + userId;
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                for (Long postId : postIds) {
+                    conn.zAdd(inbox, postId, postId.toString());
+                }
+                conn.zRemRange(inbox, 0, -properties.getInboxCapacity() - 1);
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("关注回填时间线失败: userId={}, authorId={}", userId, authorId, e);
+        }
+    }
+
+    /**
+     * 取消关注：从收件箱移除该作者的近期帖子
+     */
+    @Async("timelineExecutor")
+    public void onUnfollowed(Long userId, Long authorId) {
+        try {
+            List<Long> postIds = recentPostIds(authorId, properties.getInboxCapacity());
+            if (!postIds.isEmpty()) {
+                redisTemplate.opsForZSet().remove(INBOX_KEY_PREFIX + userId,
+                        postIds.stream().map(String::valueOf).toArray());
+            }
+        } catch (Exception e) {
+            log.warn("取消关注清理时间线失败: userId={}, authorId={}", userId, authorId, e);
+        }
+    }
+
+    /**
+     * 读取关注时间线中ID小于 beforeId 的帖子ID（beforeId 为空表示第一页），按ID倒序、去重
+     */
+    public List<Long> getFeedPostIds(Long userId, Long beforeId, int count) {
+        double max = beforeId != null ? beforeId - 1 : Double.POSITIVE_INFINITY;
+        List<String> keys = new ArrayList<>();
+        keys.add(INBOX_KEY_PREFIX + userId);
+        Set<String> bigAuthors = redisTemplate.opsForSet().intersect(USER_FOLLOWING_KEY + userId, BIG_AUTHORS_KEY);
+        ensureInbox(userId, bigAuthors != null ? bigAuthors : Collections.emptySet());
+        if (bigAuthors != null) {
+            for (String authorId : bigAuthors) {
+                ensureOutbox(Long.valueOf(authorId));
+                keys.add(OUTBOX_KEY_PREFIX + authorId);
+            }
+        }
+
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (String key : keys) {
+                conn.zRevRangeByScore(key, Double.NEGATIVE_INFINITY, max, 0, count);
+            }
+            return null;
+        });
+        List<List<Long>> sources = new ArrayList<>(results.size());
+        for (Object result : results) {
+            if (result instanceof Collection<?> ids && !ids.isEmpty()) {
+                sources.add(ids.stream().map(id -> Long.valueOf(id.toString())).collect(Collectors.toList()));
+            }
+        }
+        return merge(sources, count);
+    }
+
+    /**
+     * 多路归并：每路已按ID倒序，堆中保存各路当前头元素，依次弹出最大值直到取满
+     */
+    static List<Long> merge(List<List<Long>> sources, int count) {
+        if (sources.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (sources.size() == 1) {
+            List<Long> only = sources.get(0);
+            return only.size() > count ? only.subList(0, count) : only;
+        }
+        // 元素为 {帖子ID, 来源下标, 来源内位置}
+        PriorityQueue<long[]> heap = new PriorityQueue<>((a, b) -> Long.compare(b[0], a[0]));
+        for (int i = 0; i < sources.size(); i++) {
+            heap.add(new long[]{sources.get(i).get(0), i, 0});
+        }
+        LinkedHashSet<Long> merged = new LinkedHashSet<>();
+        while (!heap.isEmpty() && merged.size() < count) {
+            long[] head = heap.poll();
+            merged.add(head[0]);
+            List<Long> source = sources.get((int) head[1]);
+            int next = (int) head[2] + 1;
+            if (next < source.size()) {
+                heap.add(new long[]{source.get(next), head[1], next});
+            }
+        }
+        return new ArrayList<>(merged);
+    }
+
+    private boolean isBigAuthor(Long authorId) {
+        return Boolean.TRUE.equals(redisTemplate.opsForSet().isMember(BIG_AUTHORS_KEY, authorId.toString()));
+    }
+
+    /**
+     * SSCAN 分批读取粉丝，每批一次管道写入收件箱
+     */
+    private void fanOut(Long authorId, Long postId) {
+        String member = postId.toString();
+        ScanOptions options = ScanOptions.scanOptions().count(FANOUT_BATCH).build();
+        try (Cursor<String> fans = redisTemplate.opsForSet().scan(USER_FANS_KEY + authorId, options)) {
+            List<String> batch = new ArrayList<>(FANOUT_BATCH);
+            while (fans.hasNext()) {
+                batch.add(fans.next());
+                if (batch.size() >= FANOUT_BATCH) {
+                    pushToInboxes(batch, postId, member);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                pushToInboxes(batch, postId, member);
+            }
+        }
+    }
+
+    private void pushToInboxes(List<String> fans, Long postId, String member) {
+        long trimEnd = -properties.getInboxCapacity() - 1;
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (String fan : fans) {
+                String inbox = INBOX_KEY_PREFIX + fan;
+                conn.zAdd(inbox, postId, member);
+                conn.zRemRange(inbox, 0, trimEnd);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 作者近期帖子ID：优先读发件箱，发件箱不存在时从数据库加载并写回
+     */
+    private List<Long> recentPostIds(Long authorId, int count) {
+        ensureOutbox(authorId);
+        Set<String> ids = redisTemplate.opsForZSet().reverseRange(OUTBOX_KEY_PREFIX + authorId, 0, count - 1);
+        if (ids == null || ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return ids.stream().map(Long::valueOf).collect(Collectors.toList());
+    }
+
+    /**
+     * 存量用户首次读取时从所关注普通作者的发件箱补齐收件箱，每个作者取关注回填条数，与新关注时一致；
+     * 大V读取时直接拉取发件箱，不写入收件箱。以补齐标记为准，ZADD 幂等，与并发推送交错也不会重复
+     */
+    private void ensureInbox(Long userId, Set<String> bigAuthors) {
+        String user = userId.toString();
+        if (Boolean.TRUE.equals(redisTemplate.opsForSet().isMember(LOADED_INBOXES_KEY, user))) {
+            return;
+        }
+        Set<String> following = redisTemplate.opsForSet().members(USER_FOLLOWING_KEY + userId);
+        List<Long> postIds = new ArrayList<>();
+        if (following != null) {
+            for (String authorId : following) {
+                if (!bigAuthors.contains(authorId)) {
+                    postIds.addAll(recentPostIds(Long.valueOf(authorId), properties.getFollowBackfill()));
+                }
+            }
+        }
+        String inbox = INBOX_KEY_PREFIX + userId;
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (Long postId : postIds) {
+                conn.zAdd(inbox, postId, postId.toString());
+            }
+            conn.zRemRange(inbox, 0, -properties.getInboxCapacity() - 1);
+            conn.sAdd(LOADED_INBOXES_KEY, user);
+            return null;
+        });
+    }
+
+    /**
+     * 存量作者首次发帖或被读取时从数据库补齐发件箱，以补齐标记而非键是否存在为准；
+     * 并发补齐写入的是同一批帖子，ZADD 幂等
+     */
+    private void ensureOutbox(Long authorId) {
+        String author = authorId.toString();
+        if (Boolean.TRUE.equals(redisTemplate.opsForSet().isMember(LOADED_OUTBOXES_KEY, author))) {
+            return;
+        }
+        String outbox = OUTBOX_KEY_PREFIX + authorId;
+        List<Post> posts = postRepository.findByUserId(authorId, null, properties.getOutboxCapacity());
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (Post post : posts) {
+                conn.zAdd(outbox, post.getId(), post.getId().toString());
+            }
+            conn.sAdd(LOADED_OUTBOXES_KEY, author);
+            return null;
+        });
+    }
+}
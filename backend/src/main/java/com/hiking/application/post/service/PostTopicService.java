@@ -0,0 +1,124 @@
+package com.hiking.application.post.service;
+
+import com.hiking.domain.post.entity.Post;
+import com.hiking.domain.post.repository.PostRepository;
+import com.hiking.infrastructure.redis.ResumableTaskRunner;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 帖子话题时间线服务
+ * <p>
+ * 每个话题在 Redis 中维护一个按帖子ID打分的 ZSET，只保留最新的 {@link #TIMELINE_CAPACITY} 条，
+ * 话题页前几页直接 ZREVRANGEBYSCORE 取ID；超出时间线范围的翻页由 post_topic 表兜底。
+ * 启动时按帖子ID分批回填存量帖子的 post_topic 关联和时间线，进度记录在 Redis 中，中断后可续跑。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PostTopicService {
+
+    private static final String TIMELINE_KEY_PREFIX = "topic:posts:";
+    private static final String BACKFILL_TASK = "post:topic:backfill";
+    private static final String BACKFILL_STAGE = "post";
+
+    private static final int TIMELINE_CAPACITY = 1000;
+    private static final int BACKFILL_BATCH = 500;
+    private static final Duration BACKFILL_LOCK_TTL = Duration.ofMinutes(30);
+
+    private final StringRedisTemplate redisTemplate;
+    private final PostRepository postRepository;
+    private final ResumableTaskRunner taskRunner;
+
+    /**
+     * 帖子发布后写入各话题时间线
+     * <p>
+     * 时间线只是派生数据，Redis 异常时仅记录日志，话题页会回退到 post_topic 表
+     */
+    public void add(Post post) {
+        try {
+            for (String topic : post.indexedTopics()) {
+                String key = TIMELINE_KEY_PREFIX + topic;
+                redisTemplate.opsForZSet().add(key, post.getId().toString(), post.getId());
+                redisTemplate.opsForZSet().removeRange(key, 0, -TIMELINE_CAPACITY - 1);
+            }
+        } catch (Exception e) {
+            log.warn("写入话题时间线失败: postId={}", post.getId(), e);
+        }
+    }
+
+    /**
+     * 帖子删除后移出各话题时间线
+     */
+    public void remove(Post post) {
+        try {
+            for (String topic : post.indexedTopics()) {
+                redisTemplate.opsForZSet().remove(TIMELINE_KEY_PREFIX + topic, post.getId().toString());
+            }
+        } catch (Exception e) {
+            log.warn("移出话题时间线失败: postId={}", post.getId(), e);
+        }
+    }
+
+    /**
+     * 读取话题下ID小于 beforeId 的最新帖子ID（beforeId 为空表示第一页）
+     * <p>
+     * 返回数量不足 count 时说明时间线已到尽头或已被裁剪，调用方应回退到 post_topic 表
+     */
+    public List<Long> getPostIds(String topic, Long beforeId, int count) {
+        try {
+            double max = beforeId != null ? beforeId - 1 : Double.POSITIVE_INFINITY;
+            Set<String> ids = redisTemplate.opsForZSet()
+                .reverseRangeByScore(TIMELINE_KEY_PREFIX + topic, Double.NEGATIVE_INFINITY, max, 0, count);
+            if (ids == null || ids.isEmpty()) {
+                return Collections.emptyList();
+            }
+            return ids.stream().map(Long::valueOf).collect(Collectors.toList());
+        } catch (Exception e) {
+            log.warn("读取话题时间线失败: topic={}", topic, e);
+            return Collections.emptyList();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startBackfill() {
+        Thread backfill = new Thread(this::backfill, "post-topic-backfill");
+        backfill.setDaemon(true);
+        backfill.start();
+    }
+
+    /**
+     * 回填存量帖子的话题关联和时间线
+     * <p>
+     * 按帖子ID升序分批扫描，检查点、互斥锁和完成标记由 {@link ResumableTaskRunner} 维护
+     */
+    public void backfill() {
+        try {
+            taskRunner.run(BACKFILL_TASK, BACKFILL_LOCK_TTL, progress -> {
+                long total = progress.forEachBatch(BACKFILL_STAGE, BACKFILL_BATCH,
+                    (afterId, limit) -> postRepository.scanUpdatedSince(null, afterId, limit), Post::getId,
+                    batch -> {
+                        List<Post> normal = batch.stream()
+                            .filter(post -> post.getStatus() != null && post.getStatus() == Post.STATUS_NORMAL)
+                            .collect(Collectors.toList());
+                        postRepository.saveTopics(normal);
+                        normal.forEach(this::add);
+                        return normal.size();
+                    });
+                log.info("帖子话题回填完成, 本次处理 {} 个帖子", total);
+            });
+        } catch (Exception e) {
+            log.warn("帖子话题回填失败，下次启动从检查点继续", e);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.hiking.application.post.service;
+
+import com.hiking.domain.post.repository.PostRepository;
+import com.hiking.infrastructure.redis.RedisScripts;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 帖子浏览计数服务
+ * <p>
+ * 每个帖子一个 Redis HyperLogLog 记录访客，一次脚本调用内取 PFADD 前后的 PFCOUNT 之差作为浏览增量，
+ * 累计值始终等于基数估计；增量先累加在内存计数器（LongAdder 内部分段，热点帖子并发累加不争用），
+ * 由定时任务合并成一条 CASE WHEN 批量 UPDATE 写回 post.view_count，详情接口本身不再写库。
+ * <p>
+ * 写回时整体换下计数映射，换下的映射保留一个周期，下次写回再取一次其中的残余，
+ * 换下瞬间仍在累加的线程不会丢计数，累加路径上也没有任何锁。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PostViewCounter {
+
+    private static final String UV_KEY_PREFIX = "post:uv:";
+
+    private static final RedisScript<Long> PFADD_DELTA_SCRIPT = RedisScripts.load("pfadd_delta.lua", Long.class);
+
+    /**
+     * 访客去重窗口：帖子超过该时长无人浏览后重新计数
+     */
+    private static final Duration UV_TTL = Duration.ofDays(7);
+
+    private static final int FLUSH_BATCH = 500;
+
+    private final StringRedisTemplate redisTemplate;
+    private final PostRepository postRepository;
+    private final PostHotRankService postHotRankService;
+
+    private volatile ConcurrentHashMap<Long, LongAdder> pending = new ConcurrentHashMap<>();
+
+    /**
+     * 上次写回时换下的映射，只由 flush 访问
+     */
+    private ConcurrentHashMap<Long, LongAdder> retired = new ConcurrentHashMap<>();
+
+    /**
+     * 记录一次浏览，返回是否为新访客
+     * <p>
+     * Redis 不可用时按新访客计数，宁可多计也不丢计数
+     */
+    public boolean recordView(Long postId, String viewer) {
+        long views = 1;
+        try {
+            Long delta = redisTemplate.execute(PFADD_DELTA_SCRIPT, List.of(UV_KEY_PREFIX + postId),
+                    viewer, String.valueOf(UV_TTL.getSeconds()));
+            views = delta != null ? delta : 0;
+        } catch (Exception e) {
+            log.warn("记录帖子访客失败: postId={}", postId, e);
+        }
+        if (views > 0) {
+            add(postId, views);
+            postHotRankService.record(postId, PostHotRankService.HotEvent.VIEW, (int) views);
+        }
+        return views > 0;
+    }
+
+    /**
+     * 尚未写回数据库的浏览量，展示时叠加到 view_count 上
+     */
+    public long pendingViews(Long postId) {
+        LongAdder adder = pending.get(postId);
+        return adder != null ? adder.sum() : 0;
+    }
+
+    /**
+     * 定时把内存计数批量写回数据库，写库失败时计数退回内存等待下次重试
+     */
+    @Scheduled(fixedDelayString = "${post.view-counter.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        if (pending.isEmpty() && retired.isEmpty()) {
+            return;
+        }
+        // 上上次换下的映射只剩残余，取完即丢弃；刚换下的映射取一次后保留到下次
+        Map<Long, LongAdder> stale = retired;
+        retired = pending;
+        pending = new ConcurrentHashMap<>();
+
+        Map<Long, Long> views = new HashMap<>();
+        drain(stale, views);
+        drain(retired, views);
+        Map<Long, Long> batch = new HashMap<>();
+        for (Map.Entry<Long, Long> entry : views.entrySet()) {
+            batch.put(entry.getKey(), entry.getValue());
+            if (batch.size() >= FLUSH_BATCH) {
+                write(batch);
+                batch = new HashMap<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+    }
+
+    /**
+     * sumThenReset 逐个分段取走计数，与之交错的累加要么被本次取走、要么留在计数器里等下次
+     */
+    private static void drain(Map<Long, LongAdder> counters, Map<Long, Long> views) {
+        counters.forEach((postId, adder) -> {
+            long sum = adder.sumThenReset();
+            if (sum > 0) {
+                views.merge(postId, sum, Long::sum);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void write(Map<Long, Long> batch) {
+        try {
+            postRepository.addViewCounts(batch);
+        } catch (Exception e) {
+            log.warn("浏览量写回失败，{} 个帖子的计数保留到下次", batch.size(), e);
+            batch.forEach(this::add);
+        }
+    }
+
+    /**
+     * 计数器已存在时 computeIfAbsent 不加锁，热点帖子的并发累加只落在 LongAdder 的分段上
+     */
+    private void add(Long postId, long views) {
+        pending.computeIfAbsent(postId, id -> new LongAdder()).add(views);
+    }
+}
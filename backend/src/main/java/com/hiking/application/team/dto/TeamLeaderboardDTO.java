@@ -0,0 +1,28 @@
+package com.hiking.application.team.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 团队排行榜响应DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TeamLeaderboardDTO {
+    /**
+     * 榜单类型：distance / hikes / month / year
+     */
+    private String board;
+    private List<TeamLeaderboardEntryDTO> entries;
+    /**
+     * 当前用户的名次（从 1 开始）与数值
+     */
+    private Integer myRank;
+    private Double myValue;
+}
@@ -0,0 +1,24 @@
+package com.hiking.application.team.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 团队排行榜条目DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TeamLeaderboardEntryDTO {
+    private Integer rank;
+    private Long userId;
+    private String nickname;
+    private String avatar;
+    /**
+     * 距离（公里）或徒步次数，取决于榜单类型
+     */
+    private Double value;
+}
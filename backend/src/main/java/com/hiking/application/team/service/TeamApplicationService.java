@@ -1,18 +1,24 @@
 package com.hiking.application.team.service;
 
+import com.hiking.application.common.dto.CursorPage;
 import com.hiking.application.team.dto.*;
+import com.hiking.application.user.service.UserBatchLoader;
 import com.hiking.domain.team.entity.Team;
 import com.hiking.domain.team.entity.TeamMember;
 import com.hiking.domain.team.repository.TeamMemberRepository;
 import com.hiking.domain.team.repository.TeamRepository;
 import com.hiking.domain.team.valueobject.MemberStatus;
+import com.hiking.domain.team.valueobject.TeamMemberCursor;
+import com.hiking.domain.team.valueobject.TeamSummary;
 import com.hiking.domain.user.entity.User;
 import com.hiking.domain.user.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -22,9 +28,16 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class TeamApplicationService {
 
+    private static final int MAX_MEMBER_PAGE_SIZE = 50;
+
     private final TeamRepository teamRepository;
     private final TeamMemberRepository teamMemberRepository;
     private final UserRepository userRepository;
+    private final UserBatchLoader userBatchLoader;
+    private final TeamReadModelCache teamReadModelCache;
+    private final TeamMemberSetCache teamMemberSetCache;
+    private final TeamMembershipCache teamMembershipCache;
+    private final TeamLeaderboardService teamLeaderboardService;
 
     /**
      * 根据 openId 获取或创建用户，返回用户ID
@@ -53,6 +66,9 @@ public class TeamApplicationService {
         // 创建者自动成为团队所有者
         TeamMember ownerMember = TeamMember.createOwner(team.getId(), userId);
         teamMemberRepository.save(ownerMember);
+        teamReadModelCache.evictUser(userId);
+        teamMemberSetCache.onJoined(team.getId(), userId);
+        teamMembershipCache.evict(team.getId(), userId);
 
         return toTeamDTO(team);
     }
@@ -62,12 +78,8 @@ public class TeamApplicationService {
      */
     public List<TeamDTO> getMyTeams(String visitorId) {
         Long userId = getOrCreateUserId(visitorId);
-        // 获取用户加入的所有团队
-        List<TeamMember> members = teamMemberRepository.findApprovedByUserId(userId);
-        
-        return members.stream()
-                .map(member -> teamRepository.findById(member.getTeamId()).orElse(null))
-                .filter(team -> team != null)
+        // 读模型缓存：团队、创建者昵称、成员数一并取出，往返次数与团队数无关
+        return teamReadModelCache.getUserTeams(userId).stream()
                 .map(this::toTeamDTO)
                 .collect(Collectors.toList());
     }
@@ -77,7 +89,8 @@ public class TeamApplicationService {
      */
     public TeamDTO getTeam(Long teamId, String visitorId) {
         Long userId = getOrCreateUserId(visitorId);
-        Team team = teamRepository.findById(teamId)
+        TeamSummary team = teamReadModelCache.getSummaries(List.of(teamId)).stream()
+                .findFirst()
                 .orElseThrow(() -> new IllegalArgumentException("团队不存在"));
 
         // 验证用户是否为团队成员
@@ -92,16 +105,16 @@ public class TeamApplicationService {
     @Transactional
     public TeamDTO updateTeam(Long teamId, String visitorId, UpdateTeamRequest request) {
         Long userId = getOrCreateUserId(visitorId);
-        Team team = teamRepository.findById(teamId)
-                .orElseThrow(() -> new IllegalArgumentException("团队不存在"));
-
         // 只有所有者可以更新
-        if (!team.isOwner(userId)) {
+        if (!teamMembershipCache.isOwner(teamId, userId)) {
             throw new IllegalStateException("只有团队创建者可以修改团队信息");
         }
+        Team team = teamRepository.findById(teamId)
+                .orElseThrow(() -> new IllegalArgumentException("团队不存在"));
 
         team.update(request.getName(), request.getDescription());
         teamRepository.save(team);
+        teamReadModelCache.evictTeam(teamId);
 
         return toTeamDTO(team);
     }
@@ -112,18 +125,24 @@ public class TeamApplicationService {
     @Transactional
     public void deleteTeam(Long teamId, String visitorId) {
         Long userId = getOrCreateUserId(visitorId);
-        Team team = teamRepository.findById(teamId)
-                .orElseThrow(() -> new IllegalArgumentException("团队不存在"));
-
         // 只有所有者可以解散
-        if (!team.isOwner(userId)) {
+        if (!teamMembershipCache.isOwner(teamId, userId)) {
             throw new IllegalStateException("只有团队创建者可以解散团队");
         }
 
+        List<Long> memberUserIds = teamMemberRepository.findByTeamIdAndStatus(teamId, MemberStatus.APPROVED).stream()
+                .map(TeamMember::getUserId)
+                .collect(Collectors.toList());
+
         // 删除所有成员
         teamMemberRepository.deleteByTeamId(teamId);
         // 删除团队
         teamRepository.deleteById(teamId);
+        teamReadModelCache.evictUsers(memberUserIds);
+        teamReadModelCache.evictTeam(teamId);
+        teamMemberSetCache.onDeleted(teamId);
+        teamLeaderboardService.evict(teamId);
+        teamMembershipCache.evictTeam(teamId);
     }
 
     /**
@@ -144,8 +163,15 @@ public class TeamApplicationService {
         // 直接加入（通过邀请码无需审批）
         TeamMember member = TeamMember.createByInviteCode(team.getId(), userId);
         teamMemberRepository.save(member);
-
-        return toTeamDTO(team);
+        teamRepository.addMemberCount(team.getId(), 1);
+        teamReadModelCache.evictUser(userId);
+        teamReadModelCache.evictTeam(team.getId());
+        teamMemberSetCache.onJoined(team.getId(), userId);
+        teamMembershipCache.evict(team.getId(), userId);
+        teamLeaderboardService.evict(team.getId());
+
+        // 重新读取以带上本事务增加后的成员数
+        return toTeamDTO(teamRepository.findById(team.getId()).orElse(team));
     }
 
     /**
@@ -166,6 +192,7 @@ public class TeamApplicationService {
         // 创建申请记录
         TeamMember member = TeamMember.createApplicant(teamId, userId);
         teamMemberRepository.save(member);
+        teamMembershipCache.evict(member);
     }
 
     /**
@@ -176,11 +203,40 @@ public class TeamApplicationService {
         // 验证用户是否为团队成员
         validateTeamMember(teamId, userId);
 
-        List<TeamMember> members = teamMemberRepository.findByTeamId(teamId);
-        
-        return members.stream()
-                .map(this::toMemberDTO)
-                .collect(Collectors.toList());
+        return toMemberDTOs(teamMemberRepository.findByTeamId(teamId));
+    }
+
+    /**
+     * 分页获取已批准成员，按角色（创建者、管理员、成员）和加入时间排序
+     */
+    public CursorPage<TeamMemberDTO> getTeamMembersPage(Long teamId, String visitorId, String cursorValue, int size) {
+        Long userId = getOrCreateUserId(visitorId);
+        validateTeamMember(teamId, userId);
+
+        size = Math.min(Math.max(size, 1), MAX_MEMBER_PAGE_SIZE);
+        TeamMemberCursor cursor = TeamMemberCursor.decode(cursorValue);
+        List<TeamMember> members = teamMemberRepository.findApprovedPage(teamId, cursor, size + 1);
+        String nextCursor = null;
+        if (members.size() > size) {
+            members = members.subList(0, size);
+            TeamMember last = members.get(size - 1);
+            nextCursor = TeamMemberCursor.of(last.getRole(), last.getJoinTime(), last.getId()).encode();
+        }
+        return CursorPage.of(toMemberDTOs(members), nextCursor);
+    }
+
+    /**
+     * 按昵称前缀搜索团队成员
+     */
+    public List<TeamMemberDTO> searchMembers(Long teamId, String visitorId, String prefix, int size) {
+        Long userId = getOrCreateUserId(visitorId);
+        validateTeamMember(teamId, userId);
+
+        if (prefix == null || prefix.isBlank()) {
+            throw new IllegalArgumentException("搜索关键词不能为空");
+        }
+        size = Math.min(Math.max(size, 1), MAX_MEMBER_PAGE_SIZE);
+        return toMemberDTOs(teamMemberRepository.findApprovedByNicknamePrefix(teamId, prefix.trim(), size));
     }
 
     /**
@@ -188,19 +244,12 @@ public class TeamApplicationService {
      */
     public List<TeamMemberDTO> getPendingApplications(Long teamId, String visitorId) {
         Long userId = getOrCreateUserId(visitorId);
-        Team team = teamRepository.findById(teamId)
-                .orElseThrow(() -> new IllegalArgumentException("团队不存在"));
-
         // 只有所有者可以查看申请
-        if (!team.isOwner(userId)) {
+        if (!teamMembershipCache.isOwner(teamId, userId)) {
             throw new IllegalStateException("只有团队创建者可以查看申请列表");
         }
 
-        List<TeamMember> pendingMembers = teamMemberRepository.findByTeamIdAndStatus(teamId, MemberStatus.PENDING);
-        
-        return pendingMembers.stream()
-                .map(this::toMemberDTO)
-                .collect(Collectors.toList());
+        return toMemberDTOs(teamMemberRepository.findByTeamIdAndStatus(teamId, MemberStatus.PENDING));
     }
 
     /**
@@ -209,11 +258,8 @@ public class TeamApplicationService {
     @Transactional
     public void approveApplication(Long teamId, Long memberId, String visitorId, boolean approve) {
         Long userId = getOrCreateUserId(visitorId);
-        Team team = teamRepository.findById(teamId)
-                .orElseThrow(() -> new IllegalArgumentException("团队不存在"));
-
         // 只有所有者可以审批
-        if (!team.isOwner(userId)) {
+        if (!teamMembershipCache.isOwner(teamId, userId)) {
             throw new IllegalStateException("只有团队创建者可以审批申请");
         }
 
@@ -230,6 +276,14 @@ public class TeamApplicationService {
             member.reject();
         }
         teamMemberRepository.save(member);
+        teamMembershipCache.evict(member);
+        if (approve) {
+            teamRepository.addMemberCount(teamId, 1);
+            teamReadModelCache.evictUser(member.getUserId());
+            teamReadModelCache.evictTeam(teamId);
+            teamMemberSetCache.onJoined(teamId, member.getUserId());
+            teamLeaderboardService.evict(teamId);
+        }
     }
 
     /**
@@ -238,9 +292,6 @@ public class TeamApplicationService {
     @Transactional
     public void removeMember(Long teamId, Long memberId, String visitorId) {
         Long userId = getOrCreateUserId(visitorId);
-        Team team = teamRepository.findById(teamId)
-                .orElseThrow(() -> new IllegalArgumentException("团队不存在"));
-
         TeamMember member = teamMemberRepository.findById(memberId)
                 .orElseThrow(() -> new IllegalArgumentException("成员不存在"));
 
@@ -254,11 +305,19 @@ public class TeamApplicationService {
         }
 
         // 只有所有者可以移除他人，或者成员自己退出
-        if (!team.isOwner(userId) && !member.getUserId().equals(userId)) {
+        if (!member.getUserId().equals(userId) && !teamMembershipCache.isOwner(teamId, userId)) {
             throw new IllegalStateException("没有权限移除该成员");
         }
 
         teamMemberRepository.deleteById(memberId);
+        if (member.isApproved()) {
+            teamRepository.addMemberCount(teamId, -1);
+        }
+        teamReadModelCache.evictUser(member.getUserId());
+        teamReadModelCache.evictTeam(teamId);
+        teamMemberSetCache.onLeft(teamId, member.getUserId());
+        teamLeaderboardService.evict(teamId);
+        teamMembershipCache.evict(member);
     }
 
     /**
@@ -276,6 +335,14 @@ public class TeamApplicationService {
         }
 
         teamMemberRepository.deleteById(member.getId());
+        if (member.isApproved()) {
+            teamRepository.addMemberCount(teamId, -1);
+        }
+        teamReadModelCache.evictUser(userId);
+        teamReadModelCache.evictTeam(teamId);
+        teamMemberSetCache.onLeft(teamId, userId);
+        teamLeaderboardService.evict(teamId);
+        teamMembershipCache.evict(teamId, userId);
     }
 
     /**
@@ -284,33 +351,41 @@ public class TeamApplicationService {
     @Transactional
     public String regenerateInviteCode(Long teamId, String visitorId) {
         Long userId = getOrCreateUserId(visitorId);
-        Team team = teamRepository.findById(teamId)
-                .orElseThrow(() -> new IllegalArgumentException("团队不存在"));
-
         // 只有所有者可以重新生成
-        if (!team.isOwner(userId)) {
+        if (!teamMembershipCache.isOwner(teamId, userId)) {
             throw new IllegalStateException("只有团队创建者可以重新生成邀请码");
         }
+        Team team = teamRepository.findById(teamId)
+                .orElseThrow(() -> new IllegalArgumentException("团队不存在"));
 
         team.regenerateInviteCode();
         teamRepository.save(team);
+        teamReadModelCache.evictTeam(teamId);
 
         return team.getInviteCode();
     }
 
+    /**
+     * 获取团队排行榜（总距离、徒步次数、本月、本年）
+     */
+    public TeamLeaderboardDTO getLeaderboard(Long teamId, String visitorId, String board, int size) {
+        Long userId = getOrCreateUserId(visitorId);
+        validateTeamMember(teamId, userId);
+
+        return teamLeaderboardService.getLeaderboard(teamId, userId, TeamLeaderboardService.Board.of(board), size);
+    }
+
     /**
      * 获取用户所在团队的所有成员ID列表
      */
     public List<Long> getTeamMemberUserIds(Long userId) {
-        // 获取用户加入的所有团队
-        List<TeamMember> myMemberships = teamMemberRepository.findApprovedByUserId(userId);
-        
-        // 获取这些团队的所有成员
-        return myMemberships.stream()
-                .flatMap(membership -> teamMemberRepository.findByTeamIdAndStatus(
-                        membership.getTeamId(), MemberStatus.APPROVED).stream())
-                .map(TeamMember::getUserId)
-                .distinct()
+        // 用户所在团队ID来自读模型缓存，各团队成员集合来自成员集合缓存，并集在本机计算
+        List<Long> teamIds = teamReadModelCache.getUserTeamIds(userId);
+        if (teamIds.isEmpty()) {
+            return List.of();
+        }
+        return Arrays.stream(teamMemberSetCache.union(teamIds))
+                .boxed()
                 .collect(Collectors.toList());
     }
 
@@ -318,15 +393,27 @@ public class TeamApplicationService {
      * 验证用户是否为团队成员
      */
     private void validateTeamMember(Long teamId, Long userId) {
-        teamMemberRepository.findByTeamIdAndUserId(teamId, userId)
-                .filter(TeamMember::isApproved)
-                .orElseThrow(() -> new IllegalStateException("您不是该团队的成员"));
+        if (!teamMembershipCache.isApprovedMember(teamId, userId)) {
+            throw new IllegalStateException("您不是该团队的成员");
+        }
+    }
+
+    private TeamDTO toTeamDTO(TeamSummary team) {
+        return TeamDTO.builder()
+                .id(team.getId())
+                .name(team.getName())
+                .description(team.getDescription())
+                .inviteCode(team.getInviteCode())
+                .ownerId(team.getOwnerId())
+                .ownerName(team.getOwnerName())
+                .memberCount(team.getMemberCount())
+                .createTime(team.getCreateTime())
+                .build();
     }
 
     private TeamDTO toTeamDTO(Team team) {
-        User owner = userRepository.findById(team.getOwnerId()).orElse(null);
-        long memberCount = teamMemberRepository.countApprovedByTeamId(team.getId());
-        
+        User owner = userRepository.findById(team.getOwnerId());
+
         return TeamDTO.builder()
                 .id(team.getId())
                 .name(team.getName())
@@ -334,14 +421,22 @@ public class TeamApplicationService {
                 .inviteCode(team.getInviteCode())
                 .ownerId(team.getOwnerId())
                 .ownerName(owner != null ? owner.getNickname() : null)
-                .memberCount((int) memberCount)
+                .memberCount(team.getMemberCount())
                 .createTime(team.getCreateTime())
                 .build();
     }
 
-    private TeamMemberDTO toMemberDTO(TeamMember member) {
-        User user = userRepository.findById(member.getUserId()).orElse(null);
-        
+    /**
+     * 成员资料一次批量加载
+     */
+    private List<TeamMemberDTO> toMemberDTOs(List<TeamMember> members) {
+        Map<Long, User> users = userBatchLoader.load(members, TeamMember::getUserId);
+        return members.stream()
+                .map(member -> toMemberDTO(member, users.get(member.getUserId())))
+                .collect(Collectors.toList());
+    }
+
+    private TeamMemberDTO toMemberDTO(TeamMember member, User user) {
         return TeamMemberDTO.builder()
                 .id(member.getId())
                 .teamId(member.getTeamId())
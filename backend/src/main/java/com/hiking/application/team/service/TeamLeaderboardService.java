@@ -0,0 +1,345 @@
+package com.hiking.application.team.service;
+
+import com.hiking.application.team.dto.TeamLeaderboardDTO;
+import com.hiking.application.team.dto.TeamLeaderboardEntryDTO;
+import com.hiking.application.user.service.UserBatchLoader;
+import com.hiking.domain.hiking.repository.HikingRecordRepository;
+import com.hiking.domain.hiking.valueobject.HikingStats;
+import com.hiking.domain.user.entity.User;
+import com.hiking.infrastructure.redis.RedisScripts;
+import com.hiking.infrastructure.transaction.AfterCommit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 团队排行榜
+ * <p>
+ * 每个团队四个 ZSET（成员为用户ID）：总距离、徒步次数、当月距离、当年距离，首次读取时用一条分组查询
+ * 从 hiking_record 整体构建（所有已批准成员都在榜上，没有记录的为 0），之后：
+ * - 记录创建/修改/删除在事务提交后按差值 ZINCRBY 到所有者所在团队已存在的榜单，不会建出只含部分成员的榜单；
+ * - 成员加入/退出/被移除、团队解散时删除该团队的榜单，下次读取时重建；
+ * - 每晚对账，对仍在使用的团队从数据库重建，纠正漏掉的差值与浮点误差。
+ * 对账沿用榜单剩余的过期时间而不续期：只有读取时构建才给满两天，无人读取的榜单照常过期，
+ * 过期后对账把团队移出登记集合。
+ */
+@Slf4j
+@Service
+public class TeamLeaderboardService {
+
+    private static final String KEY_PREFIX = "team:board:";
+    /**
+     * 已构建过榜单的团队ID，供对账任务遍历
+     */
+    private static final String TEAMS_KEY = "team:board:teams";
+    private static final String RECONCILE_LOCK_KEY = "team:board:reconcile:lock";
+
+    private static final Duration TTL = Duration.ofDays(2);
+    private static final Duration RECONCILE_LOCK_TTL = Duration.ofHours(1);
+    private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private static final int MAX_SIZE = 100;
+
+    private static final RedisScript<Long> ZINCRBY_IF_EXISTS_SCRIPT = RedisScripts.load("zincrby_if_exists.lua", Long.class);
+
+    /**
+     * 榜单类型
+     */
+    public enum Board {
+        DISTANCE, HIKES, MONTH, YEAR;
+
+        public static Board of(String name) {
+            for (Board board : values()) {
+                if (board.name().equalsIgnoreCase(name)) {
+                    return board;
+                }
+            }
+            throw new IllegalArgumentException("不支持的排行榜类型: " + name);
+        }
+    }
+
+    private record Ranked(long userId, double value) {
+    }
+
+    private final StringRedisTemplate redisTemplate;
+    private final HikingRecordRepository hikingRecordRepository;
+    private final TeamReadModelCache teamReadModelCache;
+    private final TeamMemberSetCache teamMemberSetCache;
+    private final UserBatchLoader userBatchLoader;
+
+    public TeamLeaderboardService(StringRedisTemplate redisTemplate, HikingRecordRepository hikingRecordRepository,
+                                  TeamReadModelCache teamReadModelCache, TeamMemberSetCache teamMemberSetCache,
+                                  UserBatchLoader userBatchLoader) {
+        this.redisTemplate = redisTemplate;
+        this.hikingRecordRepository = hikingRecordRepository;
+        this.teamReadModelCache = teamReadModelCache;
+        this.teamMemberSetCache = teamMemberSetCache;
+        this.userBatchLoader = userBatchLoader;
+    }
+
+    /**
+     * 取榜单前若干名及当前用户的名次，Redis 不可用时直接按数据库汇总结果排序
+     */
+    public TeamLeaderboardDTO getLeaderboard(Long teamId, Long userId, Board board, int size) {
+        size = Math.min(Math.max(size, 1), MAX_SIZE);
+        LocalDate today = LocalDate.now();
+        String key = key(teamId, board, today);
+        String member = userId.toString();
+
+        List<Ranked> top = new ArrayList<>();
+        Integer myRank = null;
+        Double myValue = null;
+        try {
+            if (!Boolean.TRUE.equals(redisTemplate.hasKey(key))) {
+                write(teamId, today, load(teamId, today), TTL.toMillis());
+            }
+            Set<ZSetOperations.TypedTuple<String>> tuples =
+                    redisTemplate.opsForZSet().reverseRangeWithScores(key, 0, size - 1);
+            if (tuples != null) {
+                for (ZSetOperations.TypedTuple<String> tuple : tuples) {
+                    top.add(new Ranked(Long.parseLong(tuple.getValue()), tuple.getScore() != null ? tuple.getScore() : 0));
+                }
+            }
+            List<Object> replies = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                conn.zRevRank(key, member);
+                conn.zScore(key, member);
+                return null;
+            });
+            if (replies.get(0) instanceof Number rank) {
+                myRank = rank.intValue() + 1;
+                myValue = replies.get(1) instanceof Number value ? value.doubleValue() : 0;
+            }
+        } catch (Exception e) {
+            log.warn("读取团队排行榜失败，回退数据库: teamId={}, board={}", teamId, board, e);
+            List<Ranked> all = load(teamId, today).stream()
+                    .map(stats -> new Ranked(stats.getOwnerId(), score(stats, board)))
+                    .sorted(Comparator.comparingDouble(Ranked::value).reversed().thenComparingLong(Ranked::userId))
+                    .collect(Collectors.toList());
+            top = all.subList(0, Math.min(size, all.size()));
+            for (int i = 0; i < all.size(); i++) {
+                if (all.get(i).userId() == userId) {
+                    myRank = i + 1;
+                    myValue = all.get(i).value();
+                    break;
+                }
+            }
+        }
+
+        Map<Long, User> users = userBatchLoader.load(top, Ranked::userId);
+        List<TeamLeaderboardEntryDTO> entries = new ArrayList<>(top.size());
+        for (int i = 0; i < top.size(); i++) {
+            Ranked ranked = top.get(i);
+            User user = users.get(ranked.userId());
+            entries.add(TeamLeaderboardEntryDTO.builder()
+                    .rank(i + 1)
+                    .userId(ranked.userId())
+                    .nickname(user != null ? user.getNickname() : null)
+                    .avatar(user != null ? user.getAvatar() : null)
+                    .value(round(ranked.value()))
+                    .build());
+        }
+        return TeamLeaderboardDTO.builder()
+                .board(board.name().toLowerCase())
+                .entries(entries)
+                .myRank(myRank)
+                .myValue(myValue != null ? round(myValue) : null)
+                .build();
+    }
+
+    /**
+     * 徒步记录变化，旧值/新值的日期为空分别表示新建/删除；差值在事务提交后写入所有者所在团队已存在的榜单
+     */
+    public void onRecordChanged(Long ownerId, LocalDate oldDate, Double oldDistance,
+                                LocalDate newDate, Double newDistance) {
+        if (ownerId == null) {
+            return;
+        }
+        AfterCommit.run(() -> {
+            try {
+                List<Long> teamIds = teamReadModelCache.getUserTeamIds(ownerId);
+                Map<String, Double> increments = new LinkedHashMap<>();
+                for (Long teamId : teamIds) {
+                    if (oldDate != null) {
+                        addIncrements(increments, teamId, oldDate, -value(oldDistance), -1);
+                    }
+                    if (newDate != null) {
+                        addIncrements(increments, teamId, newDate, value(newDistance), 1);
+                    }
+                }
+                increments.values().removeIf(delta -> delta == 0);
+                if (increments.isEmpty()) {
+                    return;
+                }
+                List<String> args = new ArrayList<>(increments.size() + 1);
+                args.add(ownerId.toString());
+                increments.values().forEach(delta -> args.add(String.valueOf(delta)));
+                redisTemplate.execute(ZINCRBY_IF_EXISTS_SCRIPT, new ArrayList<>(increments.keySet()), args.toArray());
+            } catch (Exception e) {
+                log.warn("团队排行榜更新失败，等待对账: ownerId={}", ownerId, e);
+            }
+        });
+    }
+
+    /**
+     * 团队成员变化或解散后删除榜单，下次读取时重建
+     */
+    public void evict(Long teamId) {
+        AfterCommit.run(() -> {
+            LocalDate today = LocalDate.now();
+            List<String> keys = new ArrayList<>();
+            for (Board board : Board.values()) {
+                keys.add(key(teamId, board, today));
+            }
+            try {
+                redisTemplate.delete(keys);
+            } catch (Exception e) {
+                log.warn("团队排行榜失效失败，等待对账: teamId={}", teamId, e);
+            }
+        });
+    }
+
+    /**
+     * 每晚对账：对仍有榜单的团队从 hiking_record 重建，多实例时只有抢到锁的实例执行
+     */
+    @Scheduled(cron = "${team.leaderboard.reconcile-cron:0 30 3 * * *}")
+    public void reconcile() {
+        Set<String> teamIds;
+        try {
+            if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(RECONCILE_LOCK_KEY, "1", RECONCILE_LOCK_TTL))) {
+                return;
+            }
+            teamIds = redisTemplate.opsForSet().members(TEAMS_KEY);
+        } catch (Exception e) {
+            log.warn("团队排行榜对账失败", e);
+            return;
+        }
+        if (teamIds == null || teamIds.isEmpty()) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        int rebuilt = 0;
+        for (String id : teamIds) {
+            Long teamId = Long.valueOf(id);
+            try {
+                // 不存在为 -2；没有过期时间（-1）的榜单不应出现，同样按过期处理
+                Long ttlMillis = redisTemplate.getExpire(key(teamId, Board.DISTANCE, today), TimeUnit.MILLISECONDS);
+                List<HikingStats> stats = ttlMillis != null && ttlMillis > 0 ? load(teamId, today) : List.of();
+                if (stats.isEmpty()) {
+                    // 榜单已过期或团队已解散
+                    redisTemplate.opsForSet().remove(TEAMS_KEY, id);
+                    continue;
+                }
+                write(teamId, today, stats, ttlMillis);
+                rebuilt++;
+            } catch (Exception e) {
+                log.warn("团队排行榜对账失败: teamId={}", teamId, e);
+            }
+        }
+        log.info("团队排行榜对账完成, 重建 {} 个团队", rebuilt);
+    }
+
+    /**
+     * 一条分组查询汇总团队全部已批准成员的统计，没有记录的成员补 0
+     */
+    private List<HikingStats> load(Long teamId, LocalDate today) {
+        long[] members = teamMemberSetCache.getMembers(List.of(teamId)).getOrDefault(teamId, new long[0]);
+        List<Long> ownerIds = new ArrayList<>(members.length);
+        for (long member : members) {
+            ownerIds.add(member);
+        }
+        Map<Long, HikingStats> found = hikingRecordRepository.sumStatsByOwnerIds(ownerIds, today).stream()
+                .collect(Collectors.toMap(HikingStats::getOwnerId, Function.identity()));
+        List<HikingStats> result = new ArrayList<>(ownerIds.size());
+        for (Long ownerId : ownerIds) {
+            HikingStats stats = found.get(ownerId);
+            if (stats == null) {
+                stats = new HikingStats();
+                stats.setOwnerId(ownerId);
+            }
+            result.add(stats);
+        }
+        return result;
+    }
+
+    /**
+     * 每个榜单先写入临时键再 RENAME 覆盖，读取方不会看到写了一半的榜单；过期时间由调用方决定
+     */
+    private void write(Long teamId, LocalDate today, List<HikingStats> stats, long ttlMillis) {
+        if (stats.isEmpty()) {
+            return;
+        }
+        String tmpSuffix = ":tmp:" + UUID.randomUUID();
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (Board board : Board.values()) {
+                String key = key(teamId, board, today);
+                String tmpKey = key + tmpSuffix;
+                for (HikingStats s : stats) {
+                    conn.zAdd(tmpKey, score(s, board), s.getOwnerId().toString());
+                }
+                conn.pExpire(tmpKey, ttlMillis);
+                conn.rename(tmpKey, key);
+            }
+            conn.sAdd(TEAMS_KEY, teamId.toString());
+            return null;
+        });
+    }
+
+    private static void addIncrements(Map<String, Double> increments, Long teamId, LocalDate date,
+                                      double distance, int hikes) {
+        increments.merge(key(teamId, Board.DISTANCE, date), distance, Double::sum);
+        increments.merge(key(teamId, Board.HIKES, date), (double) hikes, Double::sum);
+        increments.merge(key(teamId, Board.MONTH, date), distance, Double::sum);
+        increments.merge(key(teamId, Board.YEAR, date), distance, Double::sum);
+    }
+
+    /**
+     * 月榜、年榜的键带上 date 所在的月份/年份，跨月后自然切换到新榜单，旧榜单等待过期
+     */
+    private static String key(Long teamId, Board board, LocalDate date) {
+        String prefix = KEY_PREFIX + teamId + ":";
+        return switch (board) {
+            case DISTANCE -> prefix + "distance";
+            case HIKES -> prefix + "hikes";
+            case MONTH -> prefix + "month:" + date.format(MONTH_FORMAT);
+            case YEAR -> prefix + "year:" + date.getYear();
+        };
+    }
+
+    private static double score(HikingStats stats, Board board) {
+        return switch (board) {
+            case DISTANCE -> value(stats.getTotalDistance());
+            case HIKES -> stats.getHikes() != null ? stats.getHikes() : 0;
+            case MONTH -> value(stats.getMonthDistance());
+            case YEAR -> value(stats.getYearDistance());
+        };
+    }
+
+    private static double value(Double distance) {
+        return distance != null ? distance : 0;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
@@ -0,0 +1,265 @@
+package com.hiking.application.team.service;
+
+import com.hiking.domain.team.entity.TeamMember;
+import com.hiking.domain.team.repository.TeamMemberRepository;
+import com.hiking.infrastructure.cache.LocalLruCache;
+import com.hiking.infrastructure.redis.RedisScripts;
+import com.hiking.infrastructure.transaction.AfterCommit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 团队已批准成员集合缓存
+ * <p>
+ * - Redis：每个团队一个 SET（team:members:{teamId}），加入/审批通过时只在集合已存在时 SADD，
+ *   退出/移除时 SREM，解散时 DEL，均在事务提交后执行；集合不存在时用一条 IN 查询回填所有缺失的团队；
+ * - 版本号：每个团队一个计数（team:members:ver:{teamId}），变更时先递增版本号再改集合；
+ *   回填在读库前记下版本号，写入时版本号已变化则放弃，读库期间提交的退出不会被旧数据重新加回；
+ * - 本机：团队ID -> 排序后的 long 数组，短 TTL 兜底其他实例的变更，本机变更时直接丢弃。
+ * 多个团队的成员并集在本机对 long 数组归并去重，一次调用完成，不再逐团队查库。
+ */
+@Slf4j
+@Component
+public class TeamMemberSetCache {
+
+    private static final String MEMBERS_KEY_PREFIX = "team:members:";
+    private static final String VERSION_KEY_PREFIX = "team:members:ver:";
+    private static final Duration TTL = Duration.ofHours(1);
+    private static final Duration VERSION_TTL = Duration.ofDays(1);
+
+    private static final int LOCAL_CAPACITY = 10000;
+    private static final long LOCAL_TTL_MILLIS = Duration.ofSeconds(30).toMillis();
+
+    private static final RedisScript<Long> SADD_IF_EXISTS_SCRIPT = RedisScripts.load("sadd_if_exists.lua", Long.class);
+    private static final RedisScript<Long> SADD_IF_VERSION_SCRIPT = RedisScripts.load("sadd_if_version.lua", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final TeamMemberRepository teamMemberRepository;
+    private final LocalLruCache<Long, long[]> localCache = new LocalLruCache<>(LOCAL_CAPACITY, 16, LOCAL_TTL_MILLIS);
+
+    public TeamMemberSetCache(StringRedisTemplate redisTemplate, TeamMemberRepository teamMemberRepository) {
+        this.redisTemplate = redisTemplate;
+        this.teamMemberRepository = teamMemberRepository;
+    }
+
+    /**
+     * 一批团队已批准成员的并集（升序、去重）
+     */
+    public long[] union(Collection<Long> teamIds) {
+        Map<Long, long[]> members = getMembers(teamIds);
+        int total = 0;
+        for (long[] ids : members.values()) {
+            total += ids.length;
+        }
+        long[] all = new long[total];
+        int n = 0;
+        for (long[] ids : members.values()) {
+            System.arraycopy(ids, 0, all, n, ids.length);
+            n += ids.length;
+        }
+        Arrays.sort(all);
+        int distinct = 0;
+        for (int i = 0; i < all.length; i++) {
+            if (i == 0 || all[i] != all[i - 1]) {
+                all[distinct++] = all[i];
+            }
+        }
+        return Arrays.copyOf(all, distinct);
+    }
+
+    /**
+     * 团队ID -> 已批准成员（升序）
+     */
+    public Map<Long, long[]> getMembers(Collection<Long> teamIds) {
+        Map<Long, long[]> result = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long teamId : teamIds) {
+            long[] cached = localCache.get(teamId);
+            if (cached != null) {
+                result.put(teamId, cached);
+            } else if (!result.containsKey(teamId)) {
+                missing.add(teamId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        List<Long> unloaded = new ArrayList<>();
+        try {
+            List<Object> replies = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                for (Long teamId : missing) {
+                    conn.sMembers(MEMBERS_KEY_PREFIX + teamId);
+                }
+                return null;
+            });
+            for (int i = 0; i < missing.size(); i++) {
+                Collection<?> members = replies.get(i) instanceof Collection<?> c ? c : List.of();
+                if (members.isEmpty()) {
+                    unloaded.add(missing.get(i));
+                } else {
+                    long[] ids = toSortedArray(members);
+                    result.put(missing.get(i), ids);
+                    localCache.put(missing.get(i), ids);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("读取团队成员集合失败，回退数据库: teamIds={}", missing, e);
+            unloaded = missing;
+        }
+        if (!unloaded.isEmpty()) {
+            result.putAll(load(unloaded));
+        }
+        return result;
+    }
+
+    /**
+     * 成员加入（邀请码加入、审批通过）
+     */
+    public void onJoined(Long teamId, Long userId) {
+        AfterCommit.run(() -> {
+            localCache.remove(teamId);
+            try {
+                bumpVersion(teamId);
+                redisTemplate.execute(SADD_IF_EXISTS_SCRIPT, List.of(MEMBERS_KEY_PREFIX + teamId), userId.toString());
+            } catch (Exception e) {
+                log.warn("团队成员集合写入失败，删除等待回填: teamId={}", teamId, e);
+                delete(teamId);
+            }
+        });
+    }
+
+    /**
+     * 成员离开（退出、被移除）
+     */
+    public void onLeft(Long teamId, Long userId) {
+        AfterCommit.run(() -> {
+            localCache.remove(teamId);
+            try {
+                bumpVersion(teamId);
+                redisTemplate.opsForSet().remove(MEMBERS_KEY_PREFIX + teamId, userId.toString());
+            } catch (Exception e) {
+                log.warn("团队成员集合移除失败，删除等待回填: teamId={}", teamId, e);
+                delete(teamId);
+            }
+        });
+    }
+
+    /**
+     * 团队解散
+     */
+    public void onDeleted(Long teamId) {
+        AfterCommit.run(() -> {
+            localCache.remove(teamId);
+            try {
+                bumpVersion(teamId);
+            } catch (Exception e) {
+                log.warn("团队成员集合版本号递增失败: teamId={}", teamId, e);
+            }
+            delete(teamId);
+        });
+    }
+
+    /**
+     * 一条 IN 查询取回所有缺失团队的成员，按读库前的版本号回填 Redis，版本号已变化的团队不放入本机缓存
+     */
+    private Map<Long, long[]> load(List<Long> teamIds) {
+        List<String> versions = readVersions(teamIds);
+        Map<Long, List<String>> members = new HashMap<>();
+        for (TeamMember member : teamMemberRepository.findApprovedByTeamIds(teamIds)) {
+            members.computeIfAbsent(member.getTeamId(), k -> new ArrayList<>()).add(member.getUserId().toString());
+        }
+        Map<Long, long[]> result = new HashMap<>();
+        String ttl = String.valueOf(TTL.getSeconds());
+        for (int i = 0; i < teamIds.size(); i++) {
+            Long teamId = teamIds.get(i);
+            List<String> ids = members.get(teamId);
+            if (ids == null) {
+                continue;
+            }
+            long[] sorted = toSortedArray(ids);
+            result.put(teamId, sorted);
+            if (versions == null) {
+                // Redis 不可用时只放入本机，由本机短 TTL 兜底，避免每次都查库
+                localCache.put(teamId, sorted);
+                continue;
+            }
+            try {
+                List<String> args = new ArrayList<>(ids.size() + 2);
+                args.add(versions.get(i));
+                args.add(ttl);
+                args.addAll(ids);
+                Long filled = redisTemplate.execute(SADD_IF_VERSION_SCRIPT,
+                        List.of(MEMBERS_KEY_PREFIX + teamId, VERSION_KEY_PREFIX + teamId), args.toArray());
+                if (filled != null && filled == 1) {
+                    localCache.put(teamId, sorted);
+                }
+            } catch (Exception e) {
+                log.warn("回填团队成员集合失败: teamId={}", teamId, e);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 读库前的版本号（不存在时为空串），Redis 不可用时返回 null，此时不回填
+     */
+    private List<String> readVersions(List<Long> teamIds) {
+        try {
+            List<String> values = redisTemplate.opsForValue().multiGet(
+                    teamIds.stream().map(id -> VERSION_KEY_PREFIX + id).toList());
+            if (values == null) {
+                return null;
+            }
+            return values.stream().map(v -> v != null ? v : "").toList();
+        } catch (Exception e) {
+            log.warn("读取团队成员集合版本号失败: teamIds={}", teamIds, e);
+            return null;
+        }
+    }
+
+    /**
+     * 成员变更时先于修改集合递增版本号，使进行中的回填放弃写入
+     */
+    private void bumpVersion(Long teamId) {
+        String key = VERSION_KEY_PREFIX + teamId;
+        long ttl = VERSION_TTL.getSeconds();
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            conn.incr(key);
+            conn.expire(key, ttl);
+            return null;
+        });
+    }
+
+    private void delete(Long teamId) {
+        try {
+            redisTemplate.delete(MEMBERS_KEY_PREFIX + teamId);
+        } catch (Exception e) {
+            log.warn("删除团队成员集合失败，等待过期: teamId={}", teamId, e);
+        }
+    }
+
+    private static long[] toSortedArray(Collection<?> members) {
+        long[] ids = new long[members.size()];
+        int n = 0;
+        for (Object member : members) {
+            ids[n++] = Long.parseLong(member.toString());
+        }
+        Arrays.sort(ids);
+        return ids;
+    }
+}
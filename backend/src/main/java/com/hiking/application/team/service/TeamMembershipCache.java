@@ -0,0 +1,202 @@
+package com.hiking.application.team.service;
+
+import com.hiking.domain.team.entity.TeamMember;
+import com.hiking.domain.team.repository.TeamMemberRepository;
+import com.hiking.domain.team.valueobject.MemberRole;
+import com.hiking.domain.team.valueobject.MemberStatus;
+import com.hiking.infrastructure.cache.LocalLruCache;
+import com.hiking.infrastructure.redis.RedisScripts;
+import com.hiking.infrastructure.transaction.AfterCommit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 团队成员身份缓存（团队ID, 用户ID）-> 角色/状态，供团队接口鉴权
+ * <p>
+ * - Redis：每个团队一个哈希 team:roles:{teamId}，字段为用户ID，值为 角色:状态，非成员记为 NONE（防止反复查库），
+ *   哈希新建时设置过期时间兜底，之后的回填不再续期；
+ * - 版本号：每个团队一个计数 team:roles:ver:{teamId}，失效时先递增版本号再删除字段；
+ *   回填在读库前记下版本号，版本号已变化则放弃写入，读库期间提交的移除不会被旧的 APPROVED 覆盖；
+ * - 本机：几秒的短 TTL，其他实例的变更最多延迟这么久可见。
+ * 成员关系每次变更（创建、加入、申请、审批、移除、退出）在事务提交后删除对应字段，解散时删除整个哈希。
+ * 团队创建者在 team_member 中的角色为 OWNER，所有者判断不再回表读取 team。
+ */
+@Slf4j
+@Component
+public class TeamMembershipCache {
+
+    private static final String ROLES_KEY_PREFIX = "team:roles:";
+    private static final String VERSION_KEY_PREFIX = "team:roles:ver:";
+    private static final String NONE = "NONE";
+    private static final Duration TTL = Duration.ofMinutes(10);
+    private static final Duration VERSION_TTL = Duration.ofDays(1);
+
+    private static final RedisScript<Long> HSET_IF_VERSION_SCRIPT = RedisScripts.load("hset_if_version.lua", Long.class);
+
+    private static final int LOCAL_CAPACITY = 50000;
+    private static final long LOCAL_TTL_MILLIS = Duration.ofSeconds(5).toMillis();
+
+    /**
+     * 成员身份
+     */
+    public record Membership(MemberRole role, MemberStatus status) {
+
+        public boolean isApproved() {
+            return status == MemberStatus.APPROVED;
+        }
+
+        public boolean isOwner() {
+            return role == MemberRole.OWNER;
+        }
+    }
+
+    private final StringRedisTemplate redisTemplate;
+    private final TeamMemberRepository teamMemberRepository;
+    private final LocalLruCache<String, String> localCache = new LocalLruCache<>(LOCAL_CAPACITY, 16, LOCAL_TTL_MILLIS);
+
+    public TeamMembershipCache(StringRedisTemplate redisTemplate, TeamMemberRepository teamMemberRepository) {
+        this.redisTemplate = redisTemplate;
+        this.teamMemberRepository = teamMemberRepository;
+    }
+
+    /**
+     * 用户在团队中的身份，不是成员（也没有申请记录）时为空
+     */
+    public Optional<Membership> get(Long teamId, Long userId) {
+        String localKey = teamId + ":" + userId;
+        String value = localCache.get(localKey);
+        if (value != null) {
+            return decode(value);
+        }
+        List<String> cached = getFromRedis(teamId, userId);
+        value = cached != null ? cached.get(0) : null;
+        boolean cacheable = true;
+        if (value == null) {
+            value = teamMemberRepository.findByTeamIdAndUserId(teamId, userId)
+                    .map(member -> member.getRole().name() + ":" + member.getStatus().name())
+                    .orElse(NONE);
+            // 读库期间成员关系已变更（版本号变化）时本次结果只用于当前请求，不进入任何缓存
+            cacheable = cached == null || putToRedis(teamId, userId, value, cached.get(1));
+        }
+        if (cacheable) {
+            localCache.put(localKey, value);
+        }
+        return decode(value);
+    }
+
+    /**
+     * 是否为已批准成员
+     */
+    public boolean isApprovedMember(Long teamId, Long userId) {
+        return get(teamId, userId).map(Membership::isApproved).orElse(false);
+    }
+
+    /**
+     * 是否为团队所有者
+     */
+    public boolean isOwner(Long teamId, Long userId) {
+        return get(teamId, userId).map(Membership::isOwner).orElse(false);
+    }
+
+    /**
+     * 成员关系变更后失效
+     */
+    public void evict(Long teamId, Long userId) {
+        localCache.remove(teamId + ":" + userId);
+        AfterCommit.run(() -> {
+            localCache.remove(teamId + ":" + userId);
+            try {
+                bumpVersion(teamId);
+                redisTemplate.opsForHash().delete(ROLES_KEY_PREFIX + teamId, userId.toString());
+            } catch (Exception e) {
+                log.warn("成员身份缓存失效失败，等待过期: teamId={}, userId={}", teamId, userId, e);
+            }
+        });
+    }
+
+    public void evict(TeamMember member) {
+        evict(member.getTeamId(), member.getUserId());
+    }
+
+    /**
+     * 团队解散后失效整个团队（本机条目由短 TTL 淘汰）
+     */
+    public void evictTeam(Long teamId) {
+        AfterCommit.run(() -> {
+            try {
+                bumpVersion(teamId);
+                redisTemplate.delete(ROLES_KEY_PREFIX + teamId);
+            } catch (Exception e) {
+                log.warn("成员身份缓存失效失败，等待过期: teamId={}", teamId, e);
+            }
+        });
+    }
+
+    /**
+     * 一次管道读取字段值与团队版本号（不存在时为空串），Redis 不可用时返回 null
+     */
+    private List<String> getFromRedis(Long teamId, Long userId) {
+        try {
+            List<Object> replies = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                conn.hGet(ROLES_KEY_PREFIX + teamId, userId.toString());
+                conn.get(VERSION_KEY_PREFIX + teamId);
+                return null;
+            });
+            return Arrays.asList(replies.get(0) != null ? replies.get(0).toString() : null,
+                    replies.get(1) != null ? replies.get(1).toString() : "");
+        } catch (Exception e) {
+            log.warn("读取成员身份缓存失败: teamId={}, userId={}", teamId, userId, e);
+            return null;
+        }
+    }
+
+    /**
+     * 按读库前的版本号回填
+     *
+     * @return 写入成功或字段已存在时返回 true；版本号已变化或写入失败时返回 false
+     */
+    private boolean putToRedis(Long teamId, Long userId, String value, String version) {
+        try {
+            Long filled = redisTemplate.execute(HSET_IF_VERSION_SCRIPT,
+                    List.of(ROLES_KEY_PREFIX + teamId, VERSION_KEY_PREFIX + teamId),
+                    version, userId.toString(), value, String.valueOf(TTL.getSeconds()));
+            return filled != null && filled == 1;
+        } catch (Exception e) {
+            log.warn("写入成员身份缓存失败: teamId={}, userId={}", teamId, userId, e);
+            return false;
+        }
+    }
+
+    /**
+     * 失效前递增版本号，使进行中的回填放弃写入
+     */
+    private void bumpVersion(Long teamId) {
+        String key = VERSION_KEY_PREFIX + teamId;
+        long ttl = VERSION_TTL.getSeconds();
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            conn.incr(key);
+            conn.expire(key, ttl);
+            return null;
+        });
+    }
+
+    private static Optional<Membership> decode(String value) {
+        if (NONE.equals(value)) {
+            return Optional.empty();
+        }
+        int sep = value.indexOf(':');
+        return Optional.of(new Membership(MemberRole.valueOf(value.substring(0, sep)),
+                MemberStatus.valueOf(value.substring(sep + 1))));
+    }
+}
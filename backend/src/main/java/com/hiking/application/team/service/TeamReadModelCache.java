@@ -0,0 +1,220 @@
+package com.hiking.application.team.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hiking.domain.team.repository.TeamRepository;
+import com.hiking.domain.team.valueobject.TeamSummary;
+import com.hiking.infrastructure.redis.RedisScripts;
+import com.hiking.infrastructure.transaction.AfterCommit;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 团队列表读模型缓存
+ * <p>
+ * 分两层缓存，失效时各自只删一个键：
+ * - team:user:{userId}：用户所在团队ID列表（逗号分隔，空串表示没有团队），成员关系变化时删除；
+ * - team:summary:{teamId}：团队摘要 JSON（团队、创建者昵称、成员数），团队信息或成员数变化时删除。
+ * 「我的团队」命中时一次 GET 加一次 MGET；用户键未命中时用一条关联查询同时回填两层；
+ * 摘要部分未命中时用一条 IN 查询补齐。无论团队多少，往返次数固定。
+ * 失效在事务提交后执行（见 {@link AfterCommit}），用户键失效时先递增版本号（team:user:ver:{userId}）再删除；
+ * 回填用户键时带上读库前的版本号，版本号已变化则放弃写入，读库期间提交的退出不会被旧列表覆盖。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TeamReadModelCache {
+
+    private static final String USER_TEAMS_KEY_PREFIX = "team:user:";
+    private static final String USER_VERSION_KEY_PREFIX = "team:user:ver:";
+    private static final String SUMMARY_KEY_PREFIX = "team:summary:";
+    private static final Duration TTL = Duration.ofMinutes(10);
+    private static final Duration VERSION_TTL = Duration.ofDays(1);
+
+    private static final RedisScript<Long> SET_IF_VERSION_SCRIPT = RedisScripts.load("set_if_version.lua", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final TeamRepository teamRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 用户所在的全部团队（已批准），按加入先后倒序
+     */
+    public List<TeamSummary> getUserTeams(Long userId) {
+        String[] cached = getCachedTeamIds(userId);
+        if (cached[0] == null) {
+            List<TeamSummary> summaries = teamRepository.findSummariesByMemberUserId(userId);
+            cacheUserTeams(userId, summaries, cached[1]);
+            return summaries;
+        }
+        return getSummaries(parseIds(cached[0]));
+    }
+
+    /**
+     * 用户所在的全部团队ID（已批准），按加入先后倒序
+     */
+    public List<Long> getUserTeamIds(Long userId) {
+        String[] cached = getCachedTeamIds(userId);
+        if (cached[0] == null) {
+            List<TeamSummary> summaries = teamRepository.findSummariesByMemberUserId(userId);
+            cacheUserTeams(userId, summaries, cached[1]);
+            return summaries.stream().map(TeamSummary::getId).collect(Collectors.toList());
+        }
+        return parseIds(cached[0]);
+    }
+
+    /**
+     * 按给定顺序取团队摘要，已不存在的团队被忽略
+     */
+    public List<TeamSummary> getSummaries(List<Long> teamIds) {
+        if (teamIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, TeamSummary> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        try {
+            List<String> values = redisTemplate.opsForValue().multiGet(
+                    teamIds.stream().map(id -> SUMMARY_KEY_PREFIX + id).collect(Collectors.toList()));
+            for (int i = 0; i < teamIds.size(); i++) {
+                String json = values != null ? values.get(i) : null;
+                if (json != null) {
+                    found.put(teamIds.get(i), objectMapper.readValue(json, TeamSummary.class));
+                } else {
+                    missing.add(teamIds.get(i));
+                }
+            }
+        } catch (Exception e) {
+            log.warn("读取团队摘要缓存失败: teamIds={}", teamIds, e);
+            found.clear();
+            missing = new ArrayList<>(teamIds);
+        }
+        if (!missing.isEmpty()) {
+            List<TeamSummary> loaded = teamRepository.findSummariesByIds(missing);
+            loaded.forEach(summary -> found.put(summary.getId(), summary));
+            cacheSummaries(loaded);
+        }
+        return teamIds.stream().map(found::get).filter(summary -> summary != null).collect(Collectors.toList());
+    }
+
+    /**
+     * 用户的成员关系变化（加入、退出、被移除、审批通过、团队解散）
+     */
+    public void evictUsers(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        List<Long> snapshot = List.copyOf(userIds);
+        AfterCommit.run(() -> {
+            try {
+                long ttl = VERSION_TTL.getSeconds();
+                redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                    StringRedisConnection conn = (StringRedisConnection) connection;
+                    for (Long userId : snapshot) {
+                        conn.incr(USER_VERSION_KEY_PREFIX + userId);
+                        conn.expire(USER_VERSION_KEY_PREFIX + userId, ttl);
+                    }
+                    return null;
+                });
+            } catch (Exception e) {
+                log.warn("用户团队缓存版本号递增失败: userIds={}", snapshot, e);
+            }
+            delete(snapshot.stream().map(id -> USER_TEAMS_KEY_PREFIX + id).collect(Collectors.toList()));
+        });
+    }
+
+    public void evictUser(Long userId) {
+        evictUsers(List.of(userId));
+    }
+
+    /**
+     * 团队信息或成员数变化
+     */
+    public void evictTeam(Long teamId) {
+        evictAfterCommit(List.of(SUMMARY_KEY_PREFIX + teamId));
+    }
+
+    /**
+     * 一次 MGET 读取用户团队ID列表与版本号：返回 {列表（未命中为 null）, 版本号（Redis 不可用时为 null，不回填）}
+     */
+    private String[] getCachedTeamIds(Long userId) {
+        try {
+            List<String> values = redisTemplate.opsForValue().multiGet(
+                    List.of(USER_TEAMS_KEY_PREFIX + userId, USER_VERSION_KEY_PREFIX + userId));
+            if (values == null) {
+                return new String[]{null, null};
+            }
+            return new String[]{values.get(0), values.get(1) != null ? values.get(1) : "0"};
+        } catch (Exception e) {
+            log.warn("读取用户团队缓存失败: userId={}", userId, e);
+            return new String[]{null, null};
+        }
+    }
+
+    private static List<Long> parseIds(String ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return Arrays.stream(ids.split(",")).map(Long::valueOf).collect(Collectors.toList());
+    }
+
+    private void cacheUserTeams(Long userId, List<TeamSummary> summaries, String version) {
+        if (version != null) {
+            String ids = summaries.stream().map(summary -> summary.getId().toString()).collect(Collectors.joining(","));
+            try {
+                redisTemplate.execute(SET_IF_VERSION_SCRIPT,
+                        List.of(USER_TEAMS_KEY_PREFIX + userId, USER_VERSION_KEY_PREFIX + userId),
+                        version, ids, String.valueOf(TTL.getSeconds()));
+            } catch (Exception e) {
+                log.warn("写入用户团队缓存失败: userId={}", userId, e);
+            }
+        }
+        cacheSummaries(summaries);
+    }
+
+    private void cacheSummaries(List<TeamSummary> summaries) {
+        if (summaries.isEmpty()) {
+            return;
+        }
+        try {
+            Map<String, String> values = new HashMap<>();
+            for (TeamSummary summary : summaries) {
+                values.put(SUMMARY_KEY_PREFIX + summary.getId(), objectMapper.writeValueAsString(summary));
+            }
+            long ttl = TTL.getSeconds();
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                values.forEach((key, json) -> conn.setEx(key, ttl, json));
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("写入团队摘要缓存失败", e);
+        }
+    }
+
+    private void evictAfterCommit(List<String> keys) {
+        if (!keys.isEmpty()) {
+            AfterCommit.run(() -> delete(keys));
+        }
+    }
+
+    private void delete(List<String> keys) {
+        try {
+            redisTemplate.delete(keys);
+        } catch (Exception e) {
+            log.warn("团队缓存失效失败，等待过期: keys={}", keys, e);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.hiking.application.user.service;
+
+import com.hiking.domain.user.entity.User;
+import com.hiking.domain.user.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 用户批量加载器
+ * <p>
+ * 列表页先收集去重后的用户ID，再通过一次 selectBatchIds 取回，
+ * 避免在 toDTO 中逐条 findById 造成 1 + N 次查询。
+ */
+@Component
+@RequiredArgsConstructor
+public class UserBatchLoader {
+
+    private final UserRepository userRepository;
+
+    /**
+     * 批量加载用户，返回 用户ID -> 用户 映射（忽略 null ID）
+     */
+    public Map<Long, User> loadByIds(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<Long> distinctIds = ids.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        if (distinctIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return userRepository.findByIds(distinctIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity(), (a, b) -> a));
+    }
+
+    /**
+     * 从对象列表中提取用户ID后批量加载
+     */
+    public <T> Map<Long, User> load(Collection<T> items, Function<? super T, Long> idExtractor) {
+        if (items == null || items.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return loadByIds(items.stream().map(idExtractor).collect(Collectors.toList()));
+    }
+}
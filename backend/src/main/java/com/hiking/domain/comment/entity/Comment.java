@@ -12,6 +12,7 @@ public class Comment {
     private Long replyToUserId;
     private String content;
     private Integer likeCount;
+    private Integer replyCount;
     private Integer status;
     private LocalDateTime createTime;
     private LocalDateTime updateTime;
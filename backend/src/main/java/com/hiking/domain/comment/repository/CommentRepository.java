@@ -2,12 +2,37 @@ package com.hiking.domain.comment.repository;
 
 import com.hiking.domain.comment.entity.Comment;
 import java.util.List;
+import java.util.Map;
 
 public interface CommentRepository {
     Comment findById(Long id);
     List<Comment> findByPostId(Long postId, int page, int size);
-    List<Comment> findReplies(Long parentId);
+    List<Comment> findByIds(List<Long> ids);
+    
+    /**
+     * 帖子下全部正常状态的一级评论，只填充 id 与 likeCount
+     */
+    List<Comment> findTopLevelLikeCounts(Long postId);
+    
+    /**
+     * 一批父评论各自最早的 limitPerParent 条回复（按父评论ID、回复ID升序）
+     */
+    List<Comment> findTopReplies(List<Long> parentIds, int limitPerParent);
+    
+    /**
+     * 父评论下ID大于 afterId 的回复，按ID升序
+     */
+    List<Comment> findRepliesAfter(Long parentId, long afterId, int limit);
+    
     Long save(Comment comment);
-    void delete(Long id);
-    void updateLikeCount(Long id, int delta);
+    
+    /**
+     * 软删除正常状态的评论
+     *
+     * @return 本次由正常变为删除时返回 true；评论不存在或已删除时返回 false
+     */
+    boolean delete(Long id);
+    
+    void addReplyCount(Long id, int delta);
+    void setLikeCounts(Map<Long, Long> counts);
 }
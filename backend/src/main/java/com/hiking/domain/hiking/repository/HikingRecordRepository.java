@@ -1,6 +1,7 @@
 package com.hiking.domain.hiking.repository;
 
 import com.hiking.domain.hiking.entity.HikingRecord;
+import com.hiking.domain.hiking.valueobject.HikingStats;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -68,4 +69,9 @@ public interface HikingRecordRepository {
      * 根据团队ID查找记录
      */
     List<HikingRecord> findByTeamId(Long teamId);
+
+    /**
+     * 按所有者汇总徒步统计，月份/年份取 date 所在的月与年（用于团队排行榜）
+     */
+    List<HikingStats> sumStatsByOwnerIds(List<Long> ownerIds, LocalDate date);
 }
@@ -0,0 +1,32 @@
+package com.hiking.domain.hiking.valueobject;
+
+import lombok.Data;
+
+/**
+ * 按所有者汇总的徒步统计：总距离、次数，以及指定月份/年份内的距离，由一条分组查询取出
+ */
+@Data
+public class HikingStats {
+
+    private Long ownerId;
+
+    /**
+     * 总距离（公里）
+     */
+    private Double totalDistance;
+
+    /**
+     * 徒步次数
+     */
+    private Long hikes;
+
+    /**
+     * 当月距离（公里）
+     */
+    private Double monthDistance;
+
+    /**
+     * 当年距离（公里）
+     */
+    private Double yearDistance;
+}
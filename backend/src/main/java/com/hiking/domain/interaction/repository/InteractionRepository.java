@@ -43,4 +43,24 @@ public interface InteractionRepository {
     List<Long> getFansUserIds(Long userId, int page, int size);
     
     List<Long> getFollowedUserIds(Long userId, List<Long> userIds);
+    
+    // 批量写回（已存在的记录插入时忽略）
+    void batchAddLikes(List<UserLike> likes);
+    
+    void batchRemoveLikes(List<UserLike> likes);
+    
+    void batchAddCollections(List<UserCollection> collections);
+    
+    void batchRemoveCollections(List<UserCollection> collections);
+    
+    void batchAddFollows(List<UserFollow> follows);
+    
+    void batchRemoveFollows(List<UserFollow> follows);
+    
+    // 按主键顺序分批扫描（重建 Redis 使用）
+    List<UserLike> scanLikes(long afterId, int limit);
+    
+    List<UserCollection> scanCollections(long afterId, int limit);
+    
+    List<UserFollow> scanFollows(long afterId, int limit);
 }
@@ -2,7 +2,10 @@ package com.hiking.domain.post.entity;
 
 import lombok.Data;
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
 /**
  * 帖子实体
@@ -37,4 +40,21 @@ public class Post {
     public static final int STATUS_DELETED = 0;
     public static final int STATUS_NORMAL = 1;
     public static final int STATUS_PENDING = 2;
+    
+    public static final int MAX_TOPIC_LENGTH = 100;
+    
+    /**
+     * 参与话题索引的话题：去除首尾空白和重复项，忽略空话题和超长话题
+     */
+    public List<String> indexedTopics() {
+        if (topics == null || topics.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return topics.stream()
+            .filter(Objects::nonNull)
+            .map(String::trim)
+            .filter(topic -> !topic.isEmpty() && topic.length() <= MAX_TOPIC_LENGTH)
+            .distinct()
+            .collect(Collectors.toList());
+    }
 }
@@ -1,7 +1,10 @@
 package com.hiking.domain.post.repository;
 
 import com.hiking.domain.post.entity.Post;
+import com.hiking.domain.post.valueobject.PostCursor;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 帖子仓储接口
@@ -10,27 +13,75 @@ public interface PostRepository {
     
     Post findById(Long id);
     
-    List<Post> findByUserId(Long userId, int page, int size);
+    /**
+     * 批量查询，结果按传入ID顺序排列，跳过不存在的帖子
+     */
+    List<Post> findByIds(List<Long> ids);
     
-    List<Post> findByTopic(String topic, int page, int size);
+    /**
+     * 列表查询均为游标分页：cursor 为空表示第一页，按 (排序键, id) 倒序取 limit 条
+     */
+    List<Post> findByUserId(Long userId, PostCursor cursor, int limit);
     
-    List<Post> findHotPosts(int page, int size);
+    /**
+     * 话题页：读取 post_topic 关联表，按帖子ID倒序（与发布时间同序），游标只使用其中的 id
+     */
+    List<Post> findByTopic(String topic, PostCursor cursor, int limit);
     
-    List<Post> findLatestPosts(int page, int size);
+    List<Post> findHotPosts(PostCursor cursor, int limit);
     
-    List<Post> search(String keyword, int page, int size);
+    List<Post> findLatestPosts(PostCursor cursor, int limit);
     
+    List<Post> search(String keyword, int offset, int limit);
+    
+    /**
+     * 按ID顺序扫描 update_time 不早于 since 的帖子（含已删除），用于构建搜索等派生索引；since 为空表示全表
+     */
+    List<Post> scanUpdatedSince(LocalDateTime since, long afterId, int limit);
+    
+    /**
+     * 补写帖子的话题关联（幂等，已存在的关联忽略），用于存量数据回填
+     */
+    void saveTopics(List<Post> posts);
+    
+    /**
+     * 保存帖子，同时写入话题关联
+     */
     Long save(Post post);
     
     void update(Post post);
     
+    /**
+     * 逻辑删除帖子，同时移除话题关联
+     */
     void delete(Long id);
     
-    void incrementViewCount(Long id);
+    /**
+     * 批量累加浏览量（帖子ID -> 增量），合并为一条 UPDATE
+     */
+    void addViewCounts(Map<Long, Long> deltas);
+    
+    /**
+     * 批量累加评论数（帖子ID -> 增量），合并为一条 UPDATE
+     */
+    void addCommentCounts(Map<Long, Long> deltas);
+    
+    /**
+     * 记录一个计数折叠批次已写回，需与该批次的累加在同一事务内调用
+     *
+     * @return 批次此前未写回时返回 true；已写回过返回 false，调用方应跳过累加
+     */
+    boolean markCounterFolded(String foldId);
     
-    void updateLikeCount(Long id, int delta);
+    /**
+     * 清理早于指定时间的计数折叠日志
+     */
+    void purgeCounterFoldLog(LocalDateTime before);
     
-    void updateCollectCount(Long id, int delta);
+    /**
+     * 批量写入点赞数/收藏数的绝对值（帖子ID -> 计数），重复写入结果不变
+     */
+    void setLikeCounts(Map<Long, Long> counts);
     
-    void updateCommentCount(Long id, int delta);
+    void setCollectCounts(Map<Long, Long> counts);
 }
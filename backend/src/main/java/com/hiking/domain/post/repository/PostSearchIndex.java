@@ -0,0 +1,31 @@
+package com.hiking.domain.post.repository;
+
+import com.hiking.domain.post.entity.Post;
+
+import java.util.List;
+
+/**
+ * 帖子全文检索索引接口
+ */
+public interface PostSearchIndex {
+
+    /**
+     * 索引是否已构建完成（未完成时调用方应回退到数据库查询）
+     */
+    boolean isReady();
+
+    /**
+     * 新增或覆盖索引文档
+     */
+    void index(Post post);
+
+    /**
+     * 移除索引文档
+     */
+    void remove(Long postId);
+
+    /**
+     * 关键词检索，按相关度倒序返回帖子ID
+     */
+    List<Long> search(String keyword, int offset, int limit);
+}
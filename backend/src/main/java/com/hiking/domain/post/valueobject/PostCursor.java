@@ -0,0 +1,85 @@
+package com.hiking.domain.post.valueobject;
+
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+
+/**
+ * 帖子列表游标（值对象）
+ * <p>
+ * 由排序键和帖子ID组成，对客户端是不透明的字符串：
+ * - 最新列表：排序键为 create_time 的毫秒时间戳
+ * - 热门列表：排序键为 like_count；由 Redis 热度榜提供时为榜单排名偏移（id 固定为 0）
+ */
+@Getter
+public class PostCursor {
+
+    private final long sortValue;
+
+    private final long id;
+
+    private PostCursor(long sortValue, long id) {
+        this.sortValue = sortValue;
+        this.id = id;
+    }
+
+    public static PostCursor of(long sortValue, long id) {
+        return new PostCursor(sortValue, id);
+    }
+
+    /**
+     * 以创建时间为排序键的游标
+     */
+    public static PostCursor ofTime(LocalDateTime createTime, long id) {
+        return new PostCursor(createTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(), id);
+    }
+
+    /**
+     * 以榜单排名偏移为排序键的游标
+     */
+    public static PostCursor ofRank(long offset) {
+        return new PostCursor(offset, 0);
+    }
+
+    /**
+     * 是否为榜单排名游标
+     */
+    public boolean isRank() {
+        return id == 0;
+    }
+
+    /**
+     * 排序键还原为创建时间
+     */
+    public LocalDateTime getTime() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(sortValue), ZoneId.systemDefault());
+    }
+
+    /**
+     * 编码为不透明字符串
+     */
+    public String encode() {
+        String raw = sortValue + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游标，空串表示第一页
+     */
+    public static PostCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.indexOf(':');
+            return new PostCursor(Long.parseLong(raw.substring(0, sep)), Long.parseLong(raw.substring(sep + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("无效的分页游标");
+        }
+    }
+}
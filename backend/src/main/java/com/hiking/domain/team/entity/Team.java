@@ -43,6 +43,12 @@ public class Team {
     @TableField("owner_id")
     private Long ownerId;
 
+    /**
+     * 已批准成员数（只通过 {@code TeamRepository#addMemberCount} 原子增减，整行更新时不写回）
+     */
+    @TableField(value = "member_count", updateStrategy = FieldStrategy.NEVER)
+    private Integer memberCount;
+
     /**
      * 创建时间
      */
@@ -63,6 +69,8 @@ public class Team {
         team.name = name;
         team.description = description;
         team.ownerId = ownerId;
+        // 创建者即第一位成员
+        team.memberCount = 1;
         team.inviteCode = generateInviteCode();
         team.createTime = LocalDateTime.now();
         team.updateTime = LocalDateTime.now();
@@ -2,6 +2,7 @@ package com.hiking.domain.team.repository;
 
 import com.hiking.domain.team.entity.TeamMember;
 import com.hiking.domain.team.valueobject.MemberStatus;
+import com.hiking.domain.team.valueobject.TeamMemberCursor;
 
 import java.util.List;
 import java.util.Optional;
@@ -32,4 +33,19 @@ public interface TeamMemberRepository {
     boolean existsByTeamIdAndUserId(Long teamId, Long userId);
 
     long countApprovedByTeamId(Long teamId);
+
+    /**
+     * 一批团队的已批准成员，只填充 teamId 与 userId
+     */
+    List<TeamMember> findApprovedByTeamIds(List<Long> teamIds);
+
+    /**
+     * 已批准成员游标分页，按 角色、加入时间、ID 升序
+     */
+    List<TeamMember> findApprovedPage(Long teamId, TeamMemberCursor cursor, int limit);
+
+    /**
+     * 团队内按昵称前缀查找已批准成员
+     */
+    List<TeamMember> findApprovedByNicknamePrefix(Long teamId, String prefix, int limit);
 }
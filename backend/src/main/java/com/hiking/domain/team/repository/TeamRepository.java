@@ -1,6 +1,7 @@
 package com.hiking.domain.team.repository;
 
 import com.hiking.domain.team.entity.Team;
+import com.hiking.domain.team.valueobject.TeamSummary;
 
 import java.util.List;
 import java.util.Optional;
@@ -21,4 +22,16 @@ public interface TeamRepository {
     void deleteById(Long id);
 
     boolean existsById(Long id);
+
+    /**
+     * 用户所在团队的列表读模型（一条关联查询）
+     */
+    List<TeamSummary> findSummariesByMemberUserId(Long userId);
+
+    List<TeamSummary> findSummariesByIds(List<Long> ids);
+
+    /**
+     * 原子增减已批准成员数，需与成员写入处于同一事务
+     */
+    void addMemberCount(Long teamId, int delta);
 }
@@ -17,5 +17,12 @@ public enum MemberRole {
     /**
      * 普通成员
      */
-    MEMBER
+    MEMBER;
+
+    /**
+     * 成员列表中的排序值，与 team_member.role_rank 生成列一致
+     */
+    public int rank() {
+        return ordinal();
+    }
 }
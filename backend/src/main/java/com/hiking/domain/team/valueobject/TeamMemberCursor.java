@@ -0,0 +1,64 @@
+package com.hiking.domain.team.valueobject;
+
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+
+/**
+ * 团队成员列表游标（值对象）
+ * <p>
+ * 成员按 角色排序值、加入时间、成员ID 升序排列，游标为上一页最后一位成员的这三个值，对客户端是不透明的字符串。
+ */
+@Getter
+public class TeamMemberCursor {
+
+    private final int roleRank;
+
+    private final long joinTime;
+
+    private final long id;
+
+    private TeamMemberCursor(int roleRank, long joinTime, long id) {
+        this.roleRank = roleRank;
+        this.joinTime = joinTime;
+        this.id = id;
+    }
+
+    public static TeamMemberCursor of(MemberRole role, LocalDateTime joinTime, long id) {
+        return new TeamMemberCursor(role.rank(), joinTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(), id);
+    }
+
+    /**
+     * 排序键还原为加入时间
+     */
+    public LocalDateTime getJoinDateTime() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(joinTime), ZoneId.systemDefault());
+    }
+
+    /**
+     * 编码为不透明字符串
+     */
+    public String encode() {
+        String raw = roleRank + ":" + joinTime + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游标，空串表示第一页
+     */
+    public static TeamMemberCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+            return new TeamMemberCursor(Integer.parseInt(parts[0]), Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("无效的分页游标");
+        }
+    }
+}
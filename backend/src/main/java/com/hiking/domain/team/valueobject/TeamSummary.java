@@ -0,0 +1,34 @@
+package com.hiking.domain.team.valueobject;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 团队列表读模型：团队、创建者昵称与已批准成员数，由一条关联查询取出
+ */
+@Data
+public class TeamSummary {
+
+    private Long id;
+
+    private String name;
+
+    private String description;
+
+    private String inviteCode;
+
+    private Long ownerId;
+
+    /**
+     * 创建者昵称
+     */
+    private String ownerName;
+
+    /**
+     * 已批准成员数
+     */
+    private Integer memberCount;
+
+    private LocalDateTime createTime;
+}
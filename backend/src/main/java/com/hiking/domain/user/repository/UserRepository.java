@@ -3,6 +3,7 @@ package com.hiking.domain.user.repository;
 import com.hiking.domain.user.entity.User;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -30,5 +31,12 @@ public interface UserRepository {
     
     void decrementFollowingCount(Long userId);
     
+    /**
+     * 批量写入粉丝数/关注数的绝对值（用户ID -> 计数）
+     */
+    void setFansCounts(Map<Long, Long> counts);
+    
+    void setFollowingCounts(Map<Long, Long> counts);
+    
     List<User> findByIds(List<Long> ids);
 }
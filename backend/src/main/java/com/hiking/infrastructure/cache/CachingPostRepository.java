@@ -0,0 +1,525 @@
+package com.hiking.infrastructure.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hiking.domain.post.entity.Post;
+import com.hiking.domain.post.repository.PostRepository;
+import com.hiking.domain.post.valueobject.PostCursor;
+import com.hiking.infrastructure.persistence.post.PostRepositoryImpl;
+import com.hiking.infrastructure.redis.RedisScripts;
+import com.hiking.infrastructure.transaction.AfterCommit;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Repository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * 带两级缓存的帖子仓储（装饰 {@link PostRepositoryImpl}）
+ * <p>
+ * - L1：进程内分段 LRU，按条目数淘汰，短 TTL 兜底
+ * - L2：Redis JSON，值中携带写入时的版本号，与版本键不一致即视为失效
+ * - 修改帖子在事务提交后 INCR 版本键、删除 L2 并通过 pub/sub 广播，各节点丢弃版本更旧的 L1 条目；
+ *   提交前失效会让并发读把未提交前的旧行按新版本回填
+ * - 回源防击穿：同一节点同一帖子只有一个线程回源，跨节点通过 SETNX 锁只放一个节点查库，
+ *   其余节点短暂等待 L2 回填；回填脚本校验读库期间版本未变，避免旧数据覆盖失效
+ * <p>
+ * 帖子不存在时缓存空值防穿透，空值只存活几秒；新建帖子提交后同样失效，清掉提交前并发读写入的空值。
+ * <p>
+ * 缓存中的 Post 对象在各线程间共享，调用方只读不改。浏览量按批写回不触发失效，
+ * 由 L1/L2 的 TTL 收敛；点赞、收藏、评论数变化会触发失效。
+ */
+@Slf4j
+@Primary
+@Repository
+public class CachingPostRepository implements PostRepository, MessageListener {
+
+    private static final String CACHE_KEY_PREFIX = "post:cache:";
+    private static final String VERSION_KEY_PREFIX = "post:cache:ver:";
+    private static final String LOCK_KEY_PREFIX = "post:cache:lock:";
+    private static final String INVALIDATE_CHANNEL = "post:cache:invalidate";
+
+    /**
+     * 版本键存活时间，须远大于 L2 过期时间，保证版本键过期重置时旧版本的 L2 条目早已过期
+     */
+    private static final Duration VERSION_TTL = Duration.ofDays(1);
+    private static final long LOAD_WAIT_STEP_MILLIS = 50;
+
+    private static final RedisScript<Long> SET_IF_CURRENT_SCRIPT = RedisScripts.load("set_if_version.lua", Long.class);
+    private static final RedisScript<Long> UNLOCK_SCRIPT = RedisScripts.load("compare_and_delete.lua", Long.class);
+
+    private final PostRepositoryImpl delegate;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ObjectMapper objectMapper;
+    private final PostCacheProperties properties;
+    private final LocalLruCache<Long, CachedPost> localCache;
+    private final ConcurrentHashMap<Long, CompletableFuture<Post>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder localHits = new LongAdder();
+    private final LongAdder redisHits = new LongAdder();
+    private final LongAdder dbLoads = new LongAdder();
+    private final LongAdder coalescedLoads = new LongAdder();
+    private final LongAdder lockWaits = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * 缓存条目：post 为空表示帖子不存在（空值缓存，防穿透）
+     */
+    record CachedPost(long version, Post post) {
+    }
+
+    public CachingPostRepository(PostRepositoryImpl delegate,
+                                 StringRedisTemplate redisTemplate,
+                                 RedisMessageListenerContainer listenerContainer,
+                                 ObjectMapper objectMapper,
+                                 PostCacheProperties properties) {
+        this.delegate = delegate;
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.localCache = new LocalLruCache<>(properties.getLocalCapacity(), 16,
+                properties.getLocalTtlSeconds() * 1000);
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATE_CHANNEL));
+    }
+
+    @Override
+    public Post findById(Long id) {
+        if (!properties.isEnabled() || id == null) {
+            return delegate.findById(id);
+        }
+        CachedPost cached = localCache.get(id);
+        if (cached != null) {
+            localHits.increment();
+            return cached.post();
+        }
+        CompletableFuture<Post> mine = new CompletableFuture<>();
+        CompletableFuture<Post> existing = inFlight.putIfAbsent(id, mine);
+        if (existing != null) {
+            coalescedLoads.increment();
+            return join(existing);
+        }
+        try {
+            Post post = loadThroughRedis(id);
+            mine.complete(post);
+            return post;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(id, mine);
+        }
+    }
+
+    @Override
+    public List<Post> findByIds(List<Long> ids) {
+        if (!properties.isEnabled() || ids == null || ids.isEmpty()) {
+            return delegate.findByIds(ids);
+        }
+        Map<Long, Post> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            CachedPost cached = localCache.get(id);
+            if (cached != null) {
+                localHits.increment();
+                if (cached.post() != null) {
+                    found.put(id, cached.post());
+                }
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            loadBatch(missing, found);
+        }
+        return ids.stream().map(found::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    /**
+     * 缓存统计
+     */
+    public Map<String, Object> stats() {
+        long local = localHits.sum();
+        long redis = redisHits.sum();
+        long db = dbLoads.sum();
+        long total = local + redis + db;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("localHits", local);
+        stats.put("redisHits", redis);
+        stats.put("dbLoads", db);
+        stats.put("coalescedLoads", coalescedLoads.sum());
+        stats.put("lockWaits", lockWaits.sum());
+        stats.put("invalidations", invalidations.sum());
+        stats.put("localSize", localCache.size());
+        stats.put("hitRate", total == 0 ? 0 : (double) (local + redis) / total);
+        return stats;
+    }
+
+    /**
+     * 收到失效广播：丢弃本地版本更旧的条目（消息格式 "帖子ID:版本"）
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int sep = body.indexOf(':');
+        try {
+            Long id = Long.valueOf(body.substring(0, sep));
+            long version = Long.parseLong(body.substring(sep + 1));
+            localCache.removeIf(id, cached -> cached.version() < version);
+        } catch (RuntimeException e) {
+            log.warn("无法解析帖子缓存失效消息: {}", body);
+        }
+    }
+
+    // ---------- 读路径 ----------
+
+    private Post loadThroughRedis(Long id) {
+        CachedPost cached = readRedis(id);
+        if (cached != null) {
+            redisHits.increment();
+            putLocal(id, cached);
+            return cached.post();
+        }
+        String lockKey = LOCK_KEY_PREFIX + id;
+        String token = UUID.randomUUID().toString();
+        Boolean acquired = tryLock(lockKey, token);
+        boolean locked = Boolean.TRUE.equals(acquired);
+        if (Boolean.FALSE.equals(acquired)) {
+            lockWaits.increment();
+            cached = awaitRedis(id);
+            if (cached != null) {
+                redisHits.increment();
+                putLocal(id, cached);
+                return cached.post();
+            }
+        }
+        try {
+            long version = currentVersion(id);
+            Post post = delegate.findById(id);
+            dbLoads.increment();
+            CachedPost loaded = new CachedPost(version, post);
+            writeRedis(id, loaded);
+            putLocal(id, loaded);
+            return post;
+        } finally {
+            if (locked) {
+                unlock(lockKey, token);
+            }
+        }
+    }
+
+    /**
+     * 批量读取：L1 未命中的一次 MGET 读 L2 和版本，仍未命中的一次批量查库
+     */
+    private void loadBatch(List<Long> ids, Map<Long, Post> found) {
+        List<String> keys = new ArrayList<>(ids.size() * 2);
+        for (Long id : ids) {
+            keys.add(CACHE_KEY_PREFIX + id);
+            keys.add(VERSION_KEY_PREFIX + id);
+        }
+        List<String> values = multiGet(keys);
+        List<Long> dbIds = new ArrayList<>();
+        Map<Long, Long> versions = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            long version = parseVersion(values != null ? values.get(i * 2 + 1) : null);
+            CachedPost cached = values != null ? decode(values.get(i * 2), version) : null;
+            if (cached != null) {
+                redisHits.increment();
+                putLocal(id, cached);
+                if (cached.post() != null) {
+                    found.put(id, cached.post());
+                }
+            } else {
+                dbIds.add(id);
+                versions.put(id, version);
+            }
+        }
+        if (dbIds.isEmpty()) {
+            return;
+        }
+        Map<Long, Post> loaded = delegate.findByIds(dbIds).stream()
+                .collect(Collectors.toMap(Post::getId, post -> post));
+        dbLoads.add(dbIds.size());
+        for (Long id : dbIds) {
+            CachedPost entry = new CachedPost(versions.get(id), loaded.get(id));
+            writeRedis(id, entry);
+            putLocal(id, entry);
+            if (entry.post() != null) {
+                found.put(id, entry.post());
+            }
+        }
+    }
+
+    /**
+     * 写入 L1：空值条目按 null-ttl-seconds 短暂缓存
+     */
+    private void putLocal(Long id, CachedPost cached) {
+        if (cached.post() != null) {
+            localCache.put(id, cached);
+        } else {
+            localCache.put(id, cached, properties.getNullTtlSeconds() * 1000);
+        }
+    }
+
+    private CachedPost readRedis(Long id) {
+        List<String> values = multiGet(List.of(CACHE_KEY_PREFIX + id, VERSION_KEY_PREFIX + id));
+        if (values == null) {
+            return null;
+        }
+        return decode(values.get(0), parseVersion(values.get(1)));
+    }
+
+    /**
+     * Redis 读失败按未命中处理，回源数据库
+     */
+    private List<String> multiGet(List<String> keys) {
+        try {
+            return redisTemplate.opsForValue().multiGet(keys);
+        } catch (Exception e) {
+            log.warn("读取帖子缓存失败，回源数据库", e);
+            return null;
+        }
+    }
+
+    /**
+     * 抢回源锁：返回 true 抢到、false 已被占用、null 表示 Redis 不可用（直接查库，不等待）
+     */
+    private Boolean tryLock(String lockKey, String token) {
+        try {
+            return redisTemplate.opsForValue()
+                    .setIfAbsent(lockKey, token, Duration.ofMillis(properties.getLoadLockMillis()));
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private void unlock(String lockKey, String token) {
+        try {
+            redisTemplate.execute(UNLOCK_SCRIPT, List.of(lockKey), token);
+        } catch (Exception e) {
+            log.warn("释放帖子缓存回源锁失败: {}", lockKey, e);
+        }
+    }
+
+    /**
+     * 等待持锁节点回填 L2
+     */
+    private CachedPost awaitRedis(Long id) {
+        long deadline = System.currentTimeMillis() + properties.getLoadWaitMillis();
+        while (System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(LOAD_WAIT_STEP_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            CachedPost cached = readRedis(id);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        return null;
+    }
+
+    private void writeRedis(Long id, CachedPost cached) {
+        try {
+            redisTemplate.execute(SET_IF_CURRENT_SCRIPT,
+                    List.of(CACHE_KEY_PREFIX + id, VERSION_KEY_PREFIX + id),
+                    String.valueOf(cached.version()),
+                    objectMapper.writeValueAsString(cached),
+                    String.valueOf(cached.post() != null ? properties.getRedisTtlSeconds() : properties.getNullTtlSeconds()));
+        } catch (Exception e) {
+            log.warn("写入帖子缓存失败: postId={}", id, e);
+        }
+    }
+
+    /**
+     * 解析 L2 值，版本与当前版本不一致视为失效
+     */
+    private CachedPost decode(String json, long currentVersion) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            CachedPost cached = objectMapper.readValue(json, CachedPost.class);
+            return cached.version() == currentVersion ? cached : null;
+        } catch (Exception e) {
+            log.warn("帖子缓存反序列化失败，按未命中处理", e);
+            return null;
+        }
+    }
+
+    private long currentVersion(Long id) {
+        try {
+            return parseVersion(redisTemplate.opsForValue().get(VERSION_KEY_PREFIX + id));
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
+    private static long parseVersion(String value) {
+        return value != null ? Long.parseLong(value) : 0;
+    }
+
+    private static Post join(CompletableFuture<Post> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // ---------- 写路径 ----------
+
+    /**
+     * 事务提交后失效一批帖子
+     */
+    private void invalidateAfterCommit(Collection<Long> ids) {
+        if (!properties.isEnabled() || ids.isEmpty()) {
+            return;
+        }
+        List<Long> snapshot = List.copyOf(ids);
+        AfterCommit.run(() -> snapshot.forEach(this::invalidate));
+    }
+
+    /**
+     * 失效：版本号 +1、删除 L2、删除本地 L1 并广播到其他节点
+     * <p>
+     * 缓存失效失败不影响写库，旧数据最迟在 TTL 后过期
+     */
+    private void invalidate(Long id) {
+        localCache.remove(id);
+        try {
+            String versionKey = VERSION_KEY_PREFIX + id;
+            Long version = redisTemplate.opsForValue().increment(versionKey);
+            redisTemplate.expire(versionKey, VERSION_TTL);
+            redisTemplate.delete(CACHE_KEY_PREFIX + id);
+            redisTemplate.convertAndSend(INVALIDATE_CHANNEL, id + ":" + version);
+            invalidations.increment();
+        } catch (Exception e) {
+            log.warn("帖子缓存失效失败: postId={}", id, e);
+        }
+    }
+
+    @Override
+    public void update(Post post) {
+        delegate.update(post);
+        invalidateAfterCommit(List.of(post.getId()));
+    }
+
+    /**
+     * 新帖子提交前并发读到的空值条目在提交后失效
+     */
+    @Override
+    public Long save(Post post) {
+        Long id = delegate.save(post);
+        invalidateAfterCommit(List.of(id));
+        return id;
+    }
+
+    @Override
+    public void delete(Long id) {
+        delegate.delete(id);
+        invalidateAfterCommit(List.of(id));
+    }
+
+    @Override
+    public void addCommentCounts(Map<Long, Long> deltas) {
+        delegate.addCommentCounts(deltas);
+        invalidateAfterCommit(deltas.keySet());
+    }
+
+    @Override
+    public boolean markCounterFolded(String foldId) {
+        return delegate.markCounterFolded(foldId);
+    }
+
+    @Override
+    public void purgeCounterFoldLog(LocalDateTime before) {
+        delegate.purgeCounterFoldLog(before);
+    }
+
+    @Override
+    public void setLikeCounts(Map<Long, Long> counts) {
+        delegate.setLikeCounts(counts);
+        invalidateAfterCommit(counts.keySet());
+    }
+
+    @Override
+    public void setCollectCounts(Map<Long, Long> counts) {
+        delegate.setCollectCounts(counts);
+        invalidateAfterCommit(counts.keySet());
+    }
+
+    // ---------- 直接委托 ----------
+
+    @Override
+    public List<Post> findByUserId(Long userId, PostCursor cursor, int limit) {
+        return delegate.findByUserId(userId, cursor, limit);
+    }
+
+    @Override
+    public List<Post> findByTopic(String topic, PostCursor cursor, int limit) {
+        return delegate.findByTopic(topic, cursor, limit);
+    }
+
+    @Override
+    public List<Post> findHotPosts(PostCursor cursor, int limit) {
+        return delegate.findHotPosts(cursor, limit);
+    }
+
+    @Override
+    public List<Post> findLatestPosts(PostCursor cursor, int limit) {
+        return delegate.findLatestPosts(cursor, limit);
+    }
+
+    @Override
+    public List<Post> search(String keyword, int offset, int limit) {
+        return delegate.search(keyword, offset, limit);
+    }
+
+    @Override
+    public List<Post> scanUpdatedSince(LocalDateTime since, long afterId, int limit) {
+        return delegate.scanUpdatedSince(since, afterId, limit);
+    }
+
+    @Override
+    public void saveTopics(List<Post> posts) {
+        delegate.saveTopics(posts);
+    }
+
+    @Override
+    public void addViewCounts(Map<Long, Long> deltas) {
+        delegate.addViewCounts(deltas);
+    }
+}
@@ -0,0 +1,111 @@
+package com.hiking.infrastructure.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * 进程内分段 LRU 缓存
+ * <p>
+ * 按 key 哈希分成若干段，每段是一个按访问顺序排列的 LinkedHashMap，超出段容量时淘汰最久未访问的条目；
+ * 分段加锁降低并发读写的锁竞争。条目带过期时间，默认按构造时的存活时间，也可逐条指定更短的存活时间。
+ */
+public class LocalLruCache<K, V> {
+
+    private final Segment<K, V>[] segments;
+    private final long ttlMillis;
+
+    @SuppressWarnings("unchecked")
+    public LocalLruCache(int capacity, int concurrency, long ttlMillis) {
+        int segmentCount = Integer.highestOneBit(Math.max(1, concurrency));
+        int segmentCapacity = Math.max(1, capacity / segmentCount);
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment<>(segmentCapacity);
+        }
+        this.ttlMillis = ttlMillis;
+    }
+
+    public V get(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            Entry<V> entry = segment.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (System.currentTimeMillis() > entry.expireAt) {
+                segment.remove(key);
+                return null;
+            }
+            return entry.value;
+        }
+    }
+
+    public void put(K key, V value) {
+        put(key, value, ttlMillis);
+    }
+
+    /**
+     * 按指定存活时间写入（如空值条目只缓存几秒）
+     */
+    public void put(K key, V value, long ttlMillis) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            segment.put(key, new Entry<>(value, System.currentTimeMillis() + ttlMillis));
+        }
+    }
+
+    public void remove(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            segment.remove(key);
+        }
+    }
+
+    /**
+     * 条件移除：当前值满足条件时才移除（用于按版本失效）
+     */
+    public void removeIf(K key, Predicate<V> condition) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            Entry<V> entry = segment.get(key);
+            if (entry != null && condition.test(entry.value)) {
+                segment.remove(key);
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    private Segment<K, V> segmentFor(K key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return segments[h & (segments.length - 1)];
+    }
+
+    private record Entry<V>(V value, long expireAt) {
+    }
+
+    private static final class Segment<K, V> extends LinkedHashMap<K, Entry<V>> {
+
+        private final int capacity;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+            return size() > capacity;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.hiking.infrastructure.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 帖子缓存配置属性
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "post.cache")
+public class PostCacheProperties {
+
+    /**
+     * 是否启用帖子缓存
+     */
+    private boolean enabled = true;
+
+    /**
+     * 本地缓存最大条目数
+     */
+    private int localCapacity = 10000;
+
+    /**
+     * 本地缓存存活时间（秒），兜底失效广播丢失的情况
+     */
+    private long localTtlSeconds = 60;
+
+    /**
+     * Redis 缓存过期时间（秒）
+     */
+    private long redisTtlSeconds = 600;
+
+    /**
+     * 帖子不存在时空值条目的存活时间（秒，L1 与 L2 相同），
+     * 取短值使并发读在新帖子提交前写入的空值很快过期
+     */
+    private long nullTtlSeconds = 5;
+
+    /**
+     * 回源锁超时时间（毫秒）
+     */
+    private long loadLockMillis = 3000;
+
+    /**
+     * 未抢到回源锁时等待其他节点回填的最长时间（毫秒），超时后直接查库
+     */
+    private long loadWaitMillis = 500;
+}
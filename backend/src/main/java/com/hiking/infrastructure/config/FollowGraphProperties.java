@@ -0,0 +1,34 @@
+package com.hiking.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 关注图查询配置属性
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "interaction.follow-graph")
+public class FollowGraphProperties {
+
+    /**
+     * 互关列表、推荐列表缓存的过期时间（秒），过期后下次读取时整体重算
+     */
+    private long cacheTtlSeconds = 3600;
+
+    /**
+     * 计算推荐时从关注列表中抽样的种子用户数
+     */
+    private int suggestionSeeds = 200;
+
+    /**
+     * 每个种子用户抽样的关注数，新关注时增量并入的候选数同此
+     */
+    private int suggestionSampleSize = 500;
+
+    /**
+     * 推荐缓存保留的候选数
+     */
+    private int suggestionCapacity = 100;
+}
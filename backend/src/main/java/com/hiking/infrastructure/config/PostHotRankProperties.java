@@ -0,0 +1,54 @@
+package com.hiking.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 帖子热度榜配置属性
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "post.hot-rank")
+public class PostHotRankProperties {
+
+    /**
+     * 热度半衰期（小时）
+     */
+    private double halfLifeHours = 24;
+
+    /**
+     * 发帖初始权重
+     */
+    private double publishWeight = 5;
+
+    /**
+     * 点赞权重
+     */
+    private double likeWeight = 3;
+
+    /**
+     * 收藏权重
+     */
+    private double collectWeight = 5;
+
+    /**
+     * 评论权重
+     */
+    private double commentWeight = 4;
+
+    /**
+     * 浏览权重
+     */
+    private double viewWeight = 0.2;
+
+    /**
+     * 衰减后低于该分数的帖子在压缩时移出榜单
+     */
+    private double minScore = 0.5;
+
+    /**
+     * 榜单最大容量
+     */
+    private int capacity = 5000;
+}
@@ -0,0 +1,53 @@
+package com.hiking.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 写接口限流配置属性
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * 剩余令牌充足时每次从 Redis 额外预取到本机的令牌数，0 表示每次请求都访问 Redis
+     */
+    private int leaseSize = 4;
+
+    /**
+     * 本机预取令牌的有效期（毫秒），过期未用完的令牌作废
+     */
+    private long leaseTtlMs = 1000;
+
+    /**
+     * 本机最多保留的预取令牌条目数
+     */
+    private int localCapacity = 100000;
+
+    /**
+     * 各类接口的令牌桶参数，键为 {@code @RateLimit} 上的接口类别
+     */
+    private Map<String, Route> routes = new HashMap<>();
+
+    @Data
+    public static class Route {
+
+        /**
+         * 桶容量，即允许的突发请求数
+         */
+        private int capacity = 20;
+
+        /**
+         * 每秒补充的令牌数，即持续请求速率
+         */
+        private double refillPerSecond = 5;
+    }
+}
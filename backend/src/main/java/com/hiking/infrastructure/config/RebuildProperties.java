@@ -0,0 +1,29 @@
+package com.hiking.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 互动集合重建配置属性
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "interaction.rebuild")
+public class RebuildProperties {
+
+    /**
+     * 启动时检测到 Redis 数据缺失是否自动重建
+     */
+    private boolean enabled = true;
+
+    /**
+     * 每次从数据库扫描的行数
+     */
+    private int batchSize = 5000;
+
+    /**
+     * 写入 Redis 的速率上限（行/秒），避免重建挤占线上请求
+     */
+    private int rowsPerSecond = 50000;
+}
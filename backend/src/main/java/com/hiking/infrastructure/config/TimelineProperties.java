@@ -0,0 +1,34 @@
+package com.hiking.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 关注时间线配置属性
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "post.timeline")
+public class TimelineProperties {
+
+    /**
+     * 粉丝数达到该值的作者不再推送到粉丝收件箱，改为读取时拉取
+     */
+    private int pushFanThreshold = 5000;
+
+    /**
+     * 每个用户收件箱保留的帖子数
+     */
+    private int inboxCapacity = 800;
+
+    /**
+     * 每个作者发件箱保留的帖子数
+     */
+    private int outboxCapacity = 500;
+
+    /**
+     * 新关注时回填到收件箱的作者近期帖子数
+     */
+    private int followBackfill = 50;
+}
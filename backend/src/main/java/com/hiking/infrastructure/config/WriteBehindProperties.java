@@ -0,0 +1,39 @@
+package com.hiking.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 互动写回配置属性
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "interaction.write-behind")
+public class WriteBehindProperties {
+
+    /**
+     * 写回流水的近似长度上限（XADD MAXLEN ~），消费者长时间停摆超过该积压量时最早的事件会被裁掉
+     */
+    private long streamMaxLen = 1_000_000;
+
+    /**
+     * 每次 XREADGROUP 读取的事件数，也是一次落库的批大小
+     */
+    private int batchSize = 500;
+
+    /**
+     * 单次调度最多处理的批数，避免积压时长时间占用调度线程
+     */
+    private int maxBatchesPerPoll = 20;
+
+    /**
+     * 其他消费者的未确认事件空闲超过该时长后被接管（秒）
+     */
+    private long claimIdleSeconds = 60;
+
+    /**
+     * 单条事件最多投递次数，超过后移入死信流并确认，避免一条坏事件阻塞整个待确认列表
+     */
+    private int maxDeliveries = 5;
+}
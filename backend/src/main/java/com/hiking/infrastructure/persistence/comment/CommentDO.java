@@ -15,6 +15,7 @@ public class CommentDO {
     private Long replyToUserId;
     private String content;
     private Integer likeCount;
+    private Integer replyCount;
     private Integer status;
     @TableField(fill = FieldFill.INSERT)
     private LocalDateTime createTime;
@@ -3,8 +3,31 @@ package com.hiking.infrastructure.persistence.comment;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import org.apache.ibatis.annotations.*;
 
+import java.util.List;
+import java.util.Map;
+
 @Mapper
 public interface CommentMapper extends BaseMapper<CommentDO> {
-    @Update("UPDATE comment SET like_count = like_count + #{delta} WHERE id = #{id}")
-    void updateLikeCount(@Param("id") Long id, @Param("delta") int delta);
+    @Update("<script>UPDATE comment SET like_count = CASE id " +
+            "<foreach collection='counts' index='id' item='count'>WHEN #{id} THEN #{count} </foreach>" +
+            "END WHERE id IN <foreach collection='counts' index='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int setLikeCounts(@Param("counts") Map<Long, Long> counts);
+    
+    @Update("UPDATE comment SET status = #{deleted}, update_time = NOW() WHERE id = #{id} AND status = #{normal}")
+    int softDelete(@Param("id") Long id, @Param("normal") int normal, @Param("deleted") int deleted);
+    
+    @Update("UPDATE comment SET reply_count = GREATEST(reply_count + #{delta}, 0) WHERE id = #{id}")
+    int addReplyCount(@Param("id") Long id, @Param("delta") int delta);
+    
+    /**
+     * 一页评论的回复预览：按父评论分区取最早的若干条，一次查询覆盖整页
+     */
+    @Select("<script>SELECT id, post_id, user_id, parent_id, reply_to_user_id, content, like_count, reply_count, " +
+            "status, create_time, update_time FROM (" +
+            "SELECT c.*, ROW_NUMBER() OVER (PARTITION BY parent_id ORDER BY id) AS rn FROM comment c " +
+            "WHERE parent_id IN <foreach collection='parentIds' item='id' open='(' separator=',' close=')'>#{id}</foreach> " +
+            "AND status = #{status}) t WHERE rn &lt;= #{limit} ORDER BY parent_id, id</script>")
+    List<CommentDO> selectTopReplies(@Param("parentIds") List<Long> parentIds, @Param("status") int status,
+                                     @Param("limit") int limit);
 }
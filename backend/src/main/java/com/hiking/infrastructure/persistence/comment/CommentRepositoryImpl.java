@@ -9,6 +9,7 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Repository
@@ -35,14 +36,44 @@ public class CommentRepositoryImpl implements CommentRepository {
     }
     
     @Override
-    public List<Comment> findReplies(Long parentId) {
+    public List<Comment> findByIds(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) return List.of();
+        return commentMapper.selectBatchIds(ids).stream().map(this::toEntity).collect(Collectors.toList());
+    }
+    
+    @Override
+    public List<Comment> findTopLevelLikeCounts(Long postId) {
+        return commentMapper.selectList(new LambdaQueryWrapper<CommentDO>()
+            .select(CommentDO::getId, CommentDO::getLikeCount)
+            .eq(CommentDO::getPostId, postId)
+            .eq(CommentDO::getParentId, 0L)
+            .eq(CommentDO::getStatus, Comment.STATUS_NORMAL))
+            .stream().map(this::toEntity).collect(Collectors.toList());
+    }
+    
+    @Override
+    public List<Comment> findTopReplies(List<Long> parentIds, int limitPerParent) {
+        if (parentIds == null || parentIds.isEmpty()) return List.of();
+        return commentMapper.selectTopReplies(parentIds, Comment.STATUS_NORMAL, limitPerParent)
+            .stream().map(this::toEntity).collect(Collectors.toList());
+    }
+    
+    @Override
+    public List<Comment> findRepliesAfter(Long parentId, long afterId, int limit) {
         return commentMapper.selectList(new LambdaQueryWrapper<CommentDO>()
             .eq(CommentDO::getParentId, parentId)
             .eq(CommentDO::getStatus, Comment.STATUS_NORMAL)
-            .orderByAsc(CommentDO::getCreateTime))
+            .gt(CommentDO::getId, afterId)
+            .orderByAsc(CommentDO::getId)
+            .last("LIMIT " + limit))
             .stream().map(this::toEntity).collect(Collectors.toList());
     }
     
+    @Override
+    public void addReplyCount(Long id, int delta) {
+        commentMapper.addReplyCount(id, delta);
+    }
+    
     @Override
     public Long save(Comment comment) {
         CommentDO commentDO = new CommentDO();
@@ -52,6 +83,7 @@ public class CommentRepositoryImpl implements CommentRepository {
         commentDO.setReplyToUserId(comment.getReplyToUserId());
         commentDO.setContent(comment.getContent());
         commentDO.setLikeCount(0);
+        commentDO.setReplyCount(0);
         commentDO.setStatus(Comment.STATUS_NORMAL);
         commentDO.setCreateTime(LocalDateTime.now());
         commentDO.setUpdateTime(LocalDateTime.now());
@@ -60,17 +92,14 @@ public class CommentRepositoryImpl implements CommentRepository {
     }
     
     @Override
-    public void delete(Long id) {
-        CommentDO commentDO = new CommentDO();
-        commentDO.setId(id);
-        commentDO.setStatus(Comment.STATUS_DELETED);
-        commentDO.setUpdateTime(LocalDateTime.now());
-        commentMapper.updateById(commentDO);
+    public boolean delete(Long id) {
+        return commentMapper.softDelete(id, Comment.STATUS_NORMAL, Comment.STATUS_DELETED) > 0;
     }
     
     @Override
-    public void updateLikeCount(Long id, int delta) {
-        commentMapper.updateLikeCount(id, delta);
+    public void setLikeCounts(Map<Long, Long> counts) {
+        if (counts == null || counts.isEmpty()) return;
+        commentMapper.setLikeCounts(counts);
     }
     
     private Comment toEntity(CommentDO commentDO) {
@@ -82,6 +111,7 @@ public class CommentRepositoryImpl implements CommentRepository {
         comment.setReplyToUserId(commentDO.getReplyToUserId());
         comment.setContent(commentDO.getContent());
         comment.setLikeCount(commentDO.getLikeCount());
+        comment.setReplyCount(commentDO.getReplyCount());
         comment.setStatus(commentDO.getStatus());
         comment.setCreateTime(commentDO.getCreateTime());
         comment.setUpdateTime(commentDO.getUpdateTime());
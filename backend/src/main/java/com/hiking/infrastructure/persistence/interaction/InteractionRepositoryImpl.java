@@ -2,6 +2,9 @@ package com.hiking.infrastructure.persistence.interaction;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.hiking.domain.interaction.entity.UserCollection;
+import com.hiking.domain.interaction.entity.UserFollow;
+import com.hiking.domain.interaction.entity.UserLike;
 import com.hiking.domain.interaction.repository.InteractionRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
@@ -148,4 +151,116 @@ public class InteractionRepositoryImpl implements InteractionRepository {
             .in(UserFollowDO::getFollowUserId, userIds))
             .stream().map(UserFollowDO::getFollowUserId).collect(Collectors.toList());
     }
+    
+    // ===== 批量写回 =====
+    @Override
+    public void batchAddLikes(List<UserLike> likes) {
+        if (likes == null || likes.isEmpty()) return;
+        likeMapper.insertIgnoreBatch(likes.stream().map(this::toLikeDO).collect(Collectors.toList()));
+    }
+    
+    @Override
+    public void batchRemoveLikes(List<UserLike> likes) {
+        if (likes == null || likes.isEmpty()) return;
+        likeMapper.deleteBatch(likes.stream().map(this::toLikeDO).collect(Collectors.toList()));
+    }
+    
+    @Override
+    public void batchAddCollections(List<UserCollection> collections) {
+        if (collections == null || collections.isEmpty()) return;
+        collectionMapper.insertIgnoreBatch(collections.stream().map(this::toCollectionDO).collect(Collectors.toList()));
+    }
+    
+    @Override
+    public void batchRemoveCollections(List<UserCollection> collections) {
+        if (collections == null || collections.isEmpty()) return;
+        collectionMapper.deleteBatch(collections.stream().map(this::toCollectionDO).collect(Collectors.toList()));
+    }
+    
+    @Override
+    public void batchAddFollows(List<UserFollow> follows) {
+        if (follows == null || follows.isEmpty()) return;
+        followMapper.insertIgnoreBatch(follows.stream().map(this::toFollowDO).collect(Collectors.toList()));
+    }
+    
+    @Override
+    public void batchRemoveFollows(List<UserFollow> follows) {
+        if (follows == null || follows.isEmpty()) return;
+        followMapper.deleteBatch(follows.stream().map(this::toFollowDO).collect(Collectors.toList()));
+    }
+    
+    // ===== 分批扫描 =====
+    @Override
+    public List<UserLike> scanLikes(long afterId, int limit) {
+        return likeMapper.selectList(new LambdaQueryWrapper<UserLikeDO>()
+            .gt(UserLikeDO::getId, afterId)
+            .orderByAsc(UserLikeDO::getId)
+            .last("LIMIT " + limit))
+            .stream().map(d -> {
+                UserLike like = new UserLike();
+                like.setId(d.getId());
+                like.setUserId(d.getUserId());
+                like.setTargetId(d.getTargetId());
+                like.setTargetType(d.getTargetType());
+                like.setCreateTime(d.getCreateTime());
+                return like;
+            }).collect(Collectors.toList());
+    }
+    
+    @Override
+    public List<UserCollection> scanCollections(long afterId, int limit) {
+        return collectionMapper.selectList(new LambdaQueryWrapper<UserCollectionDO>()
+            .gt(UserCollectionDO::getId, afterId)
+            .orderByAsc(UserCollectionDO::getId)
+            .last("LIMIT " + limit))
+            .stream().map(d -> {
+                UserCollection collection = new UserCollection();
+                collection.setId(d.getId());
+                collection.setUserId(d.getUserId());
+                collection.setPostId(d.getPostId());
+                collection.setCreateTime(d.getCreateTime());
+                return collection;
+            }).collect(Collectors.toList());
+    }
+    
+    @Override
+    public List<UserFollow> scanFollows(long afterId, int limit) {
+        return followMapper.selectList(new LambdaQueryWrapper<UserFollowDO>()
+            .gt(UserFollowDO::getId, afterId)
+            .orderByAsc(UserFollowDO::getId)
+            .last("LIMIT " + limit))
+            .stream().map(d -> {
+                UserFollow follow = new UserFollow();
+                follow.setId(d.getId());
+                follow.setUserId(d.getUserId());
+                follow.setFollowUserId(d.getFollowUserId());
+                follow.setCreateTime(d.getCreateTime());
+                return follow;
+            }).collect(Collectors.toList());
+    }
+    
+    private UserLikeDO toLikeDO(UserLike like) {
+        UserLikeDO likeDO = new UserLikeDO();
+        likeDO.setUserId(like.getUserId());
+        likeDO.setTargetId(like.getTargetId());
+        likeDO.setTargetType(like.getTargetType());
+        likeDO.setCreateTime(like.getCreateTime() != null ? like.getCreateTime() : LocalDateTime.now());
+        return likeDO;
+    }
+    
+    private UserCollectionDO toCollectionDO(UserCollection collection) {
+        UserCollectionDO collectionDO = new UserCollectionDO();
+        collectionDO.setUserId(collection.getUserId());
+        collectionDO.setPostId(collection.getPostId());
+        collectionDO.setCreateTime(collection.getCreateTime() != null ? collection.getCreateTime() : LocalDateTime.now());
+        return collectionDO;
+    }
+    
+    private UserFollowDO toFollowDO(UserFollow follow) {
+        UserFollowDO followDO = new UserFollowDO();
+        followDO.setUserId(follow.getUserId());
+        followDO.setFollowUserId(follow.getFollowUserId());
+        followDO.setCreateTime(follow.getCreateTime() != null ? follow.getCreateTime() : LocalDateTime.now());
+        return followDO;
+    }
 }
@@ -1,8 +1,23 @@
 package com.hiking.infrastructure.persistence.interaction;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
 
 @Mapper
 public interface UserCollectionMapper extends BaseMapper<UserCollectionDO> {
+    
+    @Insert("<script>INSERT IGNORE INTO user_collection (user_id, post_id, create_time) VALUES " +
+            "<foreach collection='rows' item='r' separator=','>(#{r.userId}, #{r.postId}, #{r.createTime})</foreach>" +
+            "</script>")
+    int insertIgnoreBatch(@Param("rows") List<UserCollectionDO> rows);
+    
+    @Delete("<script>DELETE FROM user_collection WHERE (user_id, post_id) IN " +
+            "<foreach collection='rows' item='r' open='(' separator=',' close=')'>(#{r.userId}, #{r.postId})</foreach>" +
+            "</script>")
+    int deleteBatch(@Param("rows") List<UserCollectionDO> rows);
 }
@@ -1,8 +1,23 @@
 package com.hiking.infrastructure.persistence.interaction;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
 
 @Mapper
 public interface UserFollowMapper extends BaseMapper<UserFollowDO> {
+    
+    @Insert("<script>INSERT IGNORE INTO user_follow (user_id, follow_user_id, create_time) VALUES " +
+            "<foreach collection='rows' item='r' separator=','>(#{r.userId}, #{r.followUserId}, #{r.createTime})</foreach>" +
+            "</script>")
+    int insertIgnoreBatch(@Param("rows") List<UserFollowDO> rows);
+    
+    @Delete("<script>DELETE FROM user_follow WHERE (user_id, follow_user_id) IN " +
+            "<foreach collection='rows' item='r' open='(' separator=',' close=')'>(#{r.userId}, #{r.followUserId})</foreach>" +
+            "</script>")
+    int deleteBatch(@Param("rows") List<UserFollowDO> rows);
 }
@@ -1,8 +1,23 @@
 package com.hiking.infrastructure.persistence.interaction;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
 
 @Mapper
 public interface UserLikeMapper extends BaseMapper<UserLikeDO> {
+    
+    @Insert("<script>INSERT IGNORE INTO user_like (user_id, target_id, target_type, create_time) VALUES " +
+            "<foreach collection='rows' item='r' separator=','>(#{r.userId}, #{r.targetId}, #{r.targetType}, #{r.createTime})</foreach>" +
+            "</script>")
+    int insertIgnoreBatch(@Param("rows") List<UserLikeDO> rows);
+    
+    @Delete("<script>DELETE FROM user_like WHERE (user_id, target_id, target_type) IN " +
+            "<foreach collection='rows' item='r' open='(' separator=',' close=')'>(#{r.userId}, #{r.targetId}, #{r.targetType})</foreach>" +
+            "</script>")
+    int deleteBatch(@Param("rows") List<UserLikeDO> rows);
 }
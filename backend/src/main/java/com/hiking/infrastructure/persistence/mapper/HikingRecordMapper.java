@@ -2,6 +2,7 @@ package com.hiking.infrastructure.persistence.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.hiking.domain.hiking.entity.HikingRecord;
+import com.hiking.domain.hiking.valueobject.HikingStats;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.ResultMap;
@@ -69,4 +70,19 @@ public interface HikingRecordMapper extends BaseMapper<HikingRecord> {
     @Select("SELECT * FROM hiking_record WHERE team_id = #{teamId} ORDER BY create_time DESC")
     @ResultMap("mybatis-plus_HikingRecord")
     List<HikingRecord> selectByTeamId(@Param("teamId") Long teamId);
+
+    /**
+     * 按所有者汇总总距离、次数与指定月份/年份内的距离（用于团队排行榜），走 idx_owner_id
+     */
+    @Select("<script>SELECT owner_id, COALESCE(SUM(distance), 0) AS total_distance, COUNT(*) AS hikes, " +
+            "COALESCE(SUM(CASE WHEN hiking_date &gt;= #{monthStart} AND hiking_date &lt; #{monthEnd} THEN distance END), 0) AS month_distance, " +
+            "COALESCE(SUM(CASE WHEN hiking_date &gt;= #{yearStart} AND hiking_date &lt; #{yearEnd} THEN distance END), 0) AS year_distance " +
+            "FROM hiking_record WHERE owner_id IN " +
+            "<foreach collection='ownerIds' item='id' open='(' separator=',' close=')'>#{id}</foreach> " +
+            "GROUP BY owner_id</script>")
+    List<HikingStats> selectStatsByOwnerIds(@Param("ownerIds") List<Long> ownerIds,
+                                            @Param("monthStart") LocalDate monthStart,
+                                            @Param("monthEnd") LocalDate monthEnd,
+                                            @Param("yearStart") LocalDate yearStart,
+                                            @Param("yearEnd") LocalDate yearEnd);
 }
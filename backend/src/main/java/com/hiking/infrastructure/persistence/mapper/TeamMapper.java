@@ -2,9 +2,11 @@ package com.hiking.infrastructure.persistence.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.hiking.domain.team.entity.Team;
+import com.hiking.domain.team.valueobject.TeamSummary;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
 
 import java.util.List;
 
@@ -19,4 +21,21 @@ public interface TeamMapper extends BaseMapper<Team> {
 
     @Select("SELECT * FROM team WHERE owner_id = #{ownerId} ORDER BY create_time DESC")
     List<Team> selectByOwnerId(@Param("ownerId") Long ownerId);
+
+    /**
+     * 用户所在的全部团队（已批准），连同创建者昵称与成员数一次查出，按加入先后倒序
+     */
+    @Select("SELECT t.id, t.name, t.description, t.invite_code, t.owner_id, u.nickname AS owner_name, " +
+            "t.member_count, t.create_time FROM team_member m JOIN team t ON t.id = m.team_id " +
+            "LEFT JOIN `user` u ON u.id = t.owner_id " +
+            "WHERE m.user_id = #{userId} AND m.status = 'APPROVED' ORDER BY m.create_time DESC")
+    List<TeamSummary> selectSummariesByMemberUserId(@Param("userId") Long userId);
+
+    @Select("<script>SELECT t.id, t.name, t.description, t.invite_code, t.owner_id, u.nickname AS owner_name, " +
+            "t.member_count, t.create_time FROM team t LEFT JOIN `user` u ON u.id = t.owner_id " +
+            "WHERE t.id IN <foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach></script>")
+    List<TeamSummary> selectSummariesByIds(@Param("ids") List<Long> ids);
+
+    @Update("UPDATE team SET member_count = GREATEST(member_count + #{delta}, 0) WHERE id = #{id}")
+    int addMemberCount(@Param("id") Long id, @Param("delta") int delta);
 }
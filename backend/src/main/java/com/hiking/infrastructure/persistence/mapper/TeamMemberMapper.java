@@ -7,6 +7,7 @@ import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -38,4 +39,31 @@ public interface TeamMemberMapper extends BaseMapper<TeamMember> {
 
     @Select("SELECT COUNT(*) FROM team_member WHERE team_id = #{teamId} AND status = 'APPROVED'")
     long countApprovedByTeamId(@Param("teamId") Long teamId);
+
+    /**
+     * 一批团队的已批准成员（只取 team_id、user_id）
+     */
+    @Select("<script>SELECT team_id, user_id FROM team_member WHERE status = 'APPROVED' AND team_id IN " +
+            "<foreach collection='teamIds' item='id' open='(' separator=',' close=')'>#{id}</foreach></script>")
+    List<TeamMember> selectApprovedByTeamIds(@Param("teamIds") List<Long> teamIds);
+
+    /**
+     * 已批准成员按 角色、加入时间、ID 升序的一页（键集分页，走 idx_team_status_rank_join_id）
+     */
+    @Select("<script>SELECT * FROM team_member WHERE team_id = #{teamId} AND status = 'APPROVED'" +
+            "<if test='id != null'> AND (role_rank &gt; #{roleRank} OR (role_rank = #{roleRank} AND " +
+            "(join_time &gt; #{joinTime} OR (join_time = #{joinTime} AND id &gt; #{id}))))</if>" +
+            " ORDER BY role_rank, join_time, id LIMIT #{limit}</script>")
+    List<TeamMember> selectApprovedPage(@Param("teamId") Long teamId, @Param("roleRank") Integer roleRank,
+                                        @Param("joinTime") LocalDateTime joinTime, @Param("id") Long id,
+                                        @Param("limit") int limit);
+
+    /**
+     * 团队内按昵称前缀查找已批准成员，由团队成员索引驱动，逐行按主键关联用户
+     */
+    @Select("SELECT m.* FROM team_member m JOIN `user` u ON u.id = m.user_id " +
+            "WHERE m.team_id = #{teamId} AND m.status = 'APPROVED' AND u.nickname LIKE CONCAT(#{prefix}, '%') " +
+            "ORDER BY m.role_rank, m.join_time, m.id LIMIT #{limit}")
+    List<TeamMember> selectApprovedByNicknamePrefix(@Param("teamId") Long teamId, @Param("prefix") String prefix,
+                                                    @Param("limit") int limit);
 }
@@ -7,6 +7,8 @@ import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 import org.apache.ibatis.annotations.Update;
 
+import java.util.Map;
+
 /**
  * 用户 Mapper
  */
@@ -36,4 +38,16 @@ public interface UserMapper extends BaseMapper<User> {
     
     @Update("UPDATE user SET following_count = GREATEST(COALESCE(following_count, 0) - 1, 0) WHERE id = #{userId}")
     void decrementFollowingCount(@Param("userId") Long userId);
+    
+    @Update("<script>UPDATE user SET fans_count = CASE id " +
+            "<foreach collection='counts' index='id' item='count'>WHEN #{id} THEN #{count} </foreach>" +
+            "END WHERE id IN <foreach collection='counts' index='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int setFansCounts(@Param("counts") Map<Long, Long> counts);
+    
+    @Update("<script>UPDATE user SET following_count = CASE id " +
+            "<foreach collection='counts' index='id' item='count'>WHEN #{id} THEN #{count} </foreach>" +
+            "END WHERE id IN <foreach collection='counts' index='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int setFollowingCounts(@Param("counts") Map<Long, Long> counts);
 }
@@ -1,25 +1,67 @@
 package com.hiking.infrastructure.persistence.post;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
 import org.apache.ibatis.annotations.Update;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
 /**
  * 帖子Mapper
  */
 @Mapper
 public interface PostMapper extends BaseMapper<PostDO> {
     
-    @Update("UPDATE post SET view_count = view_count + 1 WHERE id = #{id}")
-    void incrementViewCount(@Param("id") Long id);
+    @Update("<script>UPDATE post SET view_count = view_count + CASE id " +
+            "<foreach collection='deltas' index='id' item='delta'>WHEN #{id} THEN #{delta} </foreach>" +
+            "END WHERE id IN <foreach collection='deltas' index='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int addViewCounts(@Param("deltas") Map<Long, Long> deltas);
+    
+    @Update("<script>UPDATE post SET like_count = CASE id " +
+            "<foreach collection='counts' index='id' item='count'>WHEN #{id} THEN #{count} </foreach>" +
+            "END WHERE id IN <foreach collection='counts' index='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int setLikeCounts(@Param("counts") Map<Long, Long> counts);
+    
+    @Update("<script>UPDATE post SET collect_count = CASE id " +
+            "<foreach collection='counts' index='id' item='count'>WHEN #{id} THEN #{count} </foreach>" +
+            "END WHERE id IN <foreach collection='counts' index='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int setCollectCounts(@Param("counts") Map<Long, Long> counts);
+    
+    @Update("<script>UPDATE post SET comment_count = GREATEST(comment_count + CASE id " +
+            "<foreach collection='deltas' index='id' item='delta'>WHEN #{id} THEN #{delta} </foreach>" +
+            "END, 0) WHERE id IN <foreach collection='deltas' index='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int addCommentCounts(@Param("deltas") Map<Long, Long> deltas);
+    
+    @Insert("INSERT IGNORE INTO counter_fold_log (fold_id, create_time) VALUES (#{foldId}, NOW())")
+    int insertFoldLog(@Param("foldId") String foldId);
+    
+    @Delete("DELETE FROM counter_fold_log WHERE create_time < #{before}")
+    int deleteFoldLogBefore(@Param("before") LocalDateTime before);
     
-    @Update("UPDATE post SET like_count = like_count + #{delta} WHERE id = #{id}")
-    void updateLikeCount(@Param("id") Long id, @Param("delta") int delta);
+    /**
+     * 话题页：从 post_topic 主键按 post_id 倒序范围扫描后回表
+     */
+    @Select("SELECT p.* FROM post_topic t JOIN post p ON p.id = t.post_id " +
+            "WHERE t.topic = #{topic} AND t.post_id < #{beforeId} AND p.status = #{status} " +
+            "ORDER BY t.post_id DESC LIMIT #{limit}")
+    List<PostDO> selectByTopic(@Param("topic") String topic, @Param("beforeId") long beforeId,
+                               @Param("status") int status, @Param("limit") int limit);
     
-    @Update("UPDATE post SET collect_count = collect_count + #{delta} WHERE id = #{id}")
-    void updateCollectCount(@Param("id") Long id, @Param("delta") int delta);
+    @Insert("<script>INSERT IGNORE INTO post_topic (topic, post_id, create_time) VALUES " +
+            "<foreach collection='rows' item='r' separator=','>(#{r.topic}, #{r.postId}, #{r.createTime})</foreach>" +
+            "</script>")
+    int insertTopics(@Param("rows") List<PostTopicDO> rows);
     
-    @Update("UPDATE post SET comment_count = comment_count + #{delta} WHERE id = #{id}")
-    void updateCommentCount(@Param("id") Long id, @Param("delta") int delta);
+    @Delete("DELETE FROM post_topic WHERE post_id = #{postId}")
+    int deleteTopics(@Param("postId") Long postId);
 }
@@ -1,18 +1,23 @@
 package com.hiking.infrastructure.persistence.post;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
-import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hiking.domain.post.entity.Post;
 import com.hiking.domain.post.repository.PostRepository;
+import com.hiking.domain.post.valueobject.PostCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -32,77 +37,123 @@ public class PostRepositoryImpl implements PostRepository {
     }
     
     @Override
-    public List<Post> findByUserId(Long userId, int page, int size) {
-        Page<PostDO> pageResult = postMapper.selectPage(
-            new Page<>(page, size),
-            new LambdaQueryWrapper<PostDO>()
-                .eq(PostDO::getUserId, userId)
-                .eq(PostDO::getStatus, Post.STATUS_NORMAL)
-                .orderByDesc(PostDO::getCreateTime)
-        );
-        return pageResult.getRecords().stream().map(this::toEntity).collect(Collectors.toList());
+    public List<Post> findByIds(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) return Collections.emptyList();
+        Map<Long, PostDO> byId = postMapper.selectBatchIds(ids).stream()
+            .collect(Collectors.toMap(PostDO::getId, Function.identity()));
+        return ids.stream()
+            .map(byId::get)
+            .filter(Objects::nonNull)
+            .map(this::toEntity)
+            .collect(Collectors.toList());
     }
     
     @Override
-    public List<Post> findByTopic(String topic, int page, int size) {
-        Page<PostDO> pageResult = postMapper.selectPage(
-            new Page<>(page, size),
-            new LambdaQueryWrapper<PostDO>()
-                .like(PostDO::getTopics, topic)
-                .eq(PostDO::getStatus, Post.STATUS_NORMAL)
-                .orderByDesc(PostDO::getCreateTime)
-        );
-        return pageResult.getRecords().stream().map(this::toEntity).collect(Collectors.toList());
+    public List<Post> findByUserId(Long userId, PostCursor cursor, int limit) {
+        LambdaQueryWrapper<PostDO> wrapper = new LambdaQueryWrapper<PostDO>()
+            .eq(PostDO::getUserId, userId)
+            .eq(PostDO::getStatus, Post.STATUS_NORMAL);
+        return selectByTimeCursor(wrapper, cursor, limit);
     }
     
     @Override
-    public List<Post> findHotPosts(int page, int size) {
-        Page<PostDO> pageResult = postMapper.selectPage(
-            new Page<>(page, size),
-            new LambdaQueryWrapper<PostDO>()
-                .eq(PostDO::getStatus, Post.STATUS_NORMAL)
-                .orderByDesc(PostDO::getLikeCount)
-                .orderByDesc(PostDO::getCreateTime)
-        );
-        return pageResult.getRecords().stream().map(this::toEntity).collect(Collectors.toList());
+    public List<Post> findByTopic(String topic, PostCursor cursor, int limit) {
+        long beforeId = cursor != null ? cursor.getId() : Long.MAX_VALUE;
+        return postMapper.selectByTopic(topic, beforeId, Post.STATUS_NORMAL, limit).stream()
+            .map(this::toEntity)
+            .collect(Collectors.toList());
     }
     
     @Override
-    public List<Post> findLatestPosts(int page, int size) {
-        Page<PostDO> pageResult = postMapper.selectPage(
-            new Page<>(page, size),
-            new LambdaQueryWrapper<PostDO>()
-                .eq(PostDO::getStatus, Post.STATUS_NORMAL)
-                .orderByDesc(PostDO::getCreateTime)
-        );
-        return pageResult.getRecords().stream().map(this::toEntity).collect(Collectors.toList());
+    public List<Post> findHotPosts(PostCursor cursor, int limit) {
+        LambdaQueryWrapper<PostDO> wrapper = new LambdaQueryWrapper<PostDO>()
+            .eq(PostDO::getStatus, Post.STATUS_NORMAL);
+        if (cursor != null) {
+            int likeCount = (int) cursor.getSortValue();
+            wrapper.and(w -> w.lt(PostDO::getLikeCount, likeCount)
+                .or(o -> o.eq(PostDO::getLikeCount, likeCount).lt(PostDO::getId, cursor.getId())));
+        }
+        wrapper.orderByDesc(PostDO::getLikeCount)
+            .orderByDesc(PostDO::getId)
+            .last("LIMIT " + limit);
+        return postMapper.selectList(wrapper).stream().map(this::toEntity).collect(Collectors.toList());
     }
     
     @Override
-    public List<Post> search(String keyword, int page, int size) {
-        Page<PostDO> pageResult = postMapper.selectPage(
-            new Page<>(page, size),
-            new LambdaQueryWrapper<PostDO>()
+    public List<Post> findLatestPosts(PostCursor cursor, int limit) {
+        LambdaQueryWrapper<PostDO> wrapper = new LambdaQueryWrapper<PostDO>()
+            .eq(PostDO::getStatus, Post.STATUS_NORMAL);
+        return selectByTimeCursor(wrapper, cursor, limit);
+    }
+    
+    /**
+     * 按 (create_time, id) 倒序做键集分页，走 (…, create_time, id) 复合索引范围扫描，不执行 COUNT
+     */
+    private List<Post> selectByTimeCursor(LambdaQueryWrapper<PostDO> wrapper, PostCursor cursor, int limit) {
+        if (cursor != null) {
+            LocalDateTime time = cursor.getTime();
+            wrapper.and(w -> w.lt(PostDO::getCreateTime, time)
+                .or(o -> o.eq(PostDO::getCreateTime, time).lt(PostDO::getId, cursor.getId())));
+        }
+        wrapper.orderByDesc(PostDO::getCreateTime)
+            .orderByDesc(PostDO::getId)
+            .last("LIMIT " + limit);
+        return postMapper.selectList(wrapper).stream().map(this::toEntity).collect(Collectors.toList());
+    }
+    
+    @Override
+    public List<Post> search(String keyword, int offset, int limit) {
+        return postMapper.selectList(new LambdaQueryWrapper<PostDO>()
                 .eq(PostDO::getStatus, Post.STATUS_NORMAL)
                 .and(w -> w.like(PostDO::getTitle, keyword)
                     .or().like(PostDO::getContent, keyword)
                     .or().like(PostDO::getLocation, keyword))
                 .orderByDesc(PostDO::getCreateTime)
-        );
-        return pageResult.getRecords().stream().map(this::toEntity).collect(Collectors.toList());
+                .last("LIMIT " + offset + ", " + limit))
+            .stream().map(this::toEntity).collect(Collectors.toList());
+    }
+    
+    @Override
+    public List<Post> scanUpdatedSince(LocalDateTime since, long afterId, int limit) {
+        return postMapper.selectList(new LambdaQueryWrapper<PostDO>()
+                .ge(since != null, PostDO::getUpdateTime, since)
+                .gt(PostDO::getId, afterId)
+                .orderByAsc(PostDO::getId)
+                .last("LIMIT " + limit))
+            .stream().map(this::toEntity).collect(Collectors.toList());
+    }
+    
+    @Override
+    public void saveTopics(List<Post> posts) {
+        List<PostTopicDO> rows = new ArrayList<>();
+        for (Post post : posts) {
+            rows.addAll(toTopicRows(post.getId(), post, post.getCreateTime()));
+        }
+        if (!rows.isEmpty()) {
+            postMapper.insertTopics(rows);
+        }
     }
     
     @Override
     public Long save(Post post) {
         PostDO postDO = toDO(post);
-        postDO.setCreateTime(LocalDateTime.now());
-        postDO.setUpdateTime(LocalDateTime.now());
+        // 按 DATETIME 精度截断并回写到领域对象，内存中的 updateTime 与库中一致（搜索索引以它为版本）
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        postDO.setCreateTime(now);
+        postDO.setUpdateTime(now);
         postDO.setLikeCount(0);
         postDO.setCollectCount(0);
         postDO.setCommentCount(0);
         postDO.setViewCount(0);
         postDO.setStatus(Post.STATUS_NORMAL);
         postMapper.insert(postDO);
+        post.setCreateTime(now);
+        post.setUpdateTime(now);
+        post.setStatus(Post.STATUS_NORMAL);
+        List<PostTopicDO> topicRows = toTopicRows(postDO.getId(), post, postDO.getCreateTime());
+        if (!topicRows.isEmpty()) {
+            postMapper.insertTopics(topicRows);
+        }
         return postDO.getId();
     }
     
@@ -111,6 +162,13 @@ public class PostRepositoryImpl implements PostRepository {
         PostDO postDO = toDO(post);
         postDO.setUpdateTime(LocalDateTime.now());
         postMapper.updateById(postDO);
+        if (post.getTopics() != null) {
+            postMapper.deleteTopics(post.getId());
+            List<PostTopicDO> topicRows = toTopicRows(post.getId(), post, post.getCreateTime());
+            if (!topicRows.isEmpty()) {
+                postMapper.insertTopics(topicRows);
+            }
+        }
     }
     
     @Override
@@ -120,26 +178,48 @@ public class PostRepositoryImpl implements PostRepository {
         postDO.setStatus(Post.STATUS_DELETED);
         postDO.setUpdateTime(LocalDateTime.now());
         postMapper.updateById(postDO);
+        postMapper.deleteTopics(id);
+    }
+    
+    @Override
+    public void addViewCounts(Map<Long, Long> deltas) {
+        if (deltas == null || deltas.isEmpty()) return;
+        postMapper.addViewCounts(deltas);
     }
     
     @Override
-    public void incrementViewCount(Long id) {
-        postMapper.incrementViewCount(id);
+    public void addCommentCounts(Map<Long, Long> deltas) {
+        if (deltas == null || deltas.isEmpty()) return;
+        postMapper.addCommentCounts(deltas);
     }
     
     @Override
-    public void updateLikeCount(Long id, int delta) {
-        postMapper.updateLikeCount(id, delta);
+    public boolean markCounterFolded(String foldId) {
+        return postMapper.insertFoldLog(foldId) > 0;
     }
     
     @Override
-    public void updateCollectCount(Long id, int delta) {
-        postMapper.updateCollectCount(id, delta);
+    public void purgeCounterFoldLog(LocalDateTime before) {
+        postMapper.deleteFoldLogBefore(before);
     }
     
     @Override
-    public void updateCommentCount(Long id, int delta) {
-        postMapper.updateCommentCount(id, delta);
+    public void setLikeCounts(Map<Long, Long> counts) {
+        if (counts == null || counts.isEmpty()) return;
+        postMapper.setLikeCounts(counts);
+    }
+    
+    @Override
+    public void setCollectCounts(Map<Long, Long> counts) {
+        if (counts == null || counts.isEmpty()) return;
+        postMapper.setCollectCounts(counts);
+    }
+    
+    private List<PostTopicDO> toTopicRows(Long postId, Post post, LocalDateTime createTime) {
+        LocalDateTime time = createTime != null ? createTime : LocalDateTime.now();
+        return post.indexedTopics().stream()
+            .map(topic -> new PostTopicDO(topic, postId, time))
+            .collect(Collectors.toList());
     }
     
     @SneakyThrows
@@ -0,0 +1,23 @@
+package com.hiking.infrastructure.persistence.post;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * 帖子话题关联数据对象
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@TableName("post_topic")
+public class PostTopicDO {
+    
+    private String topic;
+    
+    private Long postId;
+    
+    private LocalDateTime createTime;
+}
@@ -2,6 +2,7 @@ package com.hiking.infrastructure.persistence.repository;
 
 import com.hiking.domain.hiking.entity.HikingRecord;
 import com.hiking.domain.hiking.repository.HikingRecordRepository;
+import com.hiking.domain.hiking.valueobject.HikingStats;
 import com.hiking.infrastructure.persistence.mapper.HikingRecordMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
@@ -83,4 +84,15 @@ public class HikingRecordRepositoryImpl implements HikingRecordRepository {
     public List<HikingRecord> findByTeamId(Long teamId) {
         return hikingRecordMapper.selectByTeamId(teamId);
     }
+
+    @Override
+    public List<HikingStats> sumStatsByOwnerIds(List<Long> ownerIds, LocalDate date) {
+        if (ownerIds == null || ownerIds.isEmpty()) {
+            return List.of();
+        }
+        LocalDate monthStart = date.withDayOfMonth(1);
+        LocalDate yearStart = date.withDayOfYear(1);
+        return hikingRecordMapper.selectStatsByOwnerIds(ownerIds,
+                monthStart, monthStart.plusMonths(1), yearStart, yearStart.plusYears(1));
+    }
 }
@@ -3,6 +3,7 @@ package com.hiking.infrastructure.persistence.repository;
 import com.hiking.domain.team.entity.TeamMember;
 import com.hiking.domain.team.repository.TeamMemberRepository;
 import com.hiking.domain.team.valueobject.MemberStatus;
+import com.hiking.domain.team.valueobject.TeamMemberCursor;
 import com.hiking.infrastructure.persistence.mapper.TeamMemberMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
@@ -78,4 +79,28 @@ public class TeamMemberRepositoryImpl implements TeamMemberRepository {
     public long countApprovedByTeamId(Long teamId) {
         return teamMemberMapper.countApprovedByTeamId(teamId);
     }
+
+    @Override
+    public List<TeamMember> findApprovedByTeamIds(List<Long> teamIds) {
+        if (teamIds == null || teamIds.isEmpty()) {
+            return List.of();
+        }
+        return teamMemberMapper.selectApprovedByTeamIds(teamIds);
+    }
+
+    @Override
+    public List<TeamMember> findApprovedPage(Long teamId, TeamMemberCursor cursor, int limit) {
+        if (cursor == null) {
+            return teamMemberMapper.selectApprovedPage(teamId, null, null, null, limit);
+        }
+        return teamMemberMapper.selectApprovedPage(teamId, cursor.getRoleRank(), cursor.getJoinDateTime(),
+                cursor.getId(), limit);
+    }
+
+    @Override
+    public List<TeamMember> findApprovedByNicknamePrefix(Long teamId, String prefix, int limit) {
+        // 转义 LIKE 通配符，前缀按字面匹配
+        String escaped = prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return teamMemberMapper.selectApprovedByNicknamePrefix(teamId, escaped, limit);
+    }
 }
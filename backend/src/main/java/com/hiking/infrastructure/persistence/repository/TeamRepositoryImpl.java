@@ -2,6 +2,7 @@ package com.hiking.infrastructure.persistence.repository;
 
 import com.hiking.domain.team.entity.Team;
 import com.hiking.domain.team.repository.TeamRepository;
+import com.hiking.domain.team.valueobject.TeamSummary;
 import com.hiking.infrastructure.persistence.mapper.TeamMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
@@ -52,4 +53,22 @@ public class TeamRepositoryImpl implements TeamRepository {
     public boolean existsById(Long id) {
         return teamMapper.selectById(id) != null;
     }
+
+    @Override
+    public List<TeamSummary> findSummariesByMemberUserId(Long userId) {
+        return teamMapper.selectSummariesByMemberUserId(userId);
+    }
+
+    @Override
+    public List<TeamSummary> findSummariesByIds(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        return teamMapper.selectSummariesByIds(ids);
+    }
+
+    @Override
+    public void addMemberCount(Long teamId, int delta) {
+        teamMapper.addMemberCount(teamId, delta);
+    }
 }
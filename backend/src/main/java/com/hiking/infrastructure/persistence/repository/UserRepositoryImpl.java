@@ -8,6 +8,7 @@ import org.springframework.stereotype.Repository;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -74,6 +75,18 @@ public class UserRepositoryImpl implements UserRepository {
         userMapper.decrementFollowingCount(userId);
     }
     
+    @Override
+    public void setFansCounts(Map<Long, Long> counts) {
+        if (counts == null || counts.isEmpty()) return;
+        userMapper.setFansCounts(counts);
+    }
+    
+    @Override
+    public void setFollowingCounts(Map<Long, Long> counts) {
+        if (counts == null || counts.isEmpty()) return;
+        userMapper.setFollowingCounts(counts);
+    }
+    
     @Override
     public List<User> findByIds(List<Long> ids) {
         if (ids == null || ids.isEmpty()) {
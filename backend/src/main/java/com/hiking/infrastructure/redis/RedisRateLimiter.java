@@ -0,0 +1,74 @@
+package com.hiking.infrastructure.redis;
+
+import com.hiking.infrastructure.cache.LocalLruCache;
+import com.hiking.infrastructure.config.RateLimitProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 基于 Redis 令牌桶的限流器
+ * <p>
+ * 令牌桶的补充与扣减在 Lua 脚本内原子完成，所有实例共享同一个桶。剩余令牌不少于容量一半时，
+ * 脚本会多扣若干令牌预取到本机，之后的请求在本机扣减、不访问 Redis；预取令牌短时间内过期作废，
+ * 只会让实际放行数低于上限，不会超出。接近上限的用户每次都回到 Redis 判断。
+ * Redis 不可用时放行，限流不影响写接口的可用性。
+ */
+@Slf4j
+@Component
+public class RedisRateLimiter {
+
+    private static final String KEY_PREFIX = "ratelimit:";
+
+    private static final RedisScript<List<Long>> TOKEN_BUCKET_SCRIPT = RedisScripts.loadLongList("token_bucket.lua");
+
+    private final StringRedisTemplate redisTemplate;
+    private final RateLimitProperties properties;
+    private final LocalLruCache<String, AtomicInteger> leases;
+
+    public RedisRateLimiter(StringRedisTemplate redisTemplate, RateLimitProperties properties) {
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+        this.leases = new LocalLruCache<>(properties.getLocalCapacity(), 16, properties.getLeaseTtlMs());
+    }
+
+    /**
+     * 尝试获取一个令牌
+     *
+     * @return 被限流时返回建议重试等待毫秒数，放行时返回 0
+     */
+    public long tryAcquire(String route, Long userId) {
+        RateLimitProperties.Route config = properties.getRoutes().get(route);
+        if (!properties.isEnabled() || config == null) {
+            return 0;
+        }
+        String key = KEY_PREFIX + route + ":" + userId;
+        AtomicInteger lease = leases.get(key);
+        if (lease != null && lease.getAndDecrement() > 0) {
+            return 0;
+        }
+
+        List<Long> reply;
+        try {
+            reply = redisTemplate.execute(TOKEN_BUCKET_SCRIPT, List.of(key),
+                    String.valueOf(config.getCapacity()), String.valueOf(config.getRefillPerSecond()),
+                    String.valueOf(properties.getLeaseSize()));
+        } catch (Exception e) {
+            log.warn("限流检查失败，放行请求: route={}, userId={}", route, userId, e);
+            return 0;
+        }
+        long granted = reply.get(0);
+        if (granted <= 0) {
+            leases.remove(key);
+            return Math.max(reply.get(1), 1);
+        }
+        if (granted > 1) {
+            leases.put(key, new AtomicInteger((int) granted - 1));
+        }
+        return 0;
+    }
+}
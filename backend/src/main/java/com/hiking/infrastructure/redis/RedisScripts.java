@@ -0,0 +1,34 @@
+package com.hiking.infrastructure.redis;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+
+/**
+ * Redis Lua 脚本加载工具
+ * <p>
+ * 脚本统一放在 classpath:scripts/ 下；DefaultRedisScript 会缓存 SHA1，
+ * 执行时优先 EVALSHA，服务端未缓存时自动回退 EVAL。
+ */
+public final class RedisScripts {
+
+    private RedisScripts() {
+    }
+
+    public static <T> RedisScript<T> load(String name, Class<T> resultType) {
+        DefaultRedisScript<T> script = new DefaultRedisScript<>();
+        script.setLocation(new ClassPathResource("scripts/" + name));
+        script.setResultType(resultType);
+        return script;
+    }
+
+    /**
+     * 返回整数数组的脚本（Lua table 中的整数映射为 Long）
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static RedisScript<List<Long>> loadLongList(String name) {
+        return (RedisScript) load(name, List.class);
+    }
+}
@@ -0,0 +1,180 @@
+package com.hiking.infrastructure.redis;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.ToLongFunction;
+
+/**
+ * 可续跑的后台批处理任务执行器
+ * <p>
+ * 统一回填、重建类任务的检查点、互斥锁和完成标记，键按任务名派生：
+ * - {task}：完成标记，值为 done 时任务不再执行；
+ * - {task}:checkpoint：HASH，按阶段记录已处理到的主键，中断后从检查点继续；
+ * - {task}:lock：互斥锁，值为持有者令牌，续期和释放都先比对令牌，锁过期被其他节点取得后不会误续、误删。
+ */
+@Component
+@RequiredArgsConstructor
+public class ResumableTaskRunner {
+
+    private static final String DONE = "done";
+    private static final String CHECKPOINT_SUFFIX = ":checkpoint";
+    private static final String LOCK_SUFFIX = ":lock";
+
+    private static final RedisScript<Long> UNLOCK_SCRIPT = RedisScripts.load("compare_and_delete.lua", Long.class);
+    private static final RedisScript<Long> RENEW_SCRIPT = RedisScripts.load("compare_and_expire.lua", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    /**
+     * 任务主体
+     */
+    @FunctionalInterface
+    public interface Task {
+        void run(Progress progress) throws Exception;
+    }
+
+    /**
+     * 批量扫描函数：返回主键大于 afterId 的至多 limit 行
+     */
+    @FunctionalInterface
+    public interface Scanner<T> {
+        List<T> scan(long afterId, int limit);
+    }
+
+    /**
+     * 每批的处理动作，返回本批实际处理的行数
+     */
+    @FunctionalInterface
+    public interface BatchAction<T> {
+        long apply(List<T> rows) throws Exception;
+    }
+
+    /**
+     * 任务是否已完成
+     */
+    public boolean isDone(String task) {
+        return DONE.equals(redisTemplate.opsForValue().get(task));
+    }
+
+    /**
+     * 清除完成标记和检查点，使任务下次从头执行
+     */
+    public void reset(String task) {
+        redisTemplate.delete(List.of(task, task + CHECKPOINT_SUFFIX));
+    }
+
+    /**
+     * 取得锁后执行任务，正常结束时写入完成标记并清除检查点
+     *
+     * @return 已完成或锁被其他节点持有时返回 false；任务抛出的异常原样抛出，检查点保留
+     */
+    public boolean run(String task, Duration lockTtl, Task body) throws Exception {
+        if (isDone(task)) {
+            return false;
+        }
+        String lockKey = task + LOCK_SUFFIX;
+        String token = UUID.randomUUID().toString();
+        if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(lockKey, token, lockTtl))) {
+            return false;
+        }
+        try {
+            body.run(new Progress(task, lockKey, token, lockTtl));
+            redisTemplate.opsForValue().set(task, DONE);
+            redisTemplate.delete(task + CHECKPOINT_SUFFIX);
+            return true;
+        } finally {
+            try {
+                redisTemplate.execute(UNLOCK_SCRIPT, List.of(lockKey), token);
+            } catch (Exception ignored) {
+                // 释放失败时锁按 TTL 自然过期
+            }
+        }
+    }
+
+    /**
+     * 任务执行进度，按阶段读写检查点并续期锁
+     */
+    public final class Progress {
+
+        private final String checkpointKey;
+        private final String lockKey;
+        private final String token;
+        private final Duration lockTtl;
+
+        private Progress(String task, String lockKey, String token, Duration lockTtl) {
+            this.checkpointKey = task + CHECKPOINT_SUFFIX;
+            this.lockKey = lockKey;
+            this.token = token;
+            this.lockTtl = lockTtl;
+        }
+
+        /**
+         * 读取阶段检查点，未开始时返回 0
+         */
+        public long checkpoint(String stage) {
+            Object value = redisTemplate.opsForHash().get(checkpointKey, stage);
+            return value != null ? Long.parseLong(value.toString()) : 0;
+        }
+
+        /**
+         * 记录阶段检查点并续期锁
+         *
+         * @throws IllegalStateException 锁已过期并被其他节点取得，当前节点应停止执行
+         */
+        public void save(String stage, long afterId) {
+            redisTemplate.opsForHash().put(checkpointKey, stage, String.valueOf(afterId));
+            Long renewed = redisTemplate.execute(RENEW_SCRIPT, List.of(lockKey), token,
+                    String.valueOf(lockTtl.toMillis()));
+            if (renewed == null || renewed == 0) {
+                throw new IllegalStateException("任务锁已失效: " + lockKey);
+            }
+        }
+
+        /**
+         * 从阶段检查点开始按主键升序分批扫描并处理，每批完成后记录检查点
+         *
+         * @return 累计处理行数
+         */
+        public <T> long forEachBatch(String stage, int batchSize, Scanner<T> scanner, ToLongFunction<T> idOf,
+                                     BatchAction<T> action) throws Exception {
+            return forEachBatch(stage, batchSize, 0, scanner, idOf, action);
+        }
+
+        /**
+         * 同 {@link #forEachBatch(String, int, Scanner, ToLongFunction, BatchAction)}，
+         * 并按 rowsPerSecond 限速（不大于 0 表示不限速）
+         */
+        public <T> long forEachBatch(String stage, int batchSize, int rowsPerSecond, Scanner<T> scanner,
+                                     ToLongFunction<T> idOf, BatchAction<T> action) throws Exception {
+            long afterId = checkpoint(stage);
+            long total = 0;
+            while (true) {
+                long batchStarted = System.currentTimeMillis();
+                List<T> rows = scanner.scan(afterId, batchSize);
+                if (rows.isEmpty()) {
+                    break;
+                }
+                total += action.apply(rows);
+                afterId = idOf.applyAsLong(rows.get(rows.size() - 1));
+                save(stage, afterId);
+                if (rows.size() < batchSize) {
+                    break;
+                }
+                if (rowsPerSecond > 0) {
+                    long minMillis = rows.size() * 1000L / rowsPerSecond;
+                    long elapsed = System.currentTimeMillis() - batchStarted;
+                    if (minMillis > elapsed) {
+                        Thread.sleep(minMillis - elapsed);
+                    }
+                }
+            }
+            return total;
+        }
+    }
+}
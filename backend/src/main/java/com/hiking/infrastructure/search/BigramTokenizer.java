@@ -0,0 +1,83 @@
+package com.hiking.infrastructure.search;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * 中文二元分词器
+ * <p>
+ * - 连续的中日韩字符：索引时输出单字和相邻二元组，查询时输出二元组（单字查询输出单字）
+ * - 连续的字母数字：整体作为一个词，统一转小写
+ * - 其余字符视为分隔符
+ */
+public final class BigramTokenizer {
+
+    private BigramTokenizer() {
+    }
+
+    /**
+     * 索引分词（保留重复词，用于统计词频）
+     */
+    public static List<String> tokenizeForIndex(String text) {
+        List<String> tokens = new ArrayList<>();
+        tokenize(text, true, tokens::add);
+        return tokens;
+    }
+
+    /**
+     * 查询分词（去重，保持顺序）
+     */
+    public static List<String> tokenizeForQuery(String text) {
+        LinkedHashSet<String> tokens = new LinkedHashSet<>();
+        tokenize(text, false, tokens::add);
+        return new ArrayList<>(tokens);
+    }
+
+    private static void tokenize(String text, boolean forIndex, Consumer<String> sink) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        int[] cps = text.toLowerCase(Locale.ROOT).codePoints().toArray();
+        int i = 0;
+        while (i < cps.length) {
+            if (isCjk(cps[i])) {
+                int start = i;
+                while (i < cps.length && isCjk(cps[i])) {
+                    i++;
+                }
+                emitCjkRun(cps, start, i, forIndex, sink);
+            } else if (Character.isLetterOrDigit(cps[i])) {
+                int start = i;
+                while (i < cps.length && Character.isLetterOrDigit(cps[i]) && !isCjk(cps[i])) {
+                    i++;
+                }
+                sink.accept(new String(cps, start, i - start));
+            } else {
+                i++;
+            }
+        }
+    }
+
+    private static void emitCjkRun(int[] cps, int start, int end, boolean forIndex, Consumer<String> sink) {
+        int length = end - start;
+        if (length == 1 || forIndex) {
+            for (int i = start; i < end; i++) {
+                sink.accept(new String(cps, i, 1));
+            }
+        }
+        for (int i = start; i + 1 < end; i++) {
+            sink.accept(new String(cps, i, 2));
+        }
+    }
+
+    private static boolean isCjk(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+}
@@ -0,0 +1,276 @@
+package com.hiking.infrastructure.search;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 内存倒排索引（非线程安全，由调用方加锁）
+ * <p>
+ * 帖子映射为内部递增文档号，倒排链只追加；更新帖子时旧文档号标记删除并分配新文档号，
+ * 删除的文档在 {@link #compact()} 时统一清理并重新编号。评分采用 BM25，多个词之间取交集。
+ */
+final class InvertedIndex {
+
+    private static final int MAGIC = 0x50534958;
+    private static final int VERSION = 1;
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final Map<Long, Integer> liveDocs = new HashMap<>();
+    private final BitSet deleted = new BitSet();
+
+    private long[] docPostIds = new long[1024];
+    private long[] docVersions = new long[1024];
+    private int[] docLengths = new int[1024];
+    private int nextDocNo;
+    private long totalLength;
+
+    /**
+     * 快照加载结果
+     */
+    record Snapshot(InvertedIndex index, long syncTime) {
+    }
+
+    /**
+     * 文档是否已按该版本（帖子 update_time）索引
+     */
+    boolean isCurrent(long postId, long version) {
+        Integer docNo = liveDocs.get(postId);
+        return docNo != null && docVersions[docNo] == version;
+    }
+
+    /**
+     * 新增文档，已存在时旧版本标记删除
+     */
+    void add(long postId, long version, Map<String, Integer> termFreqs) {
+        remove(postId);
+        if (termFreqs.isEmpty()) {
+            return;
+        }
+        int docNo = nextDocNo++;
+        ensureDocCapacity(docNo + 1);
+        int length = 0;
+        for (Map.Entry<String, Integer> e : termFreqs.entrySet()) {
+            postings.computeIfAbsent(e.getKey(), k -> new PostingList()).add(docNo, e.getValue());
+            length += e.getValue();
+        }
+        docPostIds[docNo] = postId;
+        docVersions[docNo] = version;
+        docLengths[docNo] = length;
+        totalLength += length;
+        liveDocs.put(postId, docNo);
+    }
+
+    boolean remove(long postId) {
+        Integer docNo = liveDocs.remove(postId);
+        if (docNo == null) {
+            return false;
+        }
+        deleted.set(docNo);
+        totalLength -= docLengths[docNo];
+        return true;
+    }
+
+    int liveCount() {
+        return liveDocs.size();
+    }
+
+    int deletedCount() {
+        return deleted.cardinality();
+    }
+
+    /**
+     * BM25 检索：所有查询词都命中的文档按得分倒序，同分时新文档在前
+     */
+    List<Long> search(List<String> terms, int offset, int limit) {
+        if (terms.isEmpty() || liveDocs.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<PostingList> lists = new ArrayList<>(terms.size());
+        for (String term : terms) {
+            PostingList list = postings.get(term);
+            if (list == null) {
+                return Collections.emptyList();
+            }
+            lists.add(list);
+        }
+        // 从最短的倒排链开始求交集，候选集只会越来越小
+        lists.sort(Comparator.comparingInt(PostingList::docCount));
+
+        int n = liveDocs.size();
+        double avgLength = Math.max(1.0, (double) totalLength / n);
+        Map<Integer, Double> scores = null;
+        for (PostingList list : lists) {
+            int df = Math.min(list.docCount(), n);
+            double idf = Math.log(1 + (n - df + 0.5) / (df + 0.5));
+            Map<Integer, Double> previous = scores;
+            Map<Integer, Double> next = new HashMap<>();
+            list.forEach((docNo, tf) -> {
+                if (deleted.get(docNo)) {
+                    return;
+                }
+                Double base = previous == null ? Double.valueOf(0) : previous.get(docNo);
+                if (base == null) {
+                    return;
+                }
+                double norm = tf + K1 * (1 - B + B * docLengths[docNo] / avgLength);
+                next.put(docNo, base + idf * tf * (K1 + 1) / norm);
+            });
+            if (next.isEmpty()) {
+                return Collections.emptyList();
+            }
+            scores = next;
+        }
+
+        List<Map.Entry<Integer, Double>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort(Map.Entry.<Integer, Double>comparingByValue().reversed()
+                .thenComparing(Map.Entry.<Integer, Double>comparingByKey().reversed()));
+        List<Long> result = new ArrayList<>(Math.min(limit, ranked.size()));
+        for (int i = offset; i < ranked.size() && result.size() < limit; i++) {
+            result.add(docPostIds[ranked.get(i).getKey()]);
+        }
+        return result;
+    }
+
+    /**
+     * 清理已删除文档并重新编号（编号映射单调，倒排链顺序保持不变）
+     */
+    void compact() {
+        if (deleted.isEmpty()) {
+            return;
+        }
+        int[] remap = new int[nextDocNo];
+        long[] newPostIds = new long[Math.max(1024, liveDocs.size())];
+        long[] newVersions = new long[newPostIds.length];
+        int[] newLengths = new int[newPostIds.length];
+        int newDoc = 0;
+        liveDocs.clear();
+        for (int doc = 0; doc < nextDocNo; doc++) {
+            if (deleted.get(doc)) {
+                remap[doc] = -1;
+                continue;
+            }
+            remap[doc] = newDoc;
+            newPostIds[newDoc] = docPostIds[doc];
+            newVersions[newDoc] = docVersions[doc];
+            newLengths[newDoc] = docLengths[doc];
+            liveDocs.put(docPostIds[doc], newDoc);
+            newDoc++;
+        }
+
+        Iterator<Map.Entry<String, PostingList>> it = postings.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, PostingList> entry = it.next();
+            PostingList rebuilt = new PostingList();
+            entry.getValue().forEach((doc, tf) -> {
+                if (remap[doc] >= 0) {
+                    rebuilt.add(remap[doc], tf);
+                }
+            });
+            if (rebuilt.docCount() == 0) {
+                it.remove();
+            } else {
+                entry.setValue(rebuilt);
+            }
+        }
+
+        docPostIds = newPostIds;
+        docVersions = newVersions;
+        docLengths = newLengths;
+        nextDocNo = newDoc;
+        deleted.clear();
+    }
+
+    /**
+     * 写入快照（先写临时文件再原子替换），调用前须已 compact
+     */
+    void writeTo(Path file, long syncTime) throws IOException {
+        if (!deleted.isEmpty()) {
+            throw new IllegalStateException("写快照前需要先压缩索引");
+        }
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(syncTime);
+            out.writeInt(nextDocNo);
+            for (int doc = 0; doc < nextDocNo; doc++) {
+                out.writeLong(docPostIds[doc]);
+                out.writeLong(docVersions[doc]);
+                out.writeInt(docLengths[doc]);
+            }
+            out.writeInt(postings.size());
+            for (Map.Entry<String, PostingList> entry : postings.entrySet()) {
+                byte[] term = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                out.writeInt(term.length);
+                out.write(term);
+                entry.getValue().writeTo(out);
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * 通过内存映射读取快照
+     */
+    static Snapshot readFrom(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (in.getInt() != MAGIC || in.getInt() != VERSION) {
+                throw new IOException("不支持的索引快照格式: " + file);
+            }
+            long syncTime = in.getLong();
+            InvertedIndex index = new InvertedIndex();
+            int docCount = in.getInt();
+            index.ensureDocCapacity(docCount);
+            for (int doc = 0; doc < docCount; doc++) {
+                long postId = in.getLong();
+                index.docPostIds[doc] = postId;
+                index.docVersions[doc] = in.getLong();
+                index.docLengths[doc] = in.getInt();
+                index.totalLength += index.docLengths[doc];
+                index.liveDocs.put(postId, doc);
+            }
+            index.nextDocNo = docCount;
+            int termCount = in.getInt();
+            for (int i = 0; i < termCount; i++) {
+                byte[] term = new byte[in.getInt()];
+                in.get(term);
+                index.postings.put(new String(term, StandardCharsets.UTF_8), PostingList.readFrom(in));
+            }
+            return new Snapshot(index, syncTime);
+        }
+    }
+
+    private void ensureDocCapacity(int capacity) {
+        if (capacity > docPostIds.length) {
+            int newLength = Math.max(docPostIds.length * 2, capacity);
+            docPostIds = Arrays.copyOf(docPostIds, newLength);
+            docVersions = Arrays.copyOf(docVersions, newLength);
+            docLengths = Arrays.copyOf(docLengths, newLength);
+        }
+    }
+}
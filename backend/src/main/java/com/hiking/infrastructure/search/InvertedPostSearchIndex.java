@@ -0,0 +1,269 @@
+package com.hiking.infrastructure.search;
+
+import com.hiking.domain.post.entity.Post;
+import com.hiking.domain.post.repository.PostRepository;
+import com.hiking.domain.post.repository.PostSearchIndex;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 基于内存倒排索引的帖子搜索
+ * <p>
+ * 启动时优先加载内存映射快照，再按 update_time 增量追平数据库；
+ * 本节点的发帖/删帖实时写入索引，其他节点的变更由定时增量同步补齐。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class InvertedPostSearchIndex implements PostSearchIndex {
+
+    private static final int SCAN_BATCH = 1000;
+
+    /**
+     * 增量同步回看窗口，覆盖事务提交延迟和节点时钟偏差
+     */
+    private static final long SYNC_MARGIN_MS = 60_000;
+
+    private static final int TITLE_BOOST = 2;
+
+    private final PostRepository postRepository;
+    private final SearchProperties properties;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private InvertedIndex index = new InvertedIndex();
+    private volatile boolean ready;
+    private volatile boolean dirty;
+    private volatile long syncTime;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Thread bootstrap = new Thread(this::bootstrap, "post-search-bootstrap");
+        bootstrap.setDaemon(true);
+        bootstrap.start();
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public void index(Post post) {
+        Map<String, Integer> termFreqs = termFreqs(post);
+        long version = version(post);
+        lock.writeLock().lock();
+        try {
+            index.add(post.getId(), version, termFreqs);
+            dirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long postId) {
+        lock.writeLock().lock();
+        try {
+            dirty |= index.remove(postId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Long> search(String keyword, int offset, int limit) {
+        List<String> terms = BigramTokenizer.tokenizeForQuery(keyword);
+        if (terms.isEmpty()) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            return index.search(terms, offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 定时增量同步其他节点的变更
+     */
+    @Scheduled(fixedDelayString = "${search.post.refresh-interval-ms:30000}")
+    public void refresh() {
+        if (!ready) {
+            return;
+        }
+        try {
+            catchUp(syncTime);
+            compactIfNeeded();
+        } catch (Exception e) {
+            log.warn("帖子搜索索引增量同步失败", e);
+        }
+    }
+
+    /**
+     * 定时写快照，重启时无需全表扫描
+     */
+    @Scheduled(fixedDelayString = "${search.post.snapshot-interval-ms:600000}")
+    public void snapshot() {
+        if (!ready || !dirty) {
+            return;
+        }
+        Path path = Paths.get(properties.getSnapshotPath());
+        long snapshotSyncTime = syncTime;
+        lock.writeLock().lock();
+        try {
+            index.compact();
+            // 降级为读锁写文件，不阻塞检索
+            lock.readLock().lock();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            index.writeTo(path, snapshotSyncTime);
+            dirty = false;
+            log.info("帖子搜索索引快照已写入: {}, 文档数 {}", path, index.liveCount());
+        } catch (IOException e) {
+            log.warn("帖子搜索索引快照写入失败: {}", path, e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        snapshot();
+    }
+
+    private void bootstrap() {
+        long startedAt = System.currentTimeMillis();
+        Path path = Paths.get(properties.getSnapshotPath());
+        InvertedIndex loaded = new InvertedIndex();
+        long since = 0;
+        if (Files.exists(path)) {
+            try {
+                InvertedIndex.Snapshot snapshot = InvertedIndex.readFrom(path);
+                loaded = snapshot.index();
+                since = snapshot.syncTime();
+                log.info("已加载帖子搜索索引快照: {}, 文档数 {}", path, loaded.liveCount());
+            } catch (IOException | RuntimeException e) {
+                log.warn("帖子搜索索引快照不可用，全量重建: {}", path, e);
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            index = loaded;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            catchUp(since);
+            compactIfNeeded();
+            ready = true;
+            log.info("帖子搜索索引就绪, 文档数 {}, 耗时 {}ms", index.liveCount(), System.currentTimeMillis() - startedAt);
+        } catch (Exception e) {
+            log.error("帖子搜索索引构建失败，搜索将回退数据库查询", e);
+        }
+    }
+
+    /**
+     * 按ID顺序分批扫描 update_time 不早于水位的帖子，正常帖子写入索引、其余移除
+     */
+    private void catchUp(long sinceMillis) {
+        long startedAt = System.currentTimeMillis();
+        LocalDateTime since = sinceMillis > 0 ? toLocalDateTime(sinceMillis - SYNC_MARGIN_MS) : null;
+        long afterId = 0;
+        while (true) {
+            List<Post> batch = postRepository.scanUpdatedSince(since, afterId, SCAN_BATCH);
+            if (batch.isEmpty()) {
+                break;
+            }
+            apply(batch);
+            afterId = batch.get(batch.size() - 1).getId();
+            if (batch.size() < SCAN_BATCH) {
+                break;
+            }
+        }
+        syncTime = startedAt;
+    }
+
+    private void apply(List<Post> batch) {
+        List<Map<String, Integer>> docs = new ArrayList<>(batch.size());
+        for (Post post : batch) {
+            docs.add(post.getStatus() != null && post.getStatus() == Post.STATUS_NORMAL ? termFreqs(post) : null);
+        }
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < batch.size(); i++) {
+                Post post = batch.get(i);
+                Map<String, Integer> termFreqs = docs.get(i);
+                if (termFreqs == null) {
+                    dirty |= index.remove(post.getId());
+                } else if (!index.isCurrent(post.getId(), version(post))) {
+                    index.add(post.getId(), version(post), termFreqs);
+                    dirty = true;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void compactIfNeeded() {
+        lock.writeLock().lock();
+        try {
+            if (index.deletedCount() > index.liveCount() * properties.getCompactRatio()) {
+                index.compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 标题加权，正文与地点按原词频统计
+     */
+    private Map<String, Integer> termFreqs(Post post) {
+        Map<String, Integer> freqs = new HashMap<>();
+        for (String token : BigramTokenizer.tokenizeForIndex(post.getTitle())) {
+            freqs.merge(token, TITLE_BOOST, Integer::sum);
+        }
+        for (String token : BigramTokenizer.tokenizeForIndex(post.getContent())) {
+            freqs.merge(token, 1, Integer::sum);
+        }
+        for (String token : BigramTokenizer.tokenizeForIndex(post.getLocation())) {
+            freqs.merge(token, 1, Integer::sum);
+        }
+        return freqs;
+    }
+
+    private static long version(Post post) {
+        LocalDateTime updateTime = post.getUpdateTime();
+        return updateTime == null ? 0 : updateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toLocalDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+}
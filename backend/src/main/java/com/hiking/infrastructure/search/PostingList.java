@@ -0,0 +1,106 @@
+package com.hiking.infrastructure.search;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * 压缩倒排链
+ * <p>
+ * 文档号严格递增追加，按 (文档号差值, 词频) 两个变长整数（varint）顺序编码，
+ * 常见的小差值只占 1 字节。
+ */
+final class PostingList {
+
+    /**
+     * 倒排链遍历回调
+     */
+    interface Visitor {
+        void visit(int docNo, int termFreq);
+    }
+
+    private byte[] buf;
+    private int size;
+    private int lastDoc = -1;
+    private int docCount;
+
+    PostingList() {
+        this.buf = new byte[8];
+    }
+
+    private PostingList(byte[] buf, int lastDoc, int docCount) {
+        this.buf = buf;
+        this.size = buf.length;
+        this.lastDoc = lastDoc;
+        this.docCount = docCount;
+    }
+
+    void add(int docNo, int termFreq) {
+        if (docNo <= lastDoc) {
+            throw new IllegalArgumentException("文档号必须递增: " + docNo + " <= " + lastDoc);
+        }
+        ensureCapacity(10);
+        writeVarInt(docNo - lastDoc);
+        writeVarInt(termFreq);
+        lastDoc = docNo;
+        docCount++;
+    }
+
+    int docCount() {
+        return docCount;
+    }
+
+    void forEach(Visitor visitor) {
+        int pos = 0;
+        int doc = -1;
+        while (pos < size) {
+            int delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buf[pos++];
+                delta |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            int tf = 0;
+            shift = 0;
+            do {
+                b = buf[pos++];
+                tf |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            doc += delta;
+            visitor.visit(doc, tf);
+        }
+    }
+
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(docCount);
+        out.writeInt(lastDoc);
+        out.writeInt(size);
+        out.write(buf, 0, size);
+    }
+
+    static PostingList readFrom(ByteBuffer in) {
+        int docCount = in.getInt();
+        int lastDoc = in.getInt();
+        byte[] data = new byte[in.getInt()];
+        in.get(data);
+        return new PostingList(data, lastDoc, docCount);
+    }
+
+    private void writeVarInt(int value) {
+        while ((value & ~0x7F) != 0) {
+            buf[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buf[size++] = (byte) value;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (size + extra > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(buf.length * 2, size + extra));
+        }
+    }
+}
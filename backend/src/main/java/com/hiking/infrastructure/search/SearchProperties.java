@@ -0,0 +1,29 @@
+package com.hiking.infrastructure.search;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 帖子搜索索引配置属性
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "search.post")
+public class SearchProperties {
+
+    /**
+     * 是否启用内存倒排索引（关闭时回退数据库 LIKE 查询）
+     */
+    private boolean enabled = true;
+
+    /**
+     * 索引快照文件路径
+     */
+    private String snapshotPath = "data/post-search.idx";
+
+    /**
+     * 已删除文档占比超过该值时压缩索引
+     */
+    private double compactRatio = 0.25;
+}
@@ -0,0 +1,28 @@
+package com.hiking.interfaces.rest;
+
+import com.hiking.infrastructure.cache.CachingPostRepository;
+import com.hiking.interfaces.rest.common.ApiResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * 缓存监控接口
+ */
+@RestController
+@RequestMapping("/api/cache")
+@RequiredArgsConstructor
+@Tag(name = "缓存监控", description = "缓存命中率等统计")
+public class CacheController {
+    
+    private final CachingPostRepository cachingPostRepository;
+    
+    @GetMapping("/posts/stats")
+    @Operation(summary = "帖子缓存统计")
+    public ApiResponse<Map<String, Object>> getPostCacheStats() {
+        return ApiResponse.success(cachingPostRepository.stats());
+    }
+}
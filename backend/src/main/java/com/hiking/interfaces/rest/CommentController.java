@@ -2,7 +2,9 @@ package com.hiking.interfaces.rest;
 
 import com.hiking.application.comment.dto.*;
 import com.hiking.application.comment.service.CommentService;
+import com.hiking.application.common.dto.CursorPage;
 import com.hiking.interfaces.rest.common.ApiResponse;
+import com.hiking.interfaces.rest.common.RateLimit;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
@@ -20,6 +22,7 @@ public class CommentController {
     private final CommentService commentService;
     
     @PostMapping
+    @RateLimit("comment-create")
     @Operation(summary = "发表评论")
     public ApiResponse<Long> createComment(
             @RequestHeader("X-User-Id") Long userId,
@@ -39,6 +42,24 @@ public class CommentController {
         return ApiResponse.success(comments);
     }
     
+    @GetMapping("/post/{postId}/top")
+    @Operation(summary = "获取帖子的热门评论", description = "按点赞数倒序，游标为上一页返回的 nextCursor")
+    public ApiResponse<CursorPage<CommentDTO>> getTopComments(
+            @PathVariable Long postId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") Integer size) {
+        return ApiResponse.success(commentService.getTopComments(postId, cursor, size));
+    }
+    
+    @GetMapping("/{id}/replies")
+    @Operation(summary = "加载更多回复", description = "游标为上一页最后一条回复的ID，首次可传回复预览中最后一条的ID")
+    public ApiResponse<CursorPage<CommentDTO>> getReplies(
+            @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") Integer size) {
+        return ApiResponse.success(commentService.getReplies(id, cursor, size));
+    }
+    
     @DeleteMapping("/{id}")
     @Operation(summary = "删除评论")
     public ApiResponse<Void> deleteComment(
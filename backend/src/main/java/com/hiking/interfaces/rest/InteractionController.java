@@ -1,12 +1,23 @@
 package com.hiking.interfaces.rest;
 
+import com.hiking.application.common.dto.CursorPage;
+import com.hiking.application.interaction.dto.FollowSuggestionDTO;
+import com.hiking.application.interaction.dto.InteractionStatusDTO;
+import com.hiking.application.interaction.dto.InteractionStatusQuery;
+import com.hiking.application.interaction.dto.KnownFollowersDTO;
+import com.hiking.application.interaction.dto.ToggleResult;
+import com.hiking.application.interaction.service.FollowGraphService;
 import com.hiking.application.interaction.service.InteractionService;
+import com.hiking.application.interaction.service.InteractionStatusResolver;
+import com.hiking.application.user.dto.UserDTO;
 import com.hiking.interfaces.rest.common.ApiResponse;
+import com.hiking.interfaces.rest.common.RateLimit;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -19,42 +30,51 @@ import java.util.Map;
 public class InteractionController {
     
     private final InteractionService interactionService;
+    private final InteractionStatusResolver interactionStatusResolver;
+    private final FollowGraphService followGraphService;
+    
+    private static final int MAX_STATUS_IDS = 100;
+    private static final int MAX_BATCH_STATUS_IDS = 200;
     
     @PostMapping("/posts/{postId}/like")
+    @RateLimit("interaction")
     @Operation(summary = "点赞/取消点赞帖子")
-    public ApiResponse<Map<String, Boolean>> togglePostLike(
+    public ApiResponse<Map<String, Object>> togglePostLike(
             @PathVariable Long postId,
             @RequestHeader("X-User-Id") Long userId) {
-        boolean isLiked = interactionService.togglePostLike(userId, postId);
-        return ApiResponse.success(Map.of("isLiked", isLiked));
+        ToggleResult result = interactionService.togglePostLike(userId, postId);
+        return ApiResponse.success(Map.of("isLiked", result.isActive(), "likeCount", result.getCount()));
     }
     
     @PostMapping("/comments/{commentId}/like")
+    @RateLimit("interaction")
     @Operation(summary = "点赞/取消点赞评论")
-    public ApiResponse<Map<String, Boolean>> toggleCommentLike(
+    public ApiResponse<Map<String, Object>> toggleCommentLike(
             @PathVariable Long commentId,
             @RequestHeader("X-User-Id") Long userId) {
-        boolean isLiked = interactionService.toggleCommentLike(userId, commentId);
-        return ApiResponse.success(Map.of("isLiked", isLiked));
+        ToggleResult result = interactionService.toggleCommentLike(userId, commentId);
+        return ApiResponse.success(Map.of("isLiked", result.isActive(), "likeCount", result.getCount()));
     }
     
     @PostMapping("/posts/{postId}/collect")
+    @RateLimit("interaction")
     @Operation(summary = "收藏/取消收藏帖子")
-    public ApiResponse<Map<String, Boolean>> toggleCollection(
+    public ApiResponse<Map<String, Object>> toggleCollection(
             @PathVariable Long postId,
             @RequestHeader("X-User-Id") Long userId) {
-        boolean isCollected = interactionService.toggleCollection(userId, postId);
-        return ApiResponse.success(Map.of("isCollected", isCollected));
+        ToggleResult result = interactionService.toggleCollection(userId, postId);
+        return ApiResponse.success(Map.of("isCollected", result.isActive(), "collectCount", result.getCount()));
     }
     
     @PostMapping("/users/{targetUserId}/follow")
+    @RateLimit("interaction")
     @Operation(summary = "关注/取消关注用户")
-    public ApiResponse<Map<String, Boolean>> toggleFollow(
+    public ApiResponse<Map<String, Object>> toggleFollow(
             @PathVariable Long targetUserId,
             @RequestHeader("X-User-Id") Long userId) {
         try {
-            boolean isFollowing = interactionService.toggleFollow(userId, targetUserId);
-            return ApiResponse.success(Map.of("isFollowing", isFollowing));
+            ToggleResult result = interactionService.toggleFollow(userId, targetUserId);
+            return ApiResponse.success(Map.of("isFollowing", result.isActive(), "fansCount", result.getCount()));
         } catch (IllegalArgumentException e) {
             return ApiResponse.error(e.getMessage());
         }
@@ -86,4 +106,54 @@ public class InteractionController {
         boolean isFollowing = interactionService.isFollowing(userId, targetUserId);
         return ApiResponse.success(Map.of("isFollowing", isFollowing));
     }
+    
+    @GetMapping("/status")
+    @Operation(summary = "批量获取互动状态", description = "postIds 返回点赞/收藏状态，userIds 返回关注状态，每类最多100个")
+    public ApiResponse<InteractionStatusDTO> getStatus(
+            @RequestHeader("X-User-Id") Long userId,
+            @RequestParam(required = false) List<Long> postIds,
+            @RequestParam(required = false) List<Long> userIds) {
+        if ((postIds != null && postIds.size() > MAX_STATUS_IDS) || (userIds != null && userIds.size() > MAX_STATUS_IDS)) {
+            return ApiResponse.error(400, "单次最多查询" + MAX_STATUS_IDS + "个ID");
+        }
+        return ApiResponse.success(interactionStatusResolver.resolve(userId, postIds, userIds));
+    }
+    
+    @PostMapping("/status:batch")
+    @Operation(summary = "批量获取混合互动状态", description = "postIds 返回点赞/收藏状态，commentIds 返回评论点赞状态，userIds 返回关注状态，合计最多200个")
+    public ApiResponse<InteractionStatusDTO> getBatchStatus(
+            @RequestHeader("X-User-Id") Long userId,
+            @RequestBody InteractionStatusQuery query) {
+        if (query.size() > MAX_BATCH_STATUS_IDS) {
+            return ApiResponse.error(400, "单次最多查询" + MAX_BATCH_STATUS_IDS + "个ID");
+        }
+        return ApiResponse.success(interactionStatusResolver.resolve(
+                userId, query.getPostIds(), query.getCommentIds(), query.getUserIds()));
+    }
+    
+    @GetMapping("/follows/mutual")
+    @Operation(summary = "获取互相关注的用户")
+    public ApiResponse<CursorPage<UserDTO>> getMutualFollows(
+            @RequestHeader("X-User-Id") Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") Integer size) {
+        return ApiResponse.success(followGraphService.getMutualFollows(userId, cursor, size));
+    }
+    
+    @GetMapping("/users/{targetUserId}/known-followers")
+    @Operation(summary = "获取目标用户的粉丝中我关注的人")
+    public ApiResponse<KnownFollowersDTO> getKnownFollowers(
+            @RequestHeader("X-User-Id") Long userId,
+            @PathVariable Long targetUserId,
+            @RequestParam(defaultValue = "3") Integer size) {
+        return ApiResponse.success(followGraphService.getKnownFollowers(userId, targetUserId, size));
+    }
+    
+    @GetMapping("/follows/suggestions")
+    @Operation(summary = "获取可能认识的人")
+    public ApiResponse<List<FollowSuggestionDTO>> getFollowSuggestions(
+            @RequestHeader("X-User-Id") Long userId,
+            @RequestParam(defaultValue = "20") Integer size) {
+        return ApiResponse.success(followGraphService.getSuggestions(userId, size));
+    }
 }
@@ -1,16 +1,17 @@
 package com.hiking.interfaces.rest;
 
+import com.hiking.application.common.dto.CursorPage;
 import com.hiking.application.post.dto.*;
 import com.hiking.application.post.service.PostService;
 import com.hiking.interfaces.rest.common.ApiResponse;
+import com.hiking.interfaces.rest.common.RateLimit;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 /**
  * 帖子接口
  */
@@ -23,6 +24,7 @@ public class PostController {
     private final PostService postService;
     
     @PostMapping
+    @RateLimit("post-create")
     @Operation(summary = "发布帖子")
     public ApiResponse<Long> createPost(
             @RequestHeader("X-User-Id") Long userId,
@@ -35,8 +37,9 @@ public class PostController {
     @Operation(summary = "获取帖子详情")
     public ApiResponse<PostDTO> getPost(
             @PathVariable Long id,
-            @RequestHeader(value = "X-User-Id", required = false) Long userId) {
-        PostDTO post = postService.getPostDetail(id, userId);
+            @RequestHeader(value = "X-User-Id", required = false) Long userId,
+            HttpServletRequest httpRequest) {
+        PostDTO post = postService.getPostDetail(id, userId, clientIp(httpRequest));
         if (post == null) {
             return ApiResponse.error("帖子不存在");
         }
@@ -45,25 +48,48 @@ public class PostController {
     
     @GetMapping
     @Operation(summary = "获取帖子列表")
-    public ApiResponse<List<PostDTO>> getPosts(
+    public ApiResponse<CursorPage<PostDTO>> getPosts(
             @RequestHeader(value = "X-User-Id", required = false) Long userId,
             PostQueryRequest request) {
-        List<PostDTO> posts = postService.getPosts(request, userId);
+        CursorPage<PostDTO> posts = postService.getPosts(request, userId);
+        return ApiResponse.success(posts);
+    }
+    
+    @GetMapping("/feed")
+    @Operation(summary = "获取关注的人发布的帖子")
+    public ApiResponse<CursorPage<PostDTO>> getFollowFeed(
+            @RequestHeader("X-User-Id") Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") Integer size) {
+        CursorPage<PostDTO> posts = postService.getFollowFeed(userId, cursor, size);
+        return ApiResponse.success(posts);
+    }
+    
+    @GetMapping("/nearby")
+    @Operation(summary = "获取附近的帖子", description = "按距离升序，radius 单位为公里")
+    public ApiResponse<CursorPage<PostDTO>> getNearbyPosts(
+            @RequestHeader(value = "X-User-Id", required = false) Long userId,
+            @RequestParam Double lat,
+            @RequestParam Double lng,
+            @RequestParam(defaultValue = "5") Double radius,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") Integer size) {
+        CursorPage<PostDTO> posts = postService.getNearbyPosts(lat, lng, radius, cursor, size, userId);
         return ApiResponse.success(posts);
     }
     
     @GetMapping("/user/{targetUserId}")
     @Operation(summary = "获取用户的帖子")
-    public ApiResponse<List<PostDTO>> getUserPosts(
+    public ApiResponse<CursorPage<PostDTO>> getUserPosts(
             @PathVariable Long targetUserId,
             @RequestHeader(value = "X-User-Id", required = false) Long userId,
-            @RequestParam(defaultValue = "1") Integer page,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "10") Integer size) {
         PostQueryRequest request = new PostQueryRequest();
         request.setUserId(targetUserId);
-        request.setPage(page);
+        request.setCursor(cursor);
         request.setSize(size);
-        List<PostDTO> posts = postService.getPosts(request, userId);
+        CursorPage<PostDTO> posts = postService.getPosts(request, userId);
         return ApiResponse.success(posts);
     }
     
@@ -75,4 +101,15 @@ public class PostController {
         postService.deletePost(id, userId);
         return ApiResponse.success(null);
     }
+    
+    /**
+     * 客户端IP（经反向代理时取 X-Forwarded-For 第一段）
+     */
+    private String clientIp(HttpServletRequest request) {
+        String forwarded = request.getHeader("X-Forwarded-For");
+        if (forwarded != null && !forwarded.isBlank()) {
+            return forwarded.split(",")[0].trim();
+        }
+        return request.getRemoteAddr();
+    }
 }
@@ -1,5 +1,6 @@
 package com.hiking.interfaces.rest;
 
+import com.hiking.application.common.dto.CursorPage;
 import com.hiking.application.team.dto.*;
 import com.hiking.application.team.service.TeamApplicationService;
 import com.hiking.interfaces.rest.common.ApiResponse;
@@ -9241,6 +9242,42 @@ public class TeamController {
         return ApiResponse.success(members);
     }
 
+    /**
+     * 分页获取团队成员（已批准，按角色和加入时间排序）
+     */
+    @GetMapping("/{id}/members/page")
+    public ApiResponse<CursorPage<TeamMemberDTO>> getTeamMembersPage(
+            @PathVariable Long id,
+            @RequestHeader("X-User-Id") String visitorId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") Integer size) {
+        return ApiResponse.success(teamApplicationService.getTeamMembersPage(id, visitorId, cursor, size));
+    }
+
+    /**
+     * 按昵称前缀搜索团队成员
+     */
+    @GetMapping("/{id}/members/search")
+    public ApiResponse<List<TeamMemberDTO>> searchMembers(
+            @PathVariable Long id,
+            @RequestHeader("X-User-Id") String visitorId,
+            @RequestParam String keyword,
+            @RequestParam(defaultValue = "20") Integer size) {
+        return ApiResponse.success(teamApplicationService.searchMembers(id, visitorId, keyword, size));
+    }
+
+    /**
+     * 团队排行榜（board: distance 总距离 / hikes 徒步次数 / month 本月距离 / year 本年距离）
+     */
+    @GetMapping("/{id}/leaderboard")
+    public ApiResponse<TeamLeaderboardDTO> getLeaderboard(
+            @PathVariable Long id,
+            @RequestHeader("X-User-Id") String visitorId,
+            @RequestParam(defaultValue = "distance") String board,
+            @RequestParam(defaultValue = "20") Integer size) {
+        return ApiResponse.success(teamApplicationService.getLeaderboard(id, visitorId, board, size));
+    }
+
     /**
      * 获取待审批的申请列表
      */
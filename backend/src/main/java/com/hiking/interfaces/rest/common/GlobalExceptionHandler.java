@@ -1,7 +1,10 @@
 package com.hiking.interfaces.rest.common;
 
+import com.hiking.application.common.exception.ServiceUnavailableException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.MissingRequestHeaderException;
@@ -61,6 +64,29 @@ public class GlobalExceptionHandler {
         return ApiResponse.error(403, e.getMessage());
     }
 
+    /**
+     * 处理依赖数据暂不可用异常：返回 503，客户端可稍后重试
+     */
+    @ExceptionHandler(ServiceUnavailableException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ApiResponse<Void> handleServiceUnavailableException(ServiceUnavailableException e) {
+        log.warn("服务暂不可用: {}", e.getMessage());
+        return ApiResponse.error(503, e.getMessage());
+    }
+
+    /**
+     * 处理限流异常：返回 429，Retry-After 头给出秒数，响应体给出毫秒数
+     */
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<ApiResponse<Long>> handleRateLimitExceededException(RateLimitExceededException e) {
+        long retryAfterSeconds = (e.getRetryAfterMillis() + 999) / 1000;
+        ApiResponse<Long> body = ApiResponse.error(429, "请求过于频繁，请 " + retryAfterSeconds + " 秒后重试");
+        body.setData(e.getRetryAfterMillis());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(body);
+    }
+
     /**
      * 处理其他未知异常
      */
@@ -0,0 +1,21 @@
+package com.hiking.interfaces.rest.common;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 按用户限流的接口，同一类别的接口共享一个令牌桶，参数见 rate-limit.routes
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RateLimit {
+
+    /**
+     * 接口类别
+     */
+    String value();
+}
@@ -0,0 +1,20 @@
+package com.hiking.interfaces.rest.common;
+
+import lombok.Getter;
+
+/**
+ * 请求超过限流阈值
+ */
+@Getter
+public class RateLimitExceededException extends RuntimeException {
+
+    /**
+     * 建议重试等待毫秒数
+     */
+    private final long retryAfterMillis;
+
+    public RateLimitExceededException(long retryAfterMillis) {
+        super("请求过于频繁，请稍后重试");
+        this.retryAfterMillis = retryAfterMillis;
+    }
+}
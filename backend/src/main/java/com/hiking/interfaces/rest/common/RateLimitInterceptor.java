@@ -0,0 +1,46 @@
+package com.hiking.interfaces.rest.common;
+
+import com.hiking.infrastructure.redis.RedisRateLimiter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * 限流拦截器：对标注 {@link RateLimit} 的接口按 X-User-Id 与接口类别取令牌，取不到时抛出
+ * {@link RateLimitExceededException}，由全局异常处理器返回 429
+ * <p>
+ * 缺少或无法解析 X-User-Id 的请求不在这里处理，交给接口本身的参数校验
+ */
+@Component
+@RequiredArgsConstructor
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private static final String USER_ID_HEADER = "X-User-Id";
+
+    private final RedisRateLimiter rateLimiter;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod method)) {
+            return true;
+        }
+        RateLimit rateLimit = method.getMethodAnnotation(RateLimit.class);
+        if (rateLimit == null) {
+            return true;
+        }
+        Long userId;
+        try {
+            userId = Long.valueOf(request.getHeader(USER_ID_HEADER));
+        } catch (NumberFormatException e) {
+            return true;
+        }
+        long retryAfterMillis = rateLimiter.tryAcquire(rateLimit.value(), userId);
+        if (retryAfterMillis > 0) {
+            throw new RateLimitExceededException(retryAfterMillis);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,10 @@
+-- V3: 帖子列表游标分页索引
+
+-- 最新列表: WHERE status = ? ORDER BY create_time DESC, id DESC
+CREATE INDEX idx_status_create_time_id ON post (status, create_time, id);
+
+-- 热门列表: WHERE status = ? ORDER BY like_count DESC, id DESC
+CREATE INDEX idx_status_like_count_id ON post (status, like_count, id);
+
+-- 用户主页: WHERE user_id = ? AND status = ? ORDER BY create_time DESC, id DESC
+CREATE INDEX idx_user_status_create_time_id ON post (user_id, status, create_time, id);
@@ -0,0 +1,2 @@
+-- V4: 帖子搜索索引增量同步（按 update_time 扫描变更）
+CREATE INDEX idx_update_time ON post (update_time);
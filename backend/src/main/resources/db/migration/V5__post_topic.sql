@@ -0,0 +1,10 @@
+-- V5: 帖子话题关联表（替代 topics JSON 列上的 LIKE 查询）
+
+-- 话题页: WHERE topic = ? AND post_id < ? ORDER BY post_id DESC，主键范围扫描
+CREATE TABLE IF NOT EXISTS post_topic (
+    topic VARCHAR(100) NOT NULL COMMENT '话题',
+    post_id BIGINT NOT NULL COMMENT '帖子ID',
+    create_time DATETIME NOT NULL COMMENT '创建时间',
+    PRIMARY KEY (topic, post_id),
+    INDEX idx_post_id (post_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='帖子话题关联表';
@@ -0,0 +1,13 @@
+-- V6: 评论回复数与回复分页索引
+
+-- 一级评论的回复数，发表/删除回复时与回复写入同一事务增减
+ALTER TABLE comment ADD COLUMN reply_count INT NOT NULL DEFAULT 0 COMMENT '回复数' AFTER like_count;
+
+UPDATE comment c
+JOIN (SELECT parent_id, COUNT(*) AS cnt FROM comment WHERE parent_id > 0 AND status = 1 GROUP BY parent_id) r
+  ON r.parent_id = c.id
+SET c.reply_count = r.cnt;
+
+-- 一页评论的回复预览: WHERE parent_id IN (...) AND status = ? 按 parent_id 分区取前 N 条
+-- 加载更多回复: WHERE parent_id = ? AND status = ? AND id > ? ORDER BY id
+CREATE INDEX idx_parent_status_id ON comment (parent_id, status, id);
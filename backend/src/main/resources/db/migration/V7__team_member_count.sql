@@ -0,0 +1,15 @@
+-- V7: 团队成员数冗余字段与成员列表游标分页索引
+
+-- 已批准成员数，成员加入/审批通过/退出/被移除时与成员写入同一事务增减
+ALTER TABLE team ADD COLUMN member_count INT NOT NULL DEFAULT 0 COMMENT '已批准成员数' AFTER owner_id;
+
+UPDATE team t
+JOIN (SELECT team_id, COUNT(*) AS cnt FROM team_member WHERE status = 'APPROVED' GROUP BY team_id) m
+  ON m.team_id = t.id
+SET t.member_count = m.cnt;
+
+-- 角色排序值（OWNER 0、ADMIN 1、MEMBER 2），由数据库按 role 生成，实体不映射
+ALTER TABLE team_member ADD COLUMN role_rank TINYINT AS (CASE role WHEN 'OWNER' THEN 0 WHEN 'ADMIN' THEN 1 ELSE 2 END) STORED COMMENT '角色排序值' AFTER role;
+
+-- 成员列表: WHERE team_id = ? AND status = 'APPROVED' ORDER BY role_rank, join_time, id
+CREATE INDEX idx_team_status_rank_join_id ON team_member (team_id, status, role_rank, join_time, id);
@@ -0,0 +1,9 @@
+-- V8: 计数折叠写回日志
+
+-- 每批折叠写回与本表插入在同一事务提交，重放同一批次时 INSERT IGNORE 影响 0 行即跳过，避免重复累加
+CREATE TABLE IF NOT EXISTS counter_fold_log (
+    fold_id VARCHAR(64) NOT NULL COMMENT '折叠批次号（轮次:批内首个目标ID）',
+    create_time DATETIME NOT NULL COMMENT '写回时间',
+    PRIMARY KEY (fold_id),
+    INDEX idx_create_time (create_time)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='计数折叠写回日志';
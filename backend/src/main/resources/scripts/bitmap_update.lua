@@ -0,0 +1,171 @@
+-- Roaring 风格位图集合的更新
+-- 一个哈希表示一个集合：字段 '#' 为基数，其余字段名为成员高位（member >> 16），值为低 16 位的容器：
+--   元素不超过 4095 个时为升序的 2 字节大端数组；超过后转为 8192 字节位图（低位 v 对应第 v/8 字节的第 v%8 位），
+--   位图容器删除成员后降到 4095 个及以下时转回数组，容器为空时删除字段
+-- KEYS[1] 位图哈希, KEYS[2] 写回流水 Stream（仅 toggle）
+-- toggle: ARGV = 'toggle', 成员（用户ID）, 高位, 低位, 事件类型, 目标ID, 时间戳（毫秒）, 流水近似长度上限
+--         返回 {切换后状态(1 加入 / 0 移除), 基数}
+-- add:    ARGV = 'add', 高位, 个数 n, 低位 1..n（升序）, 高位, 个数, ...  批量并入成员，不记录写回事件
+--         返回 {新增成员数, 基数}
+local ARRAY_MAX = 4095
+local BITMAP_BYTES = 8192
+local CARD_FIELD = '#'
+
+local function to_string(bytes)
+    local parts = {}
+    for i = 1, #bytes, 4096 do
+        parts[#parts + 1] = string.char(unpack(bytes, i, math.min(i + 4095, #bytes)))
+    end
+    return table.concat(parts)
+end
+
+local function decode(c)
+    local lows = {}
+    if #c == BITMAP_BYTES then
+        for i = 1, BITMAP_BYTES do
+            local b = string.byte(c, i)
+            if b ~= 0 then
+                for j = 0, 7 do
+                    if bit.band(b, bit.lshift(1, j)) ~= 0 then
+                        lows[#lows + 1] = (i - 1) * 8 + j
+                    end
+                end
+            end
+        end
+    else
+        for i = 1, #c, 2 do
+            local hi, lo = string.byte(c, i, i + 1)
+            lows[#lows + 1] = hi * 256 + lo
+        end
+    end
+    return lows
+end
+
+local function encode(lows)
+    local bytes = {}
+    if #lows <= ARRAY_MAX then
+        for i, v in ipairs(lows) do
+            bytes[2 * i - 1] = math.floor(v / 256)
+            bytes[2 * i] = v % 256
+        end
+    else
+        for i = 1, BITMAP_BYTES do
+            bytes[i] = 0
+        end
+        for _, v in ipairs(lows) do
+            local idx = math.floor(v / 8) + 1
+            bytes[idx] = bit.bor(bytes[idx], bit.lshift(1, v % 8))
+        end
+    end
+    return to_string(bytes)
+end
+
+-- 数组容器二分查找，返回 是否存在, 元素下标或插入位置（从 0 开始）
+local function search(c, low)
+    local lo, hi = 0, #c / 2 - 1
+    while lo <= hi do
+        local mid = math.floor((lo + hi) / 2)
+        local a, b = string.byte(c, 2 * mid + 1, 2 * mid + 2)
+        local v = a * 256 + b
+        if v == low then
+            return true, mid
+        elseif v < low then
+            lo = mid + 1
+        else
+            hi = mid - 1
+        end
+    end
+    return false, lo
+end
+
+local function toggle(key, field, low)
+    local c = redis.call('HGET', key, field) or ''
+    local state
+    if #c == BITMAP_BYTES then
+        local idx = math.floor(low / 8) + 1
+        local b = string.byte(c, idx)
+        local mask = bit.lshift(1, low % 8)
+        if bit.band(b, mask) ~= 0 then
+            b = bit.band(b, bit.bnot(mask))
+            state = 0
+        else
+            b = bit.bor(b, mask)
+            state = 1
+        end
+        c = string.sub(c, 1, idx - 1) .. string.char(b) .. string.sub(c, idx + 1)
+        if state == 0 then
+            -- encode 按元素数选择格式：不超过 ARRAY_MAX 时转回数组，为空时得到空串
+            c = encode(decode(c))
+        end
+    else
+        local found, pos = search(c, low)
+        if found then
+            c = string.sub(c, 1, 2 * pos) .. string.sub(c, 2 * pos + 3)
+            state = 0
+        elseif #c / 2 < ARRAY_MAX then
+            c = string.sub(c, 1, 2 * pos) .. string.char(math.floor(low / 256), low % 256) .. string.sub(c, 2 * pos + 1)
+            state = 1
+        else
+            local lows = decode(c)
+            table.insert(lows, pos + 1, low)
+            c = encode(lows)
+            state = 1
+        end
+    end
+    if #c == 0 then
+        redis.call('HDEL', key, field)
+    else
+        redis.call('HSET', key, field, c)
+    end
+    return state
+end
+
+local function merge(key, field, incoming)
+    local existing = decode(redis.call('HGET', key, field) or '')
+    local merged = {}
+    local i, j = 1, 1
+    while i <= #existing or j <= #incoming do
+        local x, y = existing[i], incoming[j]
+        if y == nil or (x ~= nil and x < y) then
+            merged[#merged + 1] = x
+            i = i + 1
+        elseif x == nil or y < x then
+            merged[#merged + 1] = y
+            j = j + 1
+        else
+            merged[#merged + 1] = x
+            i = i + 1
+            j = j + 1
+        end
+    end
+    local added = #merged - #existing
+    if added > 0 then
+        redis.call('HSET', key, field, encode(merged))
+    end
+    return added
+end
+
+if ARGV[1] == 'toggle' then
+    local state = toggle(KEYS[1], ARGV[3], tonumber(ARGV[4]))
+    local card = redis.call('HINCRBY', KEYS[1], CARD_FIELD, state == 1 and 1 or -1)
+    if card <= 0 then
+        redis.call('DEL', KEYS[1])
+        card = 0
+    end
+    redis.call('XADD', KEYS[2], 'MAXLEN', '~', ARGV[8], '*',
+        't', ARGV[5], 'u', ARGV[2], 'g', ARGV[6], 'op', state, 'ts', ARGV[7])
+    return {state, card}
+end
+
+local added = 0
+local i = 2
+while i <= #ARGV do
+    local field, n = ARGV[i], tonumber(ARGV[i + 1])
+    local incoming = {}
+    for k = 1, n do
+        incoming[k] = tonumber(ARGV[i + 1 + k])
+    end
+    added = added + merge(KEYS[1], field, incoming)
+    i = i + 2 + n
+end
+return {added, redis.call('HINCRBY', KEYS[1], CARD_FIELD, added)}
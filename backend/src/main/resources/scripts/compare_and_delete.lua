@@ -0,0 +1,7 @@
+-- 释放锁：值与持有者令牌一致才删除
+-- KEYS[1] 锁键
+-- ARGV[1] 持有者令牌
+if redis.call('GET', KEYS[1]) == ARGV[1] then
+    return redis.call('DEL', KEYS[1])
+end
+return 0
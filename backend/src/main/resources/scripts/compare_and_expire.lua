@@ -0,0 +1,9 @@
+-- 续期锁：值与持有者令牌一致才重设过期时间
+-- KEYS[1] 锁键
+-- ARGV[1] 持有者令牌
+-- ARGV[2] 过期时间（毫秒）
+-- 返回 1 已续期 / 0 锁已不属于持有者
+if redis.call('GET', KEYS[1]) == ARGV[1] then
+    return redis.call('PEXPIRE', KEYS[1], ARGV[2])
+end
+return 0
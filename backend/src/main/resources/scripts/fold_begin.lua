@@ -0,0 +1,21 @@
+-- 开始一轮计数折叠：折叠哈希存在时沿用其批次号，否则把待写回哈希改名为折叠哈希并记录新批次号
+-- 改名与记录批次号原子完成，批次号用于数据库侧的幂等去重
+-- KEYS[1] 待写回哈希
+-- KEYS[2] 折叠哈希
+-- KEYS[3] 批次号
+-- ARGV[1] 新批次号
+-- 返回本轮批次号，无可折叠数据时返回 false
+if redis.call('EXISTS', KEYS[2]) == 1 then
+    local current = redis.call('GET', KEYS[3])
+    if current then
+        return current
+    end
+    redis.call('SET', KEYS[3], ARGV[1])
+    return ARGV[1]
+end
+if redis.call('EXISTS', KEYS[1]) == 0 then
+    return false
+end
+redis.call('RENAME', KEYS[1], KEYS[2])
+redis.call('SET', KEYS[3], ARGV[1])
+return ARGV[1]
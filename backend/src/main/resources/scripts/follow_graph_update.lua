@@ -0,0 +1,30 @@
+-- 关注切换后增量维护关注图缓存，缓存不存在时不创建（下次读取时整体构建）
+-- 推荐缓存只在关注时增量加分，取消关注时整体失效
+-- KEYS[1] 关注者的互关缓存, KEYS[2] 被关注者的互关缓存, KEYS[3] 被关注者的关注集合,
+-- KEYS[4] 关注者的推荐缓存 ZSET, KEYS[5] 关注者的关注集合
+-- ARGV[1] 关注者ID, ARGV[2] 被关注者ID, ARGV[3] 切换后状态(1 关注 / 0 取消), ARGV[4] 推荐候选抽样数
+if ARGV[3] == '1' then
+    if redis.call('SISMEMBER', KEYS[3], ARGV[1]) == 1 then
+        if redis.call('EXISTS', KEYS[1]) == 1 then
+            redis.call('SADD', KEYS[1], ARGV[2])
+        end
+        if redis.call('EXISTS', KEYS[2]) == 1 then
+            redis.call('SADD', KEYS[2], ARGV[1])
+        end
+    end
+    if redis.call('EXISTS', KEYS[4]) == 1 then
+        redis.call('ZREM', KEYS[4], ARGV[2])
+        -- 新关注的人所关注的用户成为候选，共同关注数加一
+        for _, member in ipairs(redis.call('SRANDMEMBER', KEYS[3], ARGV[4])) do
+            if member ~= ARGV[1] and redis.call('SISMEMBER', KEYS[5], member) == 0 then
+                redis.call('ZINCRBY', KEYS[4], 1, member)
+            end
+        end
+    end
+else
+    redis.call('SREM', KEYS[1], ARGV[2])
+    redis.call('SREM', KEYS[2], ARGV[1])
+    -- 关注时的加分来自抽样，无法精确撤销，取消关注时直接删除推荐缓存，下次读取时整体重算
+    redis.call('DEL', KEYS[4])
+end
+return 1
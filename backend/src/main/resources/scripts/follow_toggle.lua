@@ -0,0 +1,17 @@
+-- 关注切换：关注列表与粉丝列表在同一脚本内同时修改，两边始终一致，并把变更追加到写回流水
+-- KEYS[1] 关注者的关注集合, KEYS[2] 被关注者的粉丝集合, KEYS[3] 写回流水 Stream
+-- ARGV[1] 被关注者ID, ARGV[2] 关注者ID, ARGV[3] 时间戳（毫秒）, ARGV[4] 流水近似长度上限
+-- 返回 {切换后状态(1 关注 / 0 取消), 关注者关注数, 被关注者粉丝数}
+local state
+if redis.call('SISMEMBER', KEYS[1], ARGV[1]) == 1 then
+    redis.call('SREM', KEYS[1], ARGV[1])
+    redis.call('SREM', KEYS[2], ARGV[2])
+    state = 0
+else
+    redis.call('SADD', KEYS[1], ARGV[1])
+    redis.call('SADD', KEYS[2], ARGV[2])
+    state = 1
+end
+redis.call('XADD', KEYS[3], 'MAXLEN', '~', ARGV[4], '*',
+    't', 'follow', 'u', ARGV[2], 'g', ARGV[1], 'op', state, 'ts', ARGV[3])
+return {state, redis.call('SCARD', KEYS[1]), redis.call('SCARD', KEYS[2])}
@@ -0,0 +1,21 @@
+-- 热度榜压缩：重设衰减纪元并裁剪已衰减出榜的帖子
+-- KEYS[1] 热度榜 ZSET, KEYS[2] 衰减纪元（秒）
+-- ARGV[1] 当前时间（秒）, ARGV[2] 半衰期（秒）, ARGV[3] 最低保留分数（按当前时间衰减后）, ARGV[4] 榜单容量
+local now = tonumber(ARGV[1])
+local epoch = tonumber(redis.call('GET', KEYS[2]))
+if not epoch then
+    return 0
+end
+local factor = 2 ^ ((now - epoch) / tonumber(ARGV[2]))
+local removed = redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', '(' .. string.format('%.17g', tonumber(ARGV[3]) * factor))
+-- 所有分数除以当前系数，纪元前移到 now，避免分数指数增长溢出
+if redis.call('EXISTS', KEYS[1]) == 1 then
+    redis.call('ZUNIONSTORE', KEYS[1], 1, KEYS[1], 'WEIGHTS', string.format('%.17g', 1 / factor))
+end
+redis.call('SET', KEYS[2], ARGV[1])
+local size = redis.call('ZCARD', KEYS[1])
+local capacity = tonumber(ARGV[4])
+if size > capacity then
+    removed = removed + redis.call('ZREMRANGEBYRANK', KEYS[1], 0, size - capacity - 1)
+end
+return removed
@@ -0,0 +1,38 @@
+-- 帖子热度增量（前向衰减）
+-- KEYS[1] 热度榜 ZSET, KEYS[2] 衰减纪元（秒）, KEYS[3] 事件时间哈希（可选，点赞/收藏按用户记录发生时间）
+-- ARGV[1] 帖子ID, ARGV[2] 事件权重（撤销为负）, ARGV[3] 当前时间（秒）, ARGV[4] 半衰期（秒）,
+-- ARGV[5] 事件发生时间（秒，撤销时为原事件时间）, ARGV[6] 事件时间哈希字段, ARGV[7] 事件时间保留秒数
+-- 返回 更新后的分数；撤销的原事件已不可考（超出保留期或帖子已出榜）时不做修改
+local now = tonumber(ARGV[3])
+local weight = tonumber(ARGV[2])
+local eventTime = tonumber(ARGV[5])
+if KEYS[3] then
+    if weight > 0 then
+        redis.call('HSET', KEYS[3], ARGV[6], ARGV[5])
+        redis.call('EXPIRE', KEYS[3], ARGV[7])
+    else
+        eventTime = tonumber(redis.call('HGET', KEYS[3], ARGV[6]))
+        if not eventTime then
+            return '0'
+        end
+        redis.call('HDEL', KEYS[3], ARGV[6])
+    end
+end
+if weight < 0 and not redis.call('ZSCORE', KEYS[1], ARGV[1]) then
+    return '0'
+end
+local epoch = tonumber(redis.call('GET', KEYS[2]))
+if not epoch then
+    epoch = now
+    redis.call('SET', KEYS[2], ARGV[3])
+end
+-- 事件越新权重越大：weight * 2^((eventTime - epoch) / halfLife)，等价于所有旧分数按半衰期衰减；
+-- 撤销按原事件时间换算，正好抵消当初加上的分数
+local delta = weight * 2 ^ ((eventTime - epoch) / tonumber(ARGV[4]))
+local score = tonumber(redis.call('ZINCRBY', KEYS[1], delta, ARGV[1]))
+-- 浮点误差可能略低于 0，归零但不移出榜单（只有删除帖子才移出）
+if score < 0 then
+    redis.call('ZADD', KEYS[1], 0, ARGV[1])
+    score = 0
+end
+return tostring(score)
@@ -0,0 +1,13 @@
+-- 按版本号回填哈希字段：读取数据库前后版本号一致时才写入，字段已存在时不覆盖；
+-- 只在哈希新建时设置过期时间，频繁回填不会让整个哈希永不过期
+-- KEYS[1] 哈希, KEYS[2] 版本号
+-- ARGV[1] 读取数据库前的版本号（不存在时为空串）, ARGV[2] 字段, ARGV[3] 值, ARGV[4] 过期时间（秒）
+-- 返回 1 已写入或字段已存在 / 0 版本已变化，未写入
+if (redis.call('GET', KEYS[2]) or '') ~= ARGV[1] then
+    return 0
+end
+redis.call('HSETNX', KEYS[1], ARGV[2], ARGV[3])
+if redis.call('TTL', KEYS[1]) == -1 then
+    redis.call('EXPIRE', KEYS[1], ARGV[4])
+end
+return 1
@@ -0,0 +1,13 @@
+-- 记录访客并返回基数估计的增量：PFADD 的返回值只表示寄存器是否变化，
+-- 新访客未改动任何寄存器时返回 0，按它计数会系统性少计；前后两次 PFCOUNT 之差累加起来等于基数估计本身
+-- KEYS[1] HyperLogLog
+-- ARGV[1] 访客标识, ARGV[2] 过期时间（秒）
+-- 返回 本次带来的基数增量（不小于 0）
+local before = redis.call('PFCOUNT', KEYS[1])
+redis.call('PFADD', KEYS[1], ARGV[1])
+local after = redis.call('PFCOUNT', KEYS[1])
+redis.call('EXPIRE', KEYS[1], ARGV[2])
+if after > before then
+    return after - before
+end
+return 0
@@ -0,0 +1,9 @@
+-- 只在集合已存在时加入成员，避免在缓存过期后建出只含部分成员的集合
+-- KEYS[1] 集合
+-- ARGV[1] 成员
+-- 返回 1 已写入 / 0 集合不存在
+if redis.call('EXISTS', KEYS[1]) == 0 then
+    return 0
+end
+redis.call('SADD', KEYS[1], ARGV[1])
+return 1
@@ -0,0 +1,16 @@
+-- 按版本号回填集合：读取数据库前后版本号一致且集合不存在时才写入，
+-- 避免回填读到的旧数据覆盖读库期间已提交的变更（变更方先递增版本号再修改集合）
+-- KEYS[1] 集合, KEYS[2] 版本号
+-- ARGV[1] 读取数据库前的版本号（不存在时为空串）, ARGV[2] 过期时间（秒）, ARGV[3..] 成员
+-- 返回 1 已写入或集合已存在且版本未变 / 0 版本已变化，未写入
+if (redis.call('GET', KEYS[2]) or '') ~= ARGV[1] then
+    return 0
+end
+if redis.call('EXISTS', KEYS[1]) == 1 then
+    return 1
+end
+for i = 3, #ARGV, 5000 do
+    redis.call('SADD', KEYS[1], unpack(ARGV, i, math.min(i + 4999, #ARGV)))
+end
+redis.call('EXPIRE', KEYS[1], ARGV[2])
+return 1
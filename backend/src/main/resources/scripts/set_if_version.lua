@@ -0,0 +1,10 @@
+-- 按版本号回填缓存：读库期间版本未变化才写入，避免把旧数据写回缓存
+-- （变更方在事务提交后先递增版本号再删除缓存）
+-- KEYS[1] 缓存键, KEYS[2] 版本键
+-- ARGV[1] 读库前的版本（版本键不存在时为 0）, ARGV[2] 缓存值, ARGV[3] 过期时间（秒）
+local current = redis.call('GET', KEYS[2]) or '0'
+if current ~= ARGV[1] then
+    return 0
+end
+redis.call('SET', KEYS[1], ARGV[2], 'EX', ARGV[3])
+return 1
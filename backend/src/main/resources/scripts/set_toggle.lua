@@ -0,0 +1,15 @@
+-- 集合成员切换（点赞/收藏）：存在则移除，不存在则加入，并把变更追加到写回流水
+-- KEYS[1] 集合, KEYS[2] 写回流水 Stream
+-- ARGV[1] 成员（用户ID）, ARGV[2] 事件类型, ARGV[3] 目标ID, ARGV[4] 时间戳（毫秒）, ARGV[5] 流水近似长度上限
+-- 返回 {切换后状态(1 加入 / 0 移除), 集合基数}
+local state
+if redis.call('SISMEMBER', KEYS[1], ARGV[1]) == 1 then
+    redis.call('SREM', KEYS[1], ARGV[1])
+    state = 0
+else
+    redis.call('SADD', KEYS[1], ARGV[1])
+    state = 1
+end
+redis.call('XADD', KEYS[2], 'MAXLEN', '~', ARGV[5], '*',
+    't', ARGV[2], 'u', ARGV[1], 'g', ARGV[3], 'op', state, 'ts', ARGV[4])
+return {state, redis.call('SCARD', KEYS[1])}
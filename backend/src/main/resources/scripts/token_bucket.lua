@@ -0,0 +1,33 @@
+-- 令牌桶限流：桶为哈希 {tokens, ts}，按 Redis 服务器时间补充令牌
+-- KEYS[1] 令牌桶
+-- ARGV[1] 桶容量, ARGV[2] 每秒补充令牌数, ARGV[3] 额外预取上限（剩余令牌不低于容量一半时才预取）
+-- 返回 {获得的令牌数（0 表示被限流）, 建议重试等待毫秒数}
+local capacity = tonumber(ARGV[1])
+local rate = tonumber(ARGV[2])
+local lease = tonumber(ARGV[3])
+
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+local bucket = redis.call('HMGET', KEYS[1], 'tokens', 'ts')
+local tokens = tonumber(bucket[1]) or capacity
+local ts = tonumber(bucket[2]) or now
+tokens = math.min(capacity, tokens + math.max(now - ts, 0) * rate / 1000)
+
+local granted = 0
+local retry = 0
+if tokens >= 1 then
+    granted = 1
+    tokens = tokens - 1
+    local headroom = math.floor(tokens - capacity / 2)
+    if lease > 0 and headroom > 0 then
+        local extra = math.min(lease, headroom)
+        granted = granted + extra
+        tokens = tokens - extra
+    end
+else
+    retry = math.ceil((1 - tokens) * 1000 / rate)
+end
+
+redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', now)
+redis.call('PEXPIRE', KEYS[1], math.ceil(capacity * 1000 / rate) + 1000)
+return {granted, retry}
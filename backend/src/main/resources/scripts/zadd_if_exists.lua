@@ -0,0 +1,9 @@
+-- 只在有序集合已存在时写入成员，避免在缓存过期后建出只含部分成员的集合
+-- KEYS[1] 有序集合
+-- ARGV[1] 分数, ARGV[2] 成员
+-- 返回 1 已写入 / 0 集合不存在
+if redis.call('EXISTS', KEYS[1]) == 0 then
+    return 0
+end
+redis.call('ZADD', KEYS[1], ARGV[1], ARGV[2])
+return 1
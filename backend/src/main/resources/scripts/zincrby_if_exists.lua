@@ -0,0 +1,12 @@
+-- 只在有序集合已存在时累加成员分数，避免在榜单过期后建出只含部分成员的榜单
+-- KEYS[i] 有序集合
+-- ARGV[1] 成员, ARGV[i + 1] 对应 KEYS[i] 的增量
+-- 返回 实际累加的集合数
+local n = 0
+for i, key in ipairs(KEYS) do
+    if redis.call('EXISTS', key) == 1 then
+        redis.call('ZINCRBY', key, ARGV[i + 1], ARGV[1])
+        n = n + 1
+    end
+end
+return n
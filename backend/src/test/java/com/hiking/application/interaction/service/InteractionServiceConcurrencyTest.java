@@ -0,0 +1,193 @@
+package com.hiking.application.interaction.service;
+
+import com.hiking.application.comment.service.CommentRankService;
+import com.hiking.application.interaction.dto.ToggleResult;
+import com.hiking.application.post.service.PostHotRankService;
+import com.hiking.application.post.service.PostTimelineService;
+import com.hiking.infrastructure.config.WriteBehindProperties;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 互动切换并发测试：多线程对同一批成员反复连点，每次切换恰好追加一条写回事件，
+ * 且每个成员最后一条事件的状态与 Redis 集合一致（写回消费者据此落库不会漂移）
+ * <p>
+ * 需要本地 Redis（localhost:6379 或环境变量 REDIS_HOST/REDIS_PORT），不可用时跳过
+ */
+class InteractionServiceConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int USERS = 20;
+    private static final int TOGGLES_PER_THREAD = 500;
+
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate redisTemplate;
+
+    private final long postId = 900_000_000L + ThreadLocalRandom.current().nextInt(1_000_000);
+    private final long userBase = 900_000_000L + ThreadLocalRandom.current().nextInt(1_000_000) * 100L;
+    private final List<RecordId> testEvents = new ArrayList<>();
+
+    private InteractionService interactionService;
+
+    @BeforeAll
+    static void connect() {
+        String host = System.getenv().getOrDefault("REDIS_HOST", "localhost");
+        int port = Integer.parseInt(System.getenv().getOrDefault("REDIS_PORT", "6379"));
+        connectionFactory = new LettuceConnectionFactory(host, port);
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+        boolean available;
+        try {
+            available = "PONG".equals(redisTemplate.execute(connection -> connection.ping(), true));
+        } catch (Exception e) {
+            available = false;
+        }
+        Assumptions.assumeTrue(available, "本地 Redis 不可用，跳过并发测试");
+    }
+
+    @AfterAll
+    static void disconnect() {
+        if (connectionFactory != null) {
+            connectionFactory.destroy();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        WriteBehindProperties properties = new WriteBehindProperties();
+        InteractionRebuildService rebuildService = mock(InteractionRebuildService.class);
+        when(rebuildService.isComplete()).thenReturn(true);
+        interactionService = new InteractionService(
+                redisTemplate,
+                new RedisSetInteractionStore(redisTemplate, properties),
+                properties,
+                mock(PostHotRankService.class),
+                mock(PostTimelineService.class),
+                mock(FollowGraphService.class),
+                mock(CommentRankService.class),
+                rebuildService);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        List<String> keys = new ArrayList<>();
+        keys.add(InteractionService.POST_LIKE_KEY + postId);
+        keys.add(InteractionService.USER_FANS_KEY + userBase);
+        for (int i = 1; i <= USERS; i++) {
+            keys.add(InteractionService.USER_FOLLOWING_KEY + (userBase + i));
+        }
+        redisTemplate.delete(keys);
+        if (!testEvents.isEmpty()) {
+            redisTemplate.opsForStream().delete(InteractionService.WRITE_BEHIND_STREAM,
+                    testEvents.toArray(new RecordId[0]));
+        }
+    }
+
+    @Test
+    void concurrentLikeTogglesNeverDrift() throws Exception {
+        List<ToggleResult> results = runConcurrently(
+                userId -> interactionService.togglePostLike(userId, postId));
+
+        Set<String> likers = redisTemplate.opsForSet().members(InteractionService.POST_LIKE_KEY + postId);
+        assertThat(likers).isNotNull();
+        assertThat(results).allSatisfy(r -> assertThat(r.getCount()).isBetween(0L, (long) USERS));
+
+        Map<String, String> lastOps = lastOpsByUser(InteractionService.EVENT_LIKE, postId);
+        assertThat(testEvents).hasSize(THREADS * TOGGLES_PER_THREAD);
+        lastOps.forEach((userId, op) -> assertThat("1".equals(op)).isEqualTo(likers.contains(userId)));
+        assertThat(lastOps.values().stream().filter("1"::equals).count()).isEqualTo(likers.size());
+    }
+
+    @Test
+    void concurrentFollowTogglesKeepBothSidesConsistent() throws Exception {
+        long target = userBase;
+        runConcurrently(userId -> interactionService.toggleFollow(userId, target));
+
+        Set<String> fans = redisTemplate.opsForSet().members(InteractionService.USER_FANS_KEY + target);
+        assertThat(fans).isNotNull();
+        for (int i = 1; i <= USERS; i++) {
+            long userId = userBase + i;
+            boolean following = Boolean.TRUE.equals(redisTemplate.opsForSet()
+                    .isMember(InteractionService.USER_FOLLOWING_KEY + userId, String.valueOf(target)));
+            assertThat(fans.contains(String.valueOf(userId))).isEqualTo(following);
+        }
+
+        Map<String, String> lastOps = lastOpsByUser(InteractionService.EVENT_FOLLOW, target);
+        assertThat(testEvents).hasSize(THREADS * TOGGLES_PER_THREAD);
+        lastOps.forEach((userId, op) -> assertThat("1".equals(op)).isEqualTo(fans.contains(userId)));
+    }
+
+    /**
+     * 读取本测试目标的写回事件，返回每个用户最后一次切换后的状态
+     */
+    private Map<String, String> lastOpsByUser(String type, long targetId) {
+        List<MapRecord<String, Object, Object>> records = redisTemplate.opsForStream()
+                .range(InteractionService.WRITE_BEHIND_STREAM, Range.unbounded());
+        Map<String, String> lastOps = new HashMap<>();
+        if (records == null) {
+            return lastOps;
+        }
+        for (MapRecord<String, Object, Object> record : records) {
+            Map<Object, Object> fields = record.getValue();
+            if (type.equals(fields.get("t")) && String.valueOf(targetId).equals(fields.get("g"))) {
+                testEvents.add(record.getId());
+                lastOps.put((String) fields.get("u"), (String) fields.get("op"));
+            }
+        }
+        return lastOps;
+    }
+
+    private List<ToggleResult> runConcurrently(Toggle toggle) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<ToggleResult>>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                List<ToggleResult> results = new ArrayList<>(TOGGLES_PER_THREAD);
+                for (int i = 0; i < TOGGLES_PER_THREAD; i++) {
+                    long userId = userBase + 1 + ThreadLocalRandom.current().nextInt(USERS);
+                    results.add(toggle.apply(userId));
+                }
+                return results;
+            }));
+        }
+        start.countDown();
+        List<ToggleResult> all = new ArrayList<>();
+        for (Future<List<ToggleResult>> future : futures) {
+            all.addAll(future.get(60, TimeUnit.SECONDS));
+        }
+        pool.shutdown();
+        return all;
+    }
+
+    @FunctionalInterface
+    private interface Toggle {
+        ToggleResult apply(long userId);
+    }
+}
@@ -0,0 +1,115 @@
+package com.hiking.application.interaction.service;
+
+import com.hiking.infrastructure.config.WriteBehindProperties;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 互动存储内存对比：同一批用户ID分别写入 SET 与压缩位图，用 MEMORY USAGE 比较每个成员的字节数
+ * <p>
+ * 需要本地 Redis（localhost:6379 或环境变量 REDIS_HOST/REDIS_PORT），不可用时跳过；
+ * 不随常规测试运行，手动执行：mvn test -Dtest=InteractionStoreMemoryBenchmark
+ */
+class InteractionStoreMemoryBenchmark {
+
+    private static final int[] SIZES = {100, 1_000, 10_000, 100_000};
+
+    /**
+     * 用户ID分布：密集（自增ID的活跃段）与稀疏（全量用户中随机抽取）
+     */
+    private static final long DENSE_RANGE = 200_000;
+    private static final long SPARSE_RANGE = 50_000_000;
+
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate redisTemplate;
+
+    @BeforeAll
+    static void connect() {
+        String host = System.getenv().getOrDefault("REDIS_HOST", "localhost");
+        int port = Integer.parseInt(System.getenv().getOrDefault("REDIS_PORT", "6379"));
+        connectionFactory = new LettuceConnectionFactory(host, port);
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+        boolean available;
+        try {
+            available = "PONG".equals(redisTemplate.execute(connection -> connection.ping(), true));
+        } catch (Exception e) {
+            available = false;
+        }
+        Assumptions.assumeTrue(available, "本地 Redis 不可用，跳过内存对比");
+    }
+
+    @AfterAll
+    static void disconnect() {
+        if (connectionFactory != null) {
+            connectionFactory.destroy();
+        }
+    }
+
+    @Test
+    void compareMemoryUsage() {
+        WriteBehindProperties properties = new WriteBehindProperties();
+        InteractionStore setStore = new RedisSetInteractionStore(redisTemplate, properties);
+        InteractionStore bitmapStore = new RedisBitmapInteractionStore(redisTemplate, properties);
+        Random random = new Random(42);
+
+        System.out.printf("%-8s %8s %14s %14s %10s %10s%n",
+                "分布", "成员数", "SET 字节", "位图字节", "SET B/个", "位图 B/个");
+        for (String distribution : List.of("dense", "sparse")) {
+            long range = "dense".equals(distribution) ? DENSE_RANGE : SPARSE_RANGE;
+            for (int size : SIZES) {
+                Set<Long> userIds = new LinkedHashSet<>();
+                while (userIds.size() < size) {
+                    userIds.add(1 + (long) (random.nextDouble() * range));
+                }
+                String key = "benchmark:interaction:" + distribution + ":" + size;
+                try {
+                    setStore.addAll(key, userIds);
+                    bitmapStore.addAll(key, userIds);
+
+                    assertThat(setStore.cardinality(key)).isEqualTo(size);
+                    assertThat(bitmapStore.cardinality(key)).isEqualTo(size);
+                    List<String> keys = new ArrayList<>();
+                    List<Long> probes = new ArrayList<>();
+                    for (int i = 0; i < 200; i++) {
+                        keys.add(key);
+                        probes.add(1 + (long) (random.nextDouble() * range));
+                    }
+                    assertThat(bitmapStore.isMembers(keys, probes)).isEqualTo(setStore.isMembers(keys, probes));
+
+                    long setBytes = memoryUsage(key);
+                    long bitmapBytes = memoryUsage(RedisBitmapInteractionStore.KEY_PREFIX + key);
+                    System.out.printf("%-8s %8d %14d %14d %10.1f %10.1f%n", distribution, size, setBytes, bitmapBytes,
+                            (double) setBytes / size, (double) bitmapBytes / size);
+                    if (size >= 10_000) {
+                        assertThat(bitmapBytes).isLessThan(setBytes);
+                    }
+                } finally {
+                    redisTemplate.delete(List.of(key, RedisBitmapInteractionStore.KEY_PREFIX + key));
+                }
+            }
+        }
+    }
+
+    private static long memoryUsage(String key) {
+        Object reply = redisTemplate.execute(connection -> connection.execute("MEMORY",
+                "USAGE".getBytes(StandardCharsets.UTF_8),
+                key.getBytes(StandardCharsets.UTF_8),
+                "SAMPLES".getBytes(StandardCharsets.UTF_8),
+                "0".getBytes(StandardCharsets.UTF_8)), true);
+        return reply instanceof Number number ? number.longValue() : -1;
+    }
+}
@@ -0,0 +1,205 @@
+package com.hiking.application.interaction.service;
+
+import com.hiking.application.interaction.dto.ToggleResult;
+import com.hiking.infrastructure.config.WriteBehindProperties;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 位图存储切换测试：逐个切换成员跨过数组→位图（第 4096 个成员）、删除回落到位图→数组、
+ * 容器删空后 HDEL 字段、集合删空后 DEL 整个键，每一步的状态与基数都与 Set&lt;Long&gt; 对照
+ * <p>
+ * 需要本地 Redis（localhost:6379 或环境变量 REDIS_HOST/REDIS_PORT），不可用时跳过
+ */
+class RedisBitmapInteractionStoreTest {
+
+    /**
+     * 主桶成员数，超过数组容器上限以触发转为位图
+     */
+    private static final int MAIN_MEMBERS = BitmapContainer.ARRAY_MAX + 200;
+    private static final int SIDE_MEMBERS = 10;
+
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate redisTemplate;
+
+    private final long postId = 900_000_000L + ThreadLocalRandom.current().nextInt(1_000_000);
+    private final String key = InteractionService.POST_LIKE_KEY + postId;
+    private final String redisKey = RedisBitmapInteractionStore.KEY_PREFIX + key;
+
+    /**
+     * 两个相邻高位桶：主桶跨过容器格式切换，副桶保证主桶删空时集合仍非空
+     */
+    private final long mainHigh = 200_000L + ThreadLocalRandom.current().nextInt(1_000_000);
+    private final long sideHigh = mainHigh + 1;
+
+    private final Random random = new Random(42);
+    private final Set<Long> expected = new HashSet<>();
+
+    private RedisBitmapInteractionStore store;
+
+    @BeforeAll
+    static void connect() {
+        String host = System.getenv().getOrDefault("REDIS_HOST", "localhost");
+        int port = Integer.parseInt(System.getenv().getOrDefault("REDIS_PORT", "6379"));
+        connectionFactory = new LettuceConnectionFactory(host, port);
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+        boolean available;
+        try {
+            available = "PONG".equals(redisTemplate.execute(connection -> connection.ping(), true));
+        } catch (Exception e) {
+            available = false;
+        }
+        Assumptions.assumeTrue(available, "本地 Redis 不可用，跳过位图存储测试");
+    }
+
+    @AfterAll
+    static void disconnect() {
+        if (connectionFactory != null) {
+            connectionFactory.destroy();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        store = new RedisBitmapInteractionStore(redisTemplate, new WriteBehindProperties());
+    }
+
+    @AfterEach
+    void cleanUp() {
+        redisTemplate.delete(redisKey);
+        List<MapRecord<String, Object, Object>> records = redisTemplate.opsForStream()
+                .range(InteractionService.WRITE_BEHIND_STREAM, Range.unbounded());
+        if (records == null) {
+            return;
+        }
+        List<RecordId> testEvents = new ArrayList<>();
+        for (MapRecord<String, Object, Object> record : records) {
+            if (String.valueOf(postId).equals(record.getValue().get("g"))
+                    && InteractionService.EVENT_LIKE.equals(record.getValue().get("t"))) {
+                testEvents.add(record.getId());
+            }
+        }
+        if (!testEvents.isEmpty()) {
+            redisTemplate.opsForStream().delete(InteractionService.WRITE_BEHIND_STREAM,
+                    testEvents.toArray(new RecordId[0]));
+        }
+    }
+
+    @Test
+    void togglesFollowContainerTransitions() {
+        List<Long> main = members(mainHigh, MAIN_MEMBERS);
+        List<Long> side = members(sideHigh, SIDE_MEMBERS);
+
+        side.forEach(this::toggleAndVerify);
+        for (int i = 0; i < main.size(); i++) {
+            toggleAndVerify(main.get(i));
+            // 第 ARRAY_MAX + 1 个成员写入时数组转为位图
+            assertThat(containerLength(mainHigh)).isEqualTo(expectedLength(i + 1));
+        }
+        assertMembership(main, side);
+
+        Collections.shuffle(main, random);
+        for (int i = 0; i < main.size(); i++) {
+            toggleAndVerify(main.get(i));
+            int remaining = main.size() - i - 1;
+            if (remaining > 0) {
+                // 位图删到 ARRAY_MAX 个及以下时转回数组
+                assertThat(containerLength(mainHigh)).isEqualTo(expectedLength(remaining));
+            }
+        }
+        // 主桶删空只 HDEL 该字段，副桶仍在
+        assertThat(redisTemplate.opsForHash().hasKey(redisKey, String.valueOf(mainHigh))).isFalse();
+        assertThat(redisTemplate.hasKey(redisKey)).isTrue();
+        assertMembership(main, side);
+
+        side.forEach(this::toggleAndVerify);
+        // 基数归零时整个键被删除
+        assertThat(redisTemplate.hasKey(redisKey)).isFalse();
+        assertThat(store.cardinality(key)).isZero();
+    }
+
+    @Test
+    void toggleTwiceRestoresBitmapContainer() {
+        List<Long> main = members(mainHigh, BitmapContainer.ARRAY_MAX + 1);
+        main.forEach(this::toggleAndVerify);
+        assertThat(containerLength(mainHigh)).isEqualTo(BitmapContainer.BITMAP_BYTES);
+
+        // 恰在上限处删除一个再加回：位图→数组→位图
+        Long member = main.get(random.nextInt(main.size()));
+        toggleAndVerify(member);
+        assertThat(containerLength(mainHigh)).isEqualTo(2L * BitmapContainer.ARRAY_MAX);
+        toggleAndVerify(member);
+        assertThat(containerLength(mainHigh)).isEqualTo(BitmapContainer.BITMAP_BYTES);
+        assertMembership(main, List.of());
+    }
+
+    /**
+     * 切换一次，状态与基数都应与对照集合的变化一致
+     */
+    private void toggleAndVerify(Long userId) {
+        boolean added = expected.add(userId);
+        if (!added) {
+            expected.remove(userId);
+        }
+        ToggleResult result = store.toggle(key, userId, InteractionService.EVENT_LIKE, postId);
+        assertThat(result.isActive()).as("userId=%d", userId).isEqualTo(added);
+        assertThat(result.getCount()).as("userId=%d", userId).isEqualTo((long) expected.size());
+    }
+
+    private void assertMembership(List<Long> main, List<Long> side) {
+        List<Long> probes = new ArrayList<>(main);
+        probes.addAll(side);
+        probes.addAll(members(mainHigh, 500));
+        List<String> keys = Collections.nCopies(probes.size(), key);
+        List<Boolean> members = store.isMembers(keys, probes);
+        for (int i = 0; i < probes.size(); i++) {
+            assertThat(members.get(i)).as("userId=%d", probes.get(i)).isEqualTo(expected.contains(probes.get(i)));
+        }
+        assertThat(store.cardinality(key)).isEqualTo((long) expected.size());
+    }
+
+    /**
+     * 同一高位桶内随机取不重复的低位
+     */
+    private List<Long> members(long high, int count) {
+        List<Long> lows = new ArrayList<>(65536);
+        for (long low = 0; low < 65536; low++) {
+            lows.add(low);
+        }
+        Collections.shuffle(lows, random);
+        List<Long> members = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            members.add((high << 16) | lows.get(i));
+        }
+        return members;
+    }
+
+    private long containerLength(long high) {
+        Long length = redisTemplate.opsForHash().lengthOfValue(redisKey, String.valueOf(high));
+        return length != null ? length : 0;
+    }
+
+    private static long expectedLength(int size) {
+        return size > BitmapContainer.ARRAY_MAX ? BitmapContainer.BITMAP_BYTES : 2L * size;
+    }
+}
@@ -0,0 +1,53 @@
+package com.hiking.domain.post.valueobject;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 帖子列表游标：编码往返、时间与排名两种排序键、非法游标
+ */
+class PostCursorTest {
+
+    @Test
+    void timeCursorRoundTrip() {
+        LocalDateTime createTime = LocalDateTime.of(2024, 5, 1, 8, 30, 15, 123_000_000);
+        PostCursor decoded = PostCursor.decode(PostCursor.ofTime(createTime, 987654321L).encode());
+
+        assertThat(decoded.getId()).isEqualTo(987654321L);
+        assertThat(decoded.getTime()).isEqualTo(createTime);
+        assertThat(decoded.isRank()).isFalse();
+    }
+
+    @Test
+    void rankCursorRoundTrip() {
+        PostCursor decoded = PostCursor.decode(PostCursor.ofRank(40).encode());
+
+        assertThat(decoded.isRank()).isTrue();
+        assertThat(decoded.getSortValue()).isEqualTo(40);
+    }
+
+    @Test
+    void encodedCursorIsUrlSafe() {
+        String encoded = PostCursor.of(Long.MAX_VALUE, Long.MAX_VALUE).encode();
+
+        assertThat(encoded).matches("[A-Za-z0-9_-]+");
+        assertThat(PostCursor.decode(encoded).getSortValue()).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    void blankCursorMeansFirstPage() {
+        assertThat(PostCursor.decode(null)).isNull();
+        assertThat(PostCursor.decode(" ")).isNull();
+    }
+
+    @Test
+    void rejectsMalformedCursor() {
+        assertThatThrownBy(() -> PostCursor.decode("not a cursor")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PostCursor.decode("MTIz")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PostCursor.decode("YWJjOjE")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,43 @@
+package com.hiking.domain.team.valueobject;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 团队成员游标：角色排序值、加入时间、成员ID 编码往返，非法游标
+ */
+class TeamMemberCursorTest {
+
+    @Test
+    void roundTrip() {
+        LocalDateTime joinTime = LocalDateTime.of(2024, 3, 9, 21, 5, 0, 456_000_000);
+        TeamMemberCursor decoded = TeamMemberCursor.decode(TeamMemberCursor.of(MemberRole.ADMIN, joinTime, 42L).encode());
+
+        assertThat(decoded.getRoleRank()).isEqualTo(MemberRole.ADMIN.rank());
+        assertThat(decoded.getJoinDateTime()).isEqualTo(joinTime);
+        assertThat(decoded.getId()).isEqualTo(42L);
+    }
+
+    @Test
+    void roleRankFollowsListOrder() {
+        assertThat(MemberRole.OWNER.rank()).isLessThan(MemberRole.ADMIN.rank());
+        assertThat(MemberRole.ADMIN.rank()).isLessThan(MemberRole.MEMBER.rank());
+    }
+
+    @Test
+    void blankCursorMeansFirstPage() {
+        assertThat(TeamMemberCursor.decode(null)).isNull();
+        assertThat(TeamMemberCursor.decode("")).isNull();
+    }
+
+    @Test
+    void rejectsMalformedCursor() {
+        assertThatThrownBy(() -> TeamMemberCursor.decode("%%%")).isInstanceOf(IllegalArgumentException.class);
+        // 只有两段
+        assertThatThrownBy(() -> TeamMemberCursor.decode("MToy")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
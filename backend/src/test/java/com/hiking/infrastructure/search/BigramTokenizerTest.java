@@ -0,0 +1,51 @@
+package com.hiking.infrastructure.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 二元分词：索引时输出单字与二元组，查询时只输出二元组，字母数字整体成词
+ */
+class BigramTokenizerTest {
+
+    @Test
+    void indexEmitsUnigramsThenBigrams() {
+        assertThat(BigramTokenizer.tokenizeForIndex("徒步路线"))
+                .containsExactly("徒", "步", "路", "线", "徒步", "步路", "路线");
+    }
+
+    @Test
+    void queryEmitsBigramsOnly() {
+        assertThat(BigramTokenizer.tokenizeForQuery("徒步路线")).containsExactly("徒步", "步路", "路线");
+    }
+
+    @Test
+    void singleCharacterQueryKeepsUnigram() {
+        assertThat(BigramTokenizer.tokenizeForQuery("山")).containsExactly("山");
+    }
+
+    @Test
+    void lettersAndDigitsFormLowercaseWords() {
+        assertThat(BigramTokenizer.tokenizeForIndex("GR20徒步, Day-1"))
+                .containsExactly("gr20", "徒", "步", "徒步", "day", "1");
+    }
+
+    @Test
+    void separatorsSplitCjkRuns() {
+        assertThat(BigramTokenizer.tokenizeForQuery("香山 徒步")).containsExactly("香山", "徒步");
+    }
+
+    @Test
+    void queryTokensAreDeduplicated() {
+        assertThat(BigramTokenizer.tokenizeForQuery("徒步 徒步")).containsExactly("徒步");
+        assertThat(BigramTokenizer.tokenizeForIndex("徒步 徒步")).containsExactly("徒", "步", "徒步", "徒", "步", "徒步");
+    }
+
+    @Test
+    void emptyTextHasNoTokens() {
+        assertThat(BigramTokenizer.tokenizeForIndex(null)).isEmpty();
+        assertThat(BigramTokenizer.tokenizeForQuery("")).isEmpty();
+        assertThat(BigramTokenizer.tokenizeForQuery("  !? ")).isEmpty();
+    }
+}
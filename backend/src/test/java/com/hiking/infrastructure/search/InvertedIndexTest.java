@@ -0,0 +1,147 @@
+package com.hiking.infrastructure.search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 倒排索引：多词交集、BM25 排序、更新与删除、压缩重新编号、快照读写
+ */
+class InvertedIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void matchesOnlyDocumentsContainingEveryTerm() {
+        InvertedIndex index = new InvertedIndex();
+        index.add(1, 1, termFreqs("徒步路线 香山"));
+        index.add(2, 1, termFreqs("香山红叶 徒步"));
+        index.add(3, 1, termFreqs("露营装备"));
+        index.add(4, 1, termFreqs("徒步"));
+
+        assertThat(search(index, "徒步")).containsExactlyInAnyOrder(1L, 2L, 4L);
+        assertThat(search(index, "香山 徒步")).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(search(index, "香山 露营")).isEmpty();
+        assertThat(search(index, "雪山")).isEmpty();
+    }
+
+    @Test
+    void ranksByTermFrequencyAndLength() {
+        InvertedIndex index = new InvertedIndex();
+        index.add(1, 1, termFreqs("徒步"));
+        index.add(2, 1, termFreqs("徒步 露营装备清单"));
+        index.add(3, 1, termFreqs("徒步徒步徒步"));
+
+        // 词频高的在前；词频相同时短文档在前（先加入的短文档排在后加入的长文档之前，不是同分按新旧排的结果）
+        assertThat(search(index, "徒步")).containsExactly(3L, 1L, 2L);
+    }
+
+    @Test
+    void tiesFavorNewerDocuments() {
+        InvertedIndex index = new InvertedIndex();
+        index.add(10, 1, termFreqs("徒步"));
+        index.add(11, 1, termFreqs("徒步"));
+        index.add(12, 1, termFreqs("徒步"));
+
+        assertThat(index.search(List.of("徒步"), 0, 10)).containsExactly(12L, 11L, 10L);
+        assertThat(index.search(List.of("徒步"), 1, 1)).containsExactly(11L);
+        assertThat(index.search(List.of("徒步"), 3, 10)).isEmpty();
+    }
+
+    @Test
+    void updateReplacesAndRemoveHidesDocument() {
+        InvertedIndex index = new InvertedIndex();
+        index.add(1, 1, termFreqs("徒步"));
+        index.add(2, 1, termFreqs("徒步"));
+
+        index.add(1, 2, termFreqs("露营"));
+        assertThat(index.isCurrent(1, 2)).isTrue();
+        assertThat(index.isCurrent(1, 1)).isFalse();
+        assertThat(search(index, "徒步")).containsExactly(2L);
+        assertThat(search(index, "露营")).containsExactly(1L);
+
+        assertThat(index.remove(2)).isTrue();
+        assertThat(index.remove(2)).isFalse();
+        assertThat(search(index, "徒步")).isEmpty();
+        assertThat(index.liveCount()).isEqualTo(1);
+        assertThat(index.deletedCount()).isEqualTo(2);
+    }
+
+    @Test
+    void compactKeepsResultsAndDropsDeletedDocuments() {
+        InvertedIndex index = populated();
+        List<Long> before = search(index, "徒步");
+        List<Long> camping = search(index, "露营");
+
+        index.compact();
+
+        assertThat(index.deletedCount()).isZero();
+        assertThat(index.liveCount()).isEqualTo(before.size() + camping.size());
+        assertThat(search(index, "徒步")).containsExactlyElementsOf(before);
+        assertThat(search(index, "露营")).containsExactlyElementsOf(camping);
+        assertThat(search(index, "雪山")).isEmpty();
+
+        // 压缩后继续追加，新文档号接在重新编号之后
+        index.add(100, 1, termFreqs("徒步徒步徒步徒步"));
+        assertThat(search(index, "徒步").get(0)).isEqualTo(100L);
+    }
+
+    @Test
+    void snapshotRoundTrip() throws Exception {
+        InvertedIndex index = populated();
+        Path file = tempDir.resolve("posts.idx");
+        assertThatThrownBy(() -> index.writeTo(file, 42L)).isInstanceOf(IllegalStateException.class);
+
+        index.compact();
+        index.writeTo(file, 42L);
+        InvertedIndex.Snapshot snapshot = InvertedIndex.readFrom(file);
+        InvertedIndex loaded = snapshot.index();
+
+        assertThat(snapshot.syncTime()).isEqualTo(42L);
+        assertThat(loaded.liveCount()).isEqualTo(index.liveCount());
+        assertThat(search(loaded, "徒步")).containsExactlyElementsOf(search(index, "徒步"));
+        assertThat(search(loaded, "香山 徒步")).containsExactlyElementsOf(search(index, "香山 徒步"));
+        assertThat(loaded.isCurrent(3, 2)).isTrue();
+
+        loaded.add(3, 3, termFreqs("雪山"));
+        assertThat(search(loaded, "雪山")).containsExactly(3L);
+        assertThat(search(loaded, "徒步")).doesNotContain(3L);
+    }
+
+    /**
+     * 含更新、删除的索引：徒步 1、3、5、7，露营 2、6，雪山文档已删除
+     */
+    private static InvertedIndex populated() {
+        InvertedIndex index = new InvertedIndex();
+        index.add(1, 1, termFreqs("香山徒步 香山"));
+        index.add(2, 1, termFreqs("露营装备"));
+        index.add(3, 1, termFreqs("雪山"));
+        index.add(4, 1, termFreqs("雪山露营"));
+        index.add(5, 1, termFreqs("徒步路线推荐 徒步"));
+        index.add(6, 1, termFreqs("周末露营"));
+        index.add(7, 1, termFreqs("香山 徒步"));
+        index.add(3, 2, termFreqs("徒步"));
+        index.remove(4);
+        return index;
+    }
+
+    private static List<Long> search(InvertedIndex index, String query) {
+        return index.search(BigramTokenizer.tokenizeForQuery(query), 0, 100);
+    }
+
+    private static Map<String, Integer> termFreqs(String text) {
+        Map<String, Integer> freqs = new HashMap<>();
+        for (String token : BigramTokenizer.tokenizeForIndex(text)) {
+            freqs.merge(token, 1, Integer::sum);
+        }
+        return freqs;
+    }
+}
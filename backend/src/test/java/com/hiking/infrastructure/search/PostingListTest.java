@@ -0,0 +1,70 @@
+package com.hiking.infrastructure.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 压缩倒排链：差值与词频的变长编码、快照读写后继续追加
+ */
+class PostingListTest {
+
+    @Test
+    void decodesWhatWasAdded() {
+        PostingList list = new PostingList();
+        // 跨过 1、2、3 字节的变长整数边界
+        list.add(0, 1);
+        list.add(5, 3);
+        list.add(300, 200);
+        list.add(100_000, 20_000);
+
+        assertThat(list.docCount()).isEqualTo(4);
+        assertThat(entries(list)).containsExactly(
+                new int[]{0, 1}, new int[]{5, 3}, new int[]{300, 200}, new int[]{100_000, 20_000});
+    }
+
+    @Test
+    void rejectsNonIncreasingDocNo() {
+        PostingList list = new PostingList();
+        list.add(3, 1);
+
+        assertThatThrownBy(() -> list.add(3, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> list.add(2, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void roundTripsAndKeepsAppending() throws Exception {
+        PostingList list = new PostingList();
+        for (int doc = 0; doc < 1000; doc += 7) {
+            list.add(doc, doc % 5 + 1);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            list.writeTo(out);
+        }
+
+        PostingList loaded = PostingList.readFrom(ByteBuffer.wrap(bytes.toByteArray()));
+        assertThat(loaded.docCount()).isEqualTo(list.docCount());
+        assertThat(entries(loaded)).containsExactlyElementsOf(entries(list));
+
+        // 读回后末尾文档号保留，继续追加按差值编码
+        assertThatThrownBy(() -> loaded.add(994, 1)).isInstanceOf(IllegalArgumentException.class);
+        loaded.add(5000, 9);
+        List<int[]> appended = entries(loaded);
+        assertThat(appended).hasSize(list.docCount() + 1);
+        assertThat(appended.get(appended.size() - 1)).containsExactly(5000, 9);
+    }
+
+    private static List<int[]> entries(PostingList list) {
+        List<int[]> entries = new ArrayList<>();
+        list.forEach((docNo, termFreq) -> entries.add(new int[]{docNo, termFreq}));
+        return entries;
+    }
+}